@@ -1,1216 +1,525 @@
-package com.bitboards;
-
-import com.google.common.collect.ImmutableMap;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-public class BitBoard {
-    static final ChessBitSet LEFT_DIAGONAL_1 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_2 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_3 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_4 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_5 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_6 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_7 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_8 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_9 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_10 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_11 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_12 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_13 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_14 = new ChessBitSet();
-    static final ChessBitSet LEFT_DIAGONAL_15 = new ChessBitSet();
-    private static final ChessBitSet FILE_A = new ChessBitSet();
-    private static final ChessBitSet FILE_B = new ChessBitSet();
-    private static final ChessBitSet FILE_C = new ChessBitSet();
-    private static final ChessBitSet FILE_D = new ChessBitSet();
-    private static final ChessBitSet FILE_E = new ChessBitSet();
-    private static final ChessBitSet FILE_F = new ChessBitSet();
-    private static final ChessBitSet FILE_G = new ChessBitSet();
-    private static final ChessBitSet FILE_H = new ChessBitSet();
-    private static final ChessBitSet RANK_1 = new ChessBitSet();
-    private static final ChessBitSet RANK_2 = new ChessBitSet();
-    private static final ChessBitSet RANK_3 = new ChessBitSet();
-    private static final ChessBitSet RANK_4 = new ChessBitSet();
-    private static final ChessBitSet RANK_5 = new ChessBitSet();
-    private static final ChessBitSet RANK_6 = new ChessBitSet();
-    private static final ChessBitSet RANK_7 = new ChessBitSet();
-    private static final ChessBitSet RANK_8 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_1 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_2 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_3 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_4 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_5 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_6 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_7 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_8 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_9 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_10 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_11 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_12 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_13 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_14 = new ChessBitSet();
-    private static final ChessBitSet RIGHT_DIAGONAL_15 = new ChessBitSet();
-    private static final ChessBitSet EMPTY_SET = new ChessBitSet();
-    private static final ChessBitSet FULL_SET = new ChessBitSet();
-    private static final String[] algebraicNotation = {"a8", "b8", "c8", "d8",
-            "e8", "f8", "g8", "h8", "a7", "b7", "c7", "d7", "e7", "f7", "g7",
-            "h7", "a6", "b6", "c6", "d6", "e6", "f6", "g6", "h6", "a5", "b5",
-            "c5", "d5", "e5", "f5", "g5", "h5", "a4", "b4", "c4", "d4", "e4",
-            "f4", "g4", "h4", "a3", "b3", "c3", "d3", "e3", "f3", "g3", "h3",
-            "a2", "b2", "c2", "d2", "e2", "f2", "g2", "h2", "a1", "b1", "c1",
-            "d1", "e1", "f1", "g1", "h1"};
-    static Map<Integer, ChessBitSet> ALL_RIGHT_DIAGONALS = new HashMap<>();
-    private static ChessBitSet whiteKnights;
-    private static ChessBitSet whiteBishops;
-    private static ChessBitSet whiteRooks;
-    private static ChessBitSet whiteQueens;
-    private static ChessBitSet whiteKing;
-    private static ChessBitSet whitePawns;
-    private static ChessBitSet blackKnights;
-    private static ChessBitSet blackBishops;
-    private static ChessBitSet blackRooks;
-    private static ChessBitSet blackQueens;
-    private static ChessBitSet blackKing;
-    private static ChessBitSet blackPawns;
-    private static ChessBitSet whiteLegalLocations;
-    private static ChessBitSet blackLegalLocations;
-    private static Map<Integer, ChessBitSet> ALL_FILES = new HashMap<>();
-    private static Map<Integer, ChessBitSet> ALL_RANKS = new HashMap<>();
-    private static Map<Integer, ChessBitSet> ALL_LEFT_DIAGONALS = new HashMap<>();
-
-    static {
-        initializeColumns();
-        initializeLeftDiagonals();
-        initializeRightDiagonals();
-        initializeRows();
-        FULL_SET.set(0, 63);
-        EMPTY_SET.clear();
-    }
-
-    private final List<Move> boardLegalMoves;
-    private static BitBoard INSTANCE = new BitBoard();
-
-    private BitBoard() {
-        whiteRooks = new ChessBitSet();
-        whiteRooks.set(56);
-        whiteRooks.set(63);
-
-        whiteKnights = new ChessBitSet();
-        whiteKnights.set(57);
-        whiteKnights.set(62);
-
-        whiteBishops = new ChessBitSet();
-        whiteBishops.set(58);
-        whiteBishops.set(61);
-
-        whiteQueens = new ChessBitSet();
-        whiteQueens.set(59);
-
-        whiteKing = new ChessBitSet();
-        whiteKing.set(60);
-
-        whitePawns = new ChessBitSet();
-        for (int i = 48; i < 56; i++) {
-            whitePawns.set(i);
-        }
-
-        blackRooks = new ChessBitSet();
-        blackRooks.set(0);
-        blackRooks.set(7);
+/**
+ * The {@code BitBoard} class is the {@link MutableBoard} implementation built on 64-bit bitboards.
+ * Every piece code has its own {@code long} in which bit {@code i} marks a piece on coordinate {@code i},
+ * next to one occupancy board per alliance and one for the whole board. A primitive mailbox of piece codes
+ * is kept alongside for constant time lookups of the piece on a tile.
+ * <p>
+ * Move generation works on whole sets of tiles at once: pawn pushes and captures are board shifts,
+ * while knight, king and slider attacks come from the tables of {@link BitBoardUtils}. Legal moves are generated
+ * directly from the pins and checks of the position, see {@link LegalMoveMasks}.
+ */
 
-        blackKnights = new ChessBitSet();
-        blackKnights.set(1);
-        blackKnights.set(6);
-
-        blackBishops = new ChessBitSet();
-        blackBishops.set(2);
-        blackBishops.set(5);
-
-        blackQueens = new ChessBitSet();
-        blackQueens.set(3);
-
-        blackKing = new ChessBitSet();
-        blackKing.set(4);
+package com.bitboards;
 
-        blackPawns = new ChessBitSet();
-        for (int i = 8; i < 16; i++) {
-            blackPawns.set(i);
+import com.chess.engine.Alliance;
+import com.chess.engine.board.AbstractMutableBoard;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.board.Zobrist;
+import com.chess.engine.piece.King;
+import com.chess.engine.piece.Piece;
+import com.chess.engine.piece.PieceUtils;
+
+public class BitBoard extends AbstractMutableBoard {
+    private static final int[] PROMOTION_TYPES = {PieceUtils.QUEEN, PieceUtils.ROOK, PieceUtils.BISHOP, PieceUtils.KNIGHT};
+    private static final long PROMOTION_RANKS = BitBoardUtils.RANK_8 | BitBoardUtils.RANK_1;
+
+    /**
+     * The piece boards, indexed by piece code. The indices 0, 7 and 8 are unused.
+     */
+    private final long[] pieceBoards;
+    private final long[] allianceBoards;
+    private long occupancy;
+    private final int[] squares;
+    private final boolean[] castled;
+    private final LegalMoveMasks legalMoveMasks;
+
+    /**
+     * Constructs a {@code BitBoard} holding the same position as the given immutable board.
+     *
+     * @param board The board to copy.
+     */
+    public BitBoard(final Board board) {
+        super(board);
+        this.pieceBoards = new long[16];
+        this.allianceBoards = new long[2];
+        this.squares = new int[BoardUtils.NUM_TILES];
+        this.castled = new boolean[2];
+        this.legalMoveMasks = new LegalMoveMasks();
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            final Piece piece = board.getPiece(i);
+            if (piece != null) {
+                addPiece(i, PieceUtils.encode(piece));
+                if (piece.getPieceType().isKing()) {
+                    this.castled[piece.getPieceAlliance().ordinal()] = ((King) piece).isCastled();
+                }
+            }
         }
+    }
 
-        whiteLegalLocations = new ChessBitSet();
-        blackLegalLocations = new ChessBitSet();
-
-        boardLegalMoves = new ArrayList<>();
-
-        generateStandardLegalMoves();
+    private static int allianceIndex(final int pieceCode) {
+        return (pieceCode & PieceUtils.BLACK_FLAG) >>> 3;
     }
 
-    private static void initializeRows() {
-        for (int i = 0; i < 8; i++) {
-            RANK_1.set(i);
-            ALL_RANKS.put(i, RANK_1);
-        }
-        for (int i = 8; i < 16; i++) {
-            RANK_2.set(i);
-            ALL_RANKS.put(i, RANK_2);
-        }
-        for (int i = 16; i < 24; i++) {
-            RANK_3.set(i);
-            ALL_RANKS.put(i, RANK_3);
-        }
-        for (int i = 24; i < 32; i++) {
-            RANK_4.set(i);
-            ALL_RANKS.put(i, RANK_4);
-        }
-        for (int i = 32; i < 40; i++) {
-            RANK_5.set(i);
-            ALL_RANKS.put(i, RANK_5);
-        }
-        for (int i = 40; i < 48; i++) {
-            RANK_6.set(i);
-            ALL_RANKS.put(i, RANK_6);
-        }
-        for (int i = 48; i < 56; i++) {
-            RANK_7.set(i);
-            ALL_RANKS.put(i, RANK_7);
-        }
-        for (int i = 56; i < 64; i++) {
-            RANK_8.set(i);
-            ALL_RANKS.put(i, RANK_8);
-        }
-        ALL_RANKS = ImmutableMap.copyOf(ALL_RANKS);
+    private void addPiece(final int square, final int pieceCode) {
+        final long bit = 1L << square;
+        this.pieceBoards[pieceCode] |= bit;
+        this.allianceBoards[allianceIndex(pieceCode)] |= bit;
+        this.occupancy |= bit;
+        this.squares[square] = pieceCode;
     }
 
-    private static void initializeLeftDiagonals() {
-        LEFT_DIAGONAL_1.set(7);
-        LEFT_DIAGONAL_2.set(6);
-        LEFT_DIAGONAL_2.set(15);
-        LEFT_DIAGONAL_3.set(5);
-        LEFT_DIAGONAL_3.set(14);
-        LEFT_DIAGONAL_3.set(23);
-        LEFT_DIAGONAL_4.set(4);
-        LEFT_DIAGONAL_4.set(13);
-        LEFT_DIAGONAL_4.set(22);
-        LEFT_DIAGONAL_4.set(31);
-        LEFT_DIAGONAL_5.set(3);
-        LEFT_DIAGONAL_5.set(12);
-        LEFT_DIAGONAL_5.set(21);
-        LEFT_DIAGONAL_5.set(30);
-        LEFT_DIAGONAL_5.set(39);
-        LEFT_DIAGONAL_6.set(2);
-        LEFT_DIAGONAL_6.set(11);
-        LEFT_DIAGONAL_6.set(20);
-        LEFT_DIAGONAL_6.set(29);
-        LEFT_DIAGONAL_6.set(38);
-        LEFT_DIAGONAL_6.set(47);
-        LEFT_DIAGONAL_7.set(1);
-        LEFT_DIAGONAL_7.set(10);
-        LEFT_DIAGONAL_7.set(19);
-        LEFT_DIAGONAL_7.set(28);
-        LEFT_DIAGONAL_7.set(37);
-        LEFT_DIAGONAL_7.set(46);
-        LEFT_DIAGONAL_7.set(55);
-        LEFT_DIAGONAL_8.set(0);
-        LEFT_DIAGONAL_8.set(9);
-        LEFT_DIAGONAL_8.set(18);
-        LEFT_DIAGONAL_8.set(27);
-        LEFT_DIAGONAL_8.set(36);
-        LEFT_DIAGONAL_8.set(45);
-        LEFT_DIAGONAL_8.set(54);
-        LEFT_DIAGONAL_8.set(63);
-        LEFT_DIAGONAL_9.set(8);
-        LEFT_DIAGONAL_9.set(17);
-        LEFT_DIAGONAL_9.set(26);
-        LEFT_DIAGONAL_9.set(35);
-        LEFT_DIAGONAL_9.set(44);
-        LEFT_DIAGONAL_9.set(53);
-        LEFT_DIAGONAL_9.set(62);
-        LEFT_DIAGONAL_10.set(16);
-        LEFT_DIAGONAL_10.set(25);
-        LEFT_DIAGONAL_10.set(34);
-        LEFT_DIAGONAL_10.set(43);
-        LEFT_DIAGONAL_10.set(52);
-        LEFT_DIAGONAL_10.set(61);
-        LEFT_DIAGONAL_11.set(24);
-        LEFT_DIAGONAL_11.set(33);
-        LEFT_DIAGONAL_11.set(42);
-        LEFT_DIAGONAL_11.set(51);
-        LEFT_DIAGONAL_11.set(60);
-        LEFT_DIAGONAL_12.set(32);
-        LEFT_DIAGONAL_12.set(41);
-        LEFT_DIAGONAL_12.set(50);
-        LEFT_DIAGONAL_12.set(59);
-        LEFT_DIAGONAL_13.set(40);
-        LEFT_DIAGONAL_13.set(49);
-        LEFT_DIAGONAL_13.set(58);
-        LEFT_DIAGONAL_14.set(48);
-        LEFT_DIAGONAL_14.set(57);
-        LEFT_DIAGONAL_15.set(56);
-        ALL_LEFT_DIAGONALS.put(7, LEFT_DIAGONAL_1);
-        ALL_LEFT_DIAGONALS.put(6, LEFT_DIAGONAL_2);
-        ALL_LEFT_DIAGONALS.put(15, LEFT_DIAGONAL_2);
-        ALL_LEFT_DIAGONALS.put(5, LEFT_DIAGONAL_3);
-        ALL_LEFT_DIAGONALS.put(14, LEFT_DIAGONAL_3);
-        ALL_LEFT_DIAGONALS.put(23, LEFT_DIAGONAL_3);
-        ALL_LEFT_DIAGONALS.put(4, LEFT_DIAGONAL_4);
-        ALL_LEFT_DIAGONALS.put(13, LEFT_DIAGONAL_4);
-        ALL_LEFT_DIAGONALS.put(22, LEFT_DIAGONAL_4);
-        ALL_LEFT_DIAGONALS.put(31, LEFT_DIAGONAL_4);
-        ALL_LEFT_DIAGONALS.put(3, LEFT_DIAGONAL_5);
-        ALL_LEFT_DIAGONALS.put(12, LEFT_DIAGONAL_5);
-        ALL_LEFT_DIAGONALS.put(21, LEFT_DIAGONAL_5);
-        ALL_LEFT_DIAGONALS.put(30, LEFT_DIAGONAL_5);
-        ALL_LEFT_DIAGONALS.put(39, LEFT_DIAGONAL_5);
-        ALL_LEFT_DIAGONALS.put(2, LEFT_DIAGONAL_6);
-        ALL_LEFT_DIAGONALS.put(11, LEFT_DIAGONAL_6);
-        ALL_LEFT_DIAGONALS.put(20, LEFT_DIAGONAL_6);
-        ALL_LEFT_DIAGONALS.put(29, LEFT_DIAGONAL_6);
-        ALL_LEFT_DIAGONALS.put(38, LEFT_DIAGONAL_6);
-        ALL_LEFT_DIAGONALS.put(47, LEFT_DIAGONAL_6);
-        ALL_LEFT_DIAGONALS.put(1, LEFT_DIAGONAL_7);
-        ALL_LEFT_DIAGONALS.put(10, LEFT_DIAGONAL_7);
-        ALL_LEFT_DIAGONALS.put(19, LEFT_DIAGONAL_7);
-        ALL_LEFT_DIAGONALS.put(28, LEFT_DIAGONAL_7);
-        ALL_LEFT_DIAGONALS.put(37, LEFT_DIAGONAL_7);
-        ALL_LEFT_DIAGONALS.put(46, LEFT_DIAGONAL_7);
-        ALL_LEFT_DIAGONALS.put(55, LEFT_DIAGONAL_7);
-        ALL_LEFT_DIAGONALS.put(0, LEFT_DIAGONAL_8);
-        ALL_LEFT_DIAGONALS.put(9, LEFT_DIAGONAL_8);
-        ALL_LEFT_DIAGONALS.put(18, LEFT_DIAGONAL_8);
-        ALL_LEFT_DIAGONALS.put(27, LEFT_DIAGONAL_8);
-        ALL_LEFT_DIAGONALS.put(36, LEFT_DIAGONAL_8);
-        ALL_LEFT_DIAGONALS.put(45, LEFT_DIAGONAL_8);
-        ALL_LEFT_DIAGONALS.put(54, LEFT_DIAGONAL_8);
-        ALL_LEFT_DIAGONALS.put(63, LEFT_DIAGONAL_8);
-        ALL_LEFT_DIAGONALS.put(8, LEFT_DIAGONAL_9);
-        ALL_LEFT_DIAGONALS.put(17, LEFT_DIAGONAL_9);
-        ALL_LEFT_DIAGONALS.put(26, LEFT_DIAGONAL_9);
-        ALL_LEFT_DIAGONALS.put(35, LEFT_DIAGONAL_9);
-        ALL_LEFT_DIAGONALS.put(44, LEFT_DIAGONAL_9);
-        ALL_LEFT_DIAGONALS.put(53, LEFT_DIAGONAL_9);
-        ALL_LEFT_DIAGONALS.put(62, LEFT_DIAGONAL_9);
-        ALL_LEFT_DIAGONALS.put(16, LEFT_DIAGONAL_10);
-        ALL_LEFT_DIAGONALS.put(25, LEFT_DIAGONAL_10);
-        ALL_LEFT_DIAGONALS.put(34, LEFT_DIAGONAL_10);
-        ALL_LEFT_DIAGONALS.put(43, LEFT_DIAGONAL_10);
-        ALL_LEFT_DIAGONALS.put(52, LEFT_DIAGONAL_10);
-        ALL_LEFT_DIAGONALS.put(61, LEFT_DIAGONAL_10);
-        ALL_LEFT_DIAGONALS.put(24, LEFT_DIAGONAL_11);
-        ALL_LEFT_DIAGONALS.put(33, LEFT_DIAGONAL_11);
-        ALL_LEFT_DIAGONALS.put(42, LEFT_DIAGONAL_11);
-        ALL_LEFT_DIAGONALS.put(51, LEFT_DIAGONAL_11);
-        ALL_LEFT_DIAGONALS.put(60, LEFT_DIAGONAL_11);
-        ALL_LEFT_DIAGONALS.put(32, LEFT_DIAGONAL_12);
-        ALL_LEFT_DIAGONALS.put(41, LEFT_DIAGONAL_12);
-        ALL_LEFT_DIAGONALS.put(50, LEFT_DIAGONAL_12);
-        ALL_LEFT_DIAGONALS.put(59, LEFT_DIAGONAL_12);
-        ALL_LEFT_DIAGONALS.put(40, LEFT_DIAGONAL_13);
-        ALL_LEFT_DIAGONALS.put(49, LEFT_DIAGONAL_13);
-        ALL_LEFT_DIAGONALS.put(58, LEFT_DIAGONAL_13);
-        ALL_LEFT_DIAGONALS.put(48, LEFT_DIAGONAL_14);
-        ALL_LEFT_DIAGONALS.put(57, LEFT_DIAGONAL_14);
-        ALL_LEFT_DIAGONALS.put(56, LEFT_DIAGONAL_15);
-        ALL_LEFT_DIAGONALS = ImmutableMap.copyOf(ALL_LEFT_DIAGONALS);
+    private void removePiece(final int square, final int pieceCode) {
+        final long bit = ~(1L << square);
+        this.pieceBoards[pieceCode] &= bit;
+        this.allianceBoards[allianceIndex(pieceCode)] &= bit;
+        this.occupancy &= bit;
+        this.squares[square] = PieceUtils.EMPTY;
     }
 
-    private static void initializeRightDiagonals() {
-        RIGHT_DIAGONAL_1.set(0);
-        RIGHT_DIAGONAL_2.set(1);
-        RIGHT_DIAGONAL_2.set(8);
-        RIGHT_DIAGONAL_3.set(2);
-        RIGHT_DIAGONAL_3.set(9);
-        RIGHT_DIAGONAL_3.set(16);
-        RIGHT_DIAGONAL_4.set(3);
-        RIGHT_DIAGONAL_4.set(10);
-        RIGHT_DIAGONAL_4.set(17);
-        RIGHT_DIAGONAL_4.set(24);
-        RIGHT_DIAGONAL_5.set(4);
-        RIGHT_DIAGONAL_5.set(11);
-        RIGHT_DIAGONAL_5.set(18);
-        RIGHT_DIAGONAL_5.set(25);
-        RIGHT_DIAGONAL_5.set(32);
-        RIGHT_DIAGONAL_6.set(5);
-        RIGHT_DIAGONAL_6.set(12);
-        RIGHT_DIAGONAL_6.set(19);
-        RIGHT_DIAGONAL_6.set(26);
-        RIGHT_DIAGONAL_6.set(33);
-        RIGHT_DIAGONAL_6.set(40);
-        RIGHT_DIAGONAL_7.set(6);
-        RIGHT_DIAGONAL_7.set(13);
-        RIGHT_DIAGONAL_7.set(20);
-        RIGHT_DIAGONAL_7.set(27);
-        RIGHT_DIAGONAL_7.set(34);
-        RIGHT_DIAGONAL_7.set(41);
-        RIGHT_DIAGONAL_7.set(48);
-        RIGHT_DIAGONAL_8.set(7);
-        RIGHT_DIAGONAL_8.set(14);
-        RIGHT_DIAGONAL_8.set(21);
-        RIGHT_DIAGONAL_8.set(28);
-        RIGHT_DIAGONAL_8.set(35);
-        RIGHT_DIAGONAL_8.set(42);
-        RIGHT_DIAGONAL_8.set(49);
-        RIGHT_DIAGONAL_8.set(56);
-        RIGHT_DIAGONAL_9.set(15);
-        RIGHT_DIAGONAL_9.set(22);
-        RIGHT_DIAGONAL_9.set(29);
-        RIGHT_DIAGONAL_9.set(36);
-        RIGHT_DIAGONAL_9.set(43);
-        RIGHT_DIAGONAL_9.set(50);
-        RIGHT_DIAGONAL_9.set(57);
-        RIGHT_DIAGONAL_10.set(23);
-        RIGHT_DIAGONAL_10.set(30);
-        RIGHT_DIAGONAL_10.set(37);
-        RIGHT_DIAGONAL_10.set(44);
-        RIGHT_DIAGONAL_10.set(51);
-        RIGHT_DIAGONAL_10.set(58);
-        RIGHT_DIAGONAL_11.set(31);
-        RIGHT_DIAGONAL_11.set(38);
-        RIGHT_DIAGONAL_11.set(45);
-        RIGHT_DIAGONAL_11.set(52);
-        RIGHT_DIAGONAL_11.set(59);
-        RIGHT_DIAGONAL_12.set(39);
-        RIGHT_DIAGONAL_12.set(46);
-        RIGHT_DIAGONAL_12.set(53);
-        RIGHT_DIAGONAL_12.set(60);
-        RIGHT_DIAGONAL_13.set(47);
-        RIGHT_DIAGONAL_13.set(54);
-        RIGHT_DIAGONAL_13.set(61);
-        RIGHT_DIAGONAL_14.set(55);
-        RIGHT_DIAGONAL_14.set(62);
-        RIGHT_DIAGONAL_15.set(63);
-        ALL_RIGHT_DIAGONALS.put(0, RIGHT_DIAGONAL_1);
-        ALL_RIGHT_DIAGONALS.put(1, RIGHT_DIAGONAL_2);
-        ALL_RIGHT_DIAGONALS.put(8, RIGHT_DIAGONAL_2);
-        ALL_RIGHT_DIAGONALS.put(2, RIGHT_DIAGONAL_3);
-        ALL_RIGHT_DIAGONALS.put(9, RIGHT_DIAGONAL_3);
-        ALL_RIGHT_DIAGONALS.put(16, RIGHT_DIAGONAL_3);
-        ALL_RIGHT_DIAGONALS.put(3, RIGHT_DIAGONAL_4);
-        ALL_RIGHT_DIAGONALS.put(10, RIGHT_DIAGONAL_4);
-        ALL_RIGHT_DIAGONALS.put(17, RIGHT_DIAGONAL_4);
-        ALL_RIGHT_DIAGONALS.put(24, RIGHT_DIAGONAL_4);
-        ALL_RIGHT_DIAGONALS.put(4, RIGHT_DIAGONAL_5);
-        ALL_RIGHT_DIAGONALS.put(11, RIGHT_DIAGONAL_5);
-        ALL_RIGHT_DIAGONALS.put(18, RIGHT_DIAGONAL_5);
-        ALL_RIGHT_DIAGONALS.put(25, RIGHT_DIAGONAL_5);
-        ALL_RIGHT_DIAGONALS.put(32, RIGHT_DIAGONAL_5);
-        ALL_RIGHT_DIAGONALS.put(5, RIGHT_DIAGONAL_6);
-        ALL_RIGHT_DIAGONALS.put(12, RIGHT_DIAGONAL_6);
-        ALL_RIGHT_DIAGONALS.put(19, RIGHT_DIAGONAL_6);
-        ALL_RIGHT_DIAGONALS.put(26, RIGHT_DIAGONAL_6);
-        ALL_RIGHT_DIAGONALS.put(33, RIGHT_DIAGONAL_6);
-        ALL_RIGHT_DIAGONALS.put(40, RIGHT_DIAGONAL_6);
-        ALL_RIGHT_DIAGONALS.put(6, RIGHT_DIAGONAL_7);
-        ALL_RIGHT_DIAGONALS.put(13, RIGHT_DIAGONAL_7);
-        ALL_RIGHT_DIAGONALS.put(20, RIGHT_DIAGONAL_7);
-        ALL_RIGHT_DIAGONALS.put(27, RIGHT_DIAGONAL_7);
-        ALL_RIGHT_DIAGONALS.put(34, RIGHT_DIAGONAL_7);
-        ALL_RIGHT_DIAGONALS.put(41, RIGHT_DIAGONAL_7);
-        ALL_RIGHT_DIAGONALS.put(48, RIGHT_DIAGONAL_7);
-        ALL_RIGHT_DIAGONALS.put(7, RIGHT_DIAGONAL_8);
-        ALL_RIGHT_DIAGONALS.put(14, RIGHT_DIAGONAL_8);
-        ALL_RIGHT_DIAGONALS.put(21, RIGHT_DIAGONAL_8);
-        ALL_RIGHT_DIAGONALS.put(28, RIGHT_DIAGONAL_8);
-        ALL_RIGHT_DIAGONALS.put(35, RIGHT_DIAGONAL_8);
-        ALL_RIGHT_DIAGONALS.put(42, RIGHT_DIAGONAL_8);
-        ALL_RIGHT_DIAGONALS.put(49, RIGHT_DIAGONAL_8);
-        ALL_RIGHT_DIAGONALS.put(56, RIGHT_DIAGONAL_8);
-        ALL_RIGHT_DIAGONALS.put(15, RIGHT_DIAGONAL_9);
-        ALL_RIGHT_DIAGONALS.put(22, RIGHT_DIAGONAL_9);
-        ALL_RIGHT_DIAGONALS.put(29, RIGHT_DIAGONAL_9);
-        ALL_RIGHT_DIAGONALS.put(36, RIGHT_DIAGONAL_9);
-        ALL_RIGHT_DIAGONALS.put(43, RIGHT_DIAGONAL_9);
-        ALL_RIGHT_DIAGONALS.put(50, RIGHT_DIAGONAL_9);
-        ALL_RIGHT_DIAGONALS.put(57, RIGHT_DIAGONAL_9);
-        ALL_RIGHT_DIAGONALS.put(23, RIGHT_DIAGONAL_10);
-        ALL_RIGHT_DIAGONALS.put(30, RIGHT_DIAGONAL_10);
-        ALL_RIGHT_DIAGONALS.put(37, RIGHT_DIAGONAL_10);
-        ALL_RIGHT_DIAGONALS.put(44, RIGHT_DIAGONAL_10);
-        ALL_RIGHT_DIAGONALS.put(51, RIGHT_DIAGONAL_10);
-        ALL_RIGHT_DIAGONALS.put(58, RIGHT_DIAGONAL_10);
-        ALL_RIGHT_DIAGONALS.put(31, RIGHT_DIAGONAL_11);
-        ALL_RIGHT_DIAGONALS.put(38, RIGHT_DIAGONAL_11);
-        ALL_RIGHT_DIAGONALS.put(45, RIGHT_DIAGONAL_11);
-        ALL_RIGHT_DIAGONALS.put(52, RIGHT_DIAGONAL_11);
-        ALL_RIGHT_DIAGONALS.put(59, RIGHT_DIAGONAL_11);
-        ALL_RIGHT_DIAGONALS.put(39, RIGHT_DIAGONAL_12);
-        ALL_RIGHT_DIAGONALS.put(46, RIGHT_DIAGONAL_12);
-        ALL_RIGHT_DIAGONALS.put(53, RIGHT_DIAGONAL_12);
-        ALL_RIGHT_DIAGONALS.put(60, RIGHT_DIAGONAL_12);
-        ALL_RIGHT_DIAGONALS.put(47, RIGHT_DIAGONAL_13);
-        ALL_RIGHT_DIAGONALS.put(54, RIGHT_DIAGONAL_13);
-        ALL_RIGHT_DIAGONALS.put(61, RIGHT_DIAGONAL_13);
-        ALL_RIGHT_DIAGONALS.put(55, RIGHT_DIAGONAL_14);
-        ALL_RIGHT_DIAGONALS.put(62, RIGHT_DIAGONAL_14);
-        ALL_RIGHT_DIAGONALS.put(63, RIGHT_DIAGONAL_15);
-        ALL_RIGHT_DIAGONALS = ImmutableMap.copyOf(ALL_RIGHT_DIAGONALS);
+    private void movePiece(final int from, final int to, final int pieceCode) {
+        final long bits = (1L << from) | (1L << to);
+        this.pieceBoards[pieceCode] ^= bits;
+        this.allianceBoards[allianceIndex(pieceCode)] ^= bits;
+        this.occupancy ^= bits;
+        this.squares[from] = PieceUtils.EMPTY;
+        this.squares[to] = pieceCode;
     }
 
-    private static void initializeColumns() {
-        for (int i = 0; i < 64; i += 8) {
-            FILE_A.set(i);
-            ALL_FILES.put(i, FILE_A);
-        }
-        for (int i = 1; i < 64; i += 8) {
-            FILE_B.set(i);
-            ALL_FILES.put(i, FILE_B);
-        }
-        for (int i = 2; i < 64; i += 8) {
-            FILE_C.set(i);
-            ALL_FILES.put(i, FILE_C);
-        }
-        for (int i = 3; i < 64; i += 8) {
-            FILE_D.set(i);
-            ALL_FILES.put(i, FILE_D);
-        }
-        for (int i = 4; i < 64; i += 8) {
-            FILE_E.set(i);
-            ALL_FILES.put(i, FILE_E);
-        }
-        for (int i = 5; i < 64; i += 8) {
-            FILE_F.set(i);
-            ALL_FILES.put(i, FILE_F);
+    @Override
+    public void makeMove(final int move) {
+        final int from = MoveUtils.getCurrentCoordinate(move);
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int capturedPiece = MoveUtils.getCapturedPiece(move);
+        final int flag = MoveUtils.getMoveFlag(move);
+
+        pushHistory(move);
+
+        switch (flag) {
+            // the captured pawn is behind the destination, from the mover's point of view
+            case MoveUtils.EN_PASSANT -> removePiece(to + 8 * this.sideToMove.getOppositeDirection(), capturedPiece);
+            case MoveUtils.KING_SIDE_CASTLE -> {
+                movePiece(from + 3, from + 1, this.squares[from + 3]);
+                this.castled[this.sideToMove.ordinal()] = true;
+            }
+            case MoveUtils.QUEEN_SIDE_CASTLE -> {
+                movePiece(from - 4, from - 1, this.squares[from - 4]);
+                this.castled[this.sideToMove.ordinal()] = true;
+            }
+            default -> {
+                if (capturedPiece != PieceUtils.EMPTY) {
+                    removePiece(to, capturedPiece);
+                }
+            }
         }
-        for (int i = 6; i < 64; i += 8) {
-            FILE_G.set(i);
-            ALL_FILES.put(i, FILE_G);
+        if (MoveUtils.isPromotion(move)) {
+            removePiece(from, movedPiece);
+            addPiece(to, MoveUtils.getPromotionType(move) | (movedPiece & PieceUtils.BLACK_FLAG));
+        } else {
+            movePiece(from, to, movedPiece);
         }
-        for (int i = 7; i < 64; i += 8) {
-            FILE_H.set(i);
-            ALL_FILES.put(i, FILE_H);
+
+        final int oldEnPassantSquare = this.enPassantSquare;
+        final int oldCastlingRights = this.castlingRights;
+        this.enPassantSquare = flag == MoveUtils.DOUBLE_PAWN_PUSH ? (from + to) / 2 : -1;
+        this.castlingRights &= BoardUtils.CASTLING_RIGHTS_MASK[from] & BoardUtils.CASTLING_RIGHTS_MASK[to];
+        this.sideToMove = this.sideToMove.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        this.zobristKey ^= Zobrist.calculateMoveKey(move) ^ Zobrist.sideToMoveKey() ^
+                Zobrist.castlingKey(oldCastlingRights) ^ Zobrist.castlingKey(this.castlingRights) ^
+                Zobrist.enPassantKey(oldEnPassantSquare) ^ Zobrist.enPassantKey(this.enPassantSquare);
+        if (Zobrist.isDebug()) {
+            Zobrist.verifyKey(this.zobristKey, Zobrist.calculateKey(this));
         }
-        ALL_FILES = ImmutableMap.copyOf(ALL_FILES);
     }
 
-    public static String getPositionAtCoordinate(final int c) {
-        return algebraicNotation[c];
+    @Override
+    public void unmakeMove() {
+        final int move = popHistory();
+        if (move == MoveUtils.NULL_ENCODED_MOVE) {
+            return;
+        }
+        final int from = MoveUtils.getCurrentCoordinate(move);
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int capturedPiece = MoveUtils.getCapturedPiece(move);
+
+        if (MoveUtils.isPromotion(move)) {
+            removePiece(to, this.squares[to]);
+            addPiece(from, movedPiece);
+        } else {
+            movePiece(to, from, movedPiece);
+        }
+        switch (MoveUtils.getMoveFlag(move)) {
+            case MoveUtils.EN_PASSANT -> addPiece(to + 8 * this.sideToMove.getOppositeDirection(), capturedPiece);
+            case MoveUtils.KING_SIDE_CASTLE -> {
+                movePiece(from + 1, from + 3, this.squares[from + 1]);
+                this.castled[this.sideToMove.ordinal()] = false;
+            }
+            case MoveUtils.QUEEN_SIDE_CASTLE -> {
+                movePiece(from - 1, from - 4, this.squares[from - 1]);
+                this.castled[this.sideToMove.ordinal()] = false;
+            }
+            default -> {
+                if (capturedPiece != PieceUtils.EMPTY) {
+                    addPiece(to, capturedPiece);
+                }
+            }
+        }
     }
 
-    public static BitBoard get() {
-        return INSTANCE;
+    @Override
+    public boolean isSquareAttacked(final int coordinate, final Alliance attacker) {
+        return BitBoardUtils.isSquareAttacked(this.pieceBoards, this.occupancy, coordinate, attacker);
     }
 
-    public void generateStandardLegalMoves() {
-        boardLegalMoves.clear();
-        whiteLegalLocations.clear();
-        blackLegalLocations.clear();
-
-        for (final Piece p : Piece.values()) {
-            boardLegalMoves.addAll(p.calculateLegalMoves());
-        }
+    @Override
+    public int generatePseudoLegalMoves(final Alliance alliance, final int[] moves) {
+        final int colourFlag = alliance.isBlack() ? PieceUtils.BLACK_FLAG : PieceUtils.WHITE_FLAG;
+        final long targets = ~this.allianceBoards[alliance.ordinal()];
+
+        int count = generatePawnMoves(alliance, true, true, moves, 0);
+        count = generatePieceMoves(colourFlag, targets, null, moves, count);
+        final long king = this.pieceBoards[PieceUtils.KING | colourFlag];
+        if (king != 0) {
+            final int from = Long.numberOfTrailingZeros(king);
+            count = addMoves(from, BitBoardUtils.KING_ATTACKS[from] & targets, moves, count);
+            count = generateCastleMoves(alliance, moves, count);
+        }
+        return count;
     }
 
+    /**
+     * Generates the legal moves of the side to move directly from the pins and checks of {@link LegalMoveMasks},
+     * instead of making every pseudo-legal move and testing the king.
+     */
     @Override
-    public String toString() {
-        final char[] tiles = new char[64];
-
-        final ChessBitSet allKnights = Piece.allKnights();
-        for (int currentKnightLocation = allKnights.nextSetBit(0); currentKnightLocation >= 0;
-             currentKnightLocation = allKnights.nextSetBit(currentKnightLocation + 1)) {
-            tiles[currentKnightLocation] = 'N';
-        }
-
-        final ChessBitSet allBishops = Piece.allBishops();
-        for (int currentBishopLocation = allBishops.nextSetBit(0); currentBishopLocation >= 0;
-             currentBishopLocation = allBishops.nextSetBit(currentBishopLocation + 1)) {
-            tiles[currentBishopLocation] = 'B';
-        }
-
-        final ChessBitSet allRooks = Piece.allRooks();
-        for (int currentRookLocation = allRooks.nextSetBit(0); currentRookLocation >= 0;
-             currentRookLocation = allRooks.nextSetBit(currentRookLocation + 1)) {
-            tiles[currentRookLocation] = 'R';
-        }
-
-        final ChessBitSet allPawns = Piece.allPawns();
-        for (int currentPawnLocation = allPawns.nextSetBit(0); currentPawnLocation >= 0;
-             currentPawnLocation = allPawns.nextSetBit(currentPawnLocation + 1)) {
-            tiles[currentPawnLocation] = 'P';
-        }
+    public int generateLegalMoves(final int[] moves) {
+        return generateLegalMoves(true, true, moves);
+    }
 
-        final ChessBitSet allQueens = Piece.allQueens();
-        for (int currentQueenLocation = allQueens.nextSetBit(0); currentQueenLocation >= 0;
-             currentQueenLocation = allQueens.nextSetBit(currentQueenLocation + 1)) {
-            tiles[currentQueenLocation] = 'Q';
-        }
+    @Override
+    public int generateLegalCaptures(final int[] moves) {
+        return generateLegalMoves(true, false, moves);
+    }
 
-        final ChessBitSet allKings = Piece.allKings();
-        for (int currentKingLocation = allKings.nextSetBit(0); currentKingLocation >= 0;
-             currentKingLocation = allKings.nextSetBit(currentKingLocation + 1)) {
-            tiles[currentKingLocation] = 'K';
-        }
+    @Override
+    public int generateLegalQuietMoves(final int[] moves) {
+        return generateLegalMoves(false, true, moves);
+    }
 
-        final StringBuilder result = new StringBuilder();
-        for (int i = 0; i < tiles.length; i++) {
-            if (tiles[i] != 0) {
-                result.append(tiles[i]);
-            } else {
-                result.append("-");
-            }
-            result.append(" ");
-            if ((i + 1) % 8 == 0) {
-                result.append("\n");
+    /**
+     * Generates the legal quiet moves from the masks, so that only the test for check needs the move to be made.
+     */
+    @Override
+    public int generateLegalQuietChecks(final int[] moves) {
+        final int quietCount = generateLegalMoves(false, true, moves);
+        int count = 0;
+        for (int i = 0; i < quietCount; i++) {
+            makeMove(moves[i]);
+            if (isInCheck()) {
+                moves[count++] = moves[i];
             }
+            unmakeMove();
         }
-        return result.toString();
+        return count;
     }
 
-    public enum Piece {
-        WHITE_KNIGHTS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateKnightLegals(whiteKnights);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                whiteLegalLocations.set(moveLocation);
-            }
-
-        },
-        WHITE_BISHOPS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateBishopLegals(whiteBishops);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                whiteLegalLocations.set(moveLocation);
-            }
-        },
-        WHITE_ROOKS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateRookLegals(whiteRooks);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                whiteLegalLocations.set(moveLocation);
-            }
-        },
-        WHITE_PAWNS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                final List<Move> legalMoves = new ArrayList<>();
-                final ChessBitSet allPieces = allPieces();
-                final ChessBitSet enemyPieces = enemyPieces();
-
-                final ChessBitSet pawnAdvances = new ChessBitSet(whitePawns);
-                pawnAdvances.shift(-8);
-                pawnAdvances.andNot(allPieces);
-                final ChessBitSet pawnJumps = new ChessBitSet(whitePawns);
-                pawnJumps.shift(-16);
-                pawnJumps.andNot(allPieces);
-                final ChessBitSet pawnAttacksLeft = new ChessBitSet(whitePawns);
-                pawnAttacksLeft.shift(-9);
-                pawnAttacksLeft.and(enemyPieces);
-                final ChessBitSet pawnAttacksRight = new ChessBitSet(whitePawns);
-                pawnAttacksRight.shift(-7);
-                pawnAttacksRight.and(enemyPieces);
-
-                for (int currentPawnLocation = whitePawns.nextSetBit(0); currentPawnLocation >= 0;
-                     currentPawnLocation = whitePawns.nextSetBit(currentPawnLocation + 1)) {
-                    int candidateLocation = currentPawnLocation - 8;
-                    if (pawnAdvances.get(candidateLocation)) {
-                        legalMoves.add(new Move(currentPawnLocation, candidateLocation, this));
-                    }
+    /**
+     * Generates the legal captures and promotions, the legal quiet moves, or both. Captures only target enemy pieces
+     * and quiet moves only empty tiles, so each kind costs no more than its own moves.
+     */
+    private int generateLegalMoves(final boolean captures, final boolean quiets, final int[] moves) {
+        final Alliance alliance = this.sideToMove;
+        final int colourFlag = alliance.isBlack() ? PieceUtils.BLACK_FLAG : PieceUtils.WHITE_FLAG;
+        final LegalMoveMasks masks = this.legalMoveMasks.update(this.pieceBoards, this.occupancy, alliance);
+        final long targets = (captures ? this.allianceBoards[alliance.ordinal() ^ 1] : 0L) | (quiets ? ~this.occupancy : 0L);
 
-                    candidateLocation = currentPawnLocation - 16;
-                    if (pawnJumps.get(candidateLocation)) {
-                        legalMoves.add(new Move(currentPawnLocation, candidateLocation, this));
-                    }
-                }
-                blackLegalLocations.or(pawnAdvances);
-                blackLegalLocations.or(pawnJumps);
-                return legalMoves;
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allWhitePieces();
+        // the king may not step onto a tile that its own body shields from a slider
+        final int kingSquare = masks.getKingSquare();
+        final long occupancyWithoutKing = this.occupancy ^ (1L << kingSquare);
+        int count = 0;
+        for (long destinations = BitBoardUtils.KING_ATTACKS[kingSquare] & targets; destinations != 0;
+             destinations &= destinations - 1) {
+            final int to = Long.numberOfTrailingZeros(destinations);
+            if (!masks.isAttacked(to, occupancyWithoutKing)) {
+                moves[count++] = MoveUtils.encodeMove(kingSquare, to, this.squares[kingSquare], this.squares[to],
+                        MoveUtils.NORMAL_MOVE, 0);
             }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                whiteLegalLocations.set(moveLocation);
-            }
-        },
-        WHITE_QUEENS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateQueenLegals(whiteQueens);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                whiteLegalLocations.set(moveLocation);
-            }
-        },
-        WITHE_KING {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateKingLegals(whiteKing);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                whiteLegalLocations.set(moveLocation);
-            }
-        },
-        BLACK_KNIGHTS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateKnightLegals(blackKnights);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                blackLegalLocations.set(moveLocation);
-            }
-
-        },
-        BLACK_BISHOPS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateBishopLegals(blackBishops);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                blackLegalLocations.set(moveLocation);
-            }
-        },
-        BLACK_ROOKS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateRookLegals(blackRooks);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                blackLegalLocations.set(moveLocation);
-            }
-        },
-        BLACK_PAWNS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                final List<Move> legalMoves = new ArrayList<>();
-                final ChessBitSet allPieces = allPieces();
-                final ChessBitSet enemyPieces = enemyPieces();
-
-                final ChessBitSet pawnAdvances = new ChessBitSet(blackPawns);
-                pawnAdvances.shift(8);
-                pawnAdvances.andNot(allPieces);
-                final ChessBitSet pawnJumps = new ChessBitSet(blackPawns);
-                pawnJumps.shift(16);
-                pawnJumps.andNot(allPieces);
-                final ChessBitSet pawnAttacksLeft = new ChessBitSet(blackPawns);
-                pawnAttacksLeft.shift(9);
-                pawnAttacksLeft.and(enemyPieces);
-                final ChessBitSet pawnAttacksRight = new ChessBitSet(blackPawns);
-                pawnAttacksRight.shift(7);
-                pawnAttacksRight.and(enemyPieces);
-
-                for (int currentPawnLocation = blackPawns.nextSetBit(0); currentPawnLocation >= 0;
-                     currentPawnLocation = blackPawns.nextSetBit(currentPawnLocation + 1)) {
-                    int candidateLocation = currentPawnLocation + 8;
-                    if (pawnAdvances.get(candidateLocation)) {
-                        legalMoves.add(new Move(currentPawnLocation, candidateLocation, this));
-                    }
-
-                    candidateLocation = currentPawnLocation + 16;
-                    if (pawnJumps.get(candidateLocation)) {
-                        legalMoves.add(new Move(currentPawnLocation, candidateLocation, this));
-                    }
-                }
-                whiteLegalLocations.or(pawnAdvances);
-                whiteLegalLocations.or(pawnJumps);
-                return legalMoves;
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                blackLegalLocations.set(moveLocation);
-            }
-        },
-        BLACK_QUEENS {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateQueenLegals(blackQueens);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                blackLegalLocations.set(moveLocation);
-            }
-        },
-        BLACK_KING {
-            @Override
-            public List<Move> calculateLegalMoves() {
-                return calculateKingLegals(blackKing);
-            }
-
-            @Override
-            public ChessBitSet alliedPieces() {
-                return allBlackPieces();
-            }
-
-            @Override
-            public ChessBitSet enemyPieces() {
-                return allWhitePieces();
-            }
-
-            @Override
-            public void setBits(final int moveLocation) {
-                blackLegalLocations.set(moveLocation);
-            }
-        };
-
-        private static boolean isValidTile(final int moveLocation) {
-            return moveLocation >= 0 && moveLocation < 64;
-        }
-
-        public static ChessBitSet allPawns() {
-            final ChessBitSet allPawns = new ChessBitSet();
-            allPawns.or(whitePawns);
-            allPawns.or(blackPawns);
-            return allPawns;
-        }
-
-        public static ChessBitSet allKnights() {
-            final ChessBitSet allKnights = new ChessBitSet();
-            allKnights.or(whiteKnights);
-            allKnights.or(blackKnights);
-            return allKnights;
-        }
-
-        public static ChessBitSet allBishops() {
-            final ChessBitSet allBishops = new ChessBitSet();
-            allBishops.or(whiteBishops);
-            allBishops.or(blackBishops);
-            return allBishops;
         }
-
-        public static ChessBitSet allRooks() {
-            final ChessBitSet allRooks = new ChessBitSet();
-            allRooks.or(whiteRooks);
-            allRooks.or(blackRooks);
-            return allRooks;
-        }
-
-        public static ChessBitSet allQueens() {
-            final ChessBitSet allQueens = new ChessBitSet();
-            allQueens.or(whiteQueens);
-            allQueens.or(blackQueens);
-            return allQueens;
-        }
-
-        public static ChessBitSet allKings() {
-            final ChessBitSet allKings = new ChessBitSet();
-            allKings.or(whiteKing);
-            allKings.or(blackKing);
-            return allKings;
-        }
-
-        public static ChessBitSet allPieces() {
-            final ChessBitSet allPieces = new ChessBitSet();
-            allPieces.or(allWhitePieces());
-            allPieces.or(allBlackPieces());
-            return allPieces;
+        if (masks.isDoubleCheck()) {
+            return count;
         }
-
-        public static ChessBitSet allWhitePieces() {
-            final ChessBitSet allWhitePieces = new ChessBitSet();
-            allWhitePieces.or(whiteRooks);
-            allWhitePieces.or(whiteKnights);
-            allWhitePieces.or(whiteBishops);
-            allWhitePieces.or(whiteQueens);
-            allWhitePieces.or(whitePawns);
-            return allWhitePieces;
+        if (quiets && !masks.isInCheck()) {
+            count = generateCastleMoves(alliance, moves, count);
         }
 
-        public static ChessBitSet allBlackPieces() {
-            final ChessBitSet allBlackPieces = new ChessBitSet();
-            allBlackPieces.or(blackRooks);
-            allBlackPieces.or(blackKnights);
-            allBlackPieces.or(blackBishops);
-            allBlackPieces.or(blackQueens);
-            allBlackPieces.or(blackPawns);
-            return allBlackPieces;
+        // pawn moves are generated set-wise, so the ones breaking a pin or ignoring a check are dropped afterward
+        final int pawnMovesEnd = generatePawnMoves(alliance, captures, quiets, moves, count);
+        for (int i = count; i < pawnMovesEnd; i++) {
+            if (masks.isLegal(moves[i])) {
+                moves[count++] = moves[i];
+            }
         }
+        return generatePieceMoves(colourFlag, targets & masks.getCheckMask(), masks, moves, count);
+    }
 
-        public abstract List<Move> calculateLegalMoves();
+    @Override
+    public boolean hasNonPawnMaterial(final Alliance alliance) {
+        final int colourFlag = alliance.isBlack() ? PieceUtils.BLACK_FLAG : PieceUtils.WHITE_FLAG;
+        return (this.pieceBoards[PieceUtils.KNIGHT | colourFlag] | this.pieceBoards[PieceUtils.BISHOP | colourFlag] |
+                this.pieceBoards[PieceUtils.ROOK | colourFlag] | this.pieceBoards[PieceUtils.QUEEN | colourFlag]) != 0;
+    }
 
-        public abstract ChessBitSet alliedPieces();
+    @Override
+    public int staticExchangeEvaluation(final int move) {
+        return BitBoardUtils.staticExchangeEvaluation(this.pieceBoards, this.occupancy, move);
+    }
 
-        public abstract ChessBitSet enemyPieces();
+    @Override
+    public boolean hasLegalMove(final int[] moves) {
+        return generateLegalMoves(moves) > 0;
+    }
 
-        public abstract void setBits(int moveLocation);
+    /**
+     * Checks a move coming from another position, such as a hash move or a killer move, without generating
+     * the moves of this position: the move has to be pseudo-legal here and pass {@link LegalMoveMasks#isLegal(int)}.
+     */
+    @Override
+    public boolean isLegalMove(final int move) {
+        return isPseudoLegal(move) &&
+                this.legalMoveMasks.update(this.pieceBoards, this.occupancy, this.sideToMove).isLegal(move);
+    }
 
-        private boolean isValidMove(int moveLocation, ChessBitSet alliedUnits) {
-            return isValidTile(moveLocation) && !alliedUnits.get(moveLocation);
-        }
+    private boolean isPseudoLegal(final int move) {
+        if (move == MoveUtils.NULL_ENCODED_MOVE) {
+            return false;
+        }
+        final int from = MoveUtils.getCurrentCoordinate(move);
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int capturedPiece = MoveUtils.getCapturedPiece(move);
+        final int flag = MoveUtils.getMoveFlag(move);
+        if (this.squares[from] != movedPiece || PieceUtils.getAlliance(movedPiece) != this.sideToMove ||
+                (capturedPiece != PieceUtils.EMPTY && PieceUtils.getAlliance(capturedPiece) == this.sideToMove)) {
+            return false;
+        }
+        if (flag == MoveUtils.EN_PASSANT) {
+            return to == this.enPassantSquare && this.squares[to + 8 * this.sideToMove.getOppositeDirection()] == capturedPiece &&
+                    (BitBoardUtils.PAWN_ATTACKS[this.sideToMove.ordinal()][from] & (1L << to)) != 0;
+        }
+        if (this.squares[to] != capturedPiece) {
+            return false;
+        }
+        if (MoveUtils.isCastle(move)) {
+            final int[] castleMoves = new int[2];
+            final int count = generateCastleMoves(this.sideToMove, castleMoves, 0);
+            return (count > 0 && castleMoves[0] == move) || (count > 1 && castleMoves[1] == move);
+        }
+        final int type = PieceUtils.typeOf(movedPiece);
+        if (type != PieceUtils.PAWN) {
+            return flag == MoveUtils.NORMAL_MOVE && !MoveUtils.isPromotion(move) &&
+                    (attacks(type, from) & (1L << to)) != 0;
+        }
+        // a pawn promotes exactly when it reaches the last rank
+        if (MoveUtils.isPromotion(move) != (((1L << to) & PROMOTION_RANKS) != 0)) {
+            return false;
+        }
+        final int direction = this.sideToMove.getDirection();
+        if (flag == MoveUtils.DOUBLE_PAWN_PUSH) {
+            return to == from + 16 * direction && this.squares[from + 8 * direction] == PieceUtils.EMPTY &&
+                    capturedPiece == PieceUtils.EMPTY &&
+                    ((1L << from) & (this.sideToMove.isWhite() ? BitBoardUtils.RANK_2 : BitBoardUtils.RANK_7)) != 0;
+        }
+        return capturedPiece == PieceUtils.EMPTY ? to == from + 8 * direction :
+                (BitBoardUtils.PAWN_ATTACKS[this.sideToMove.ordinal()][from] & (1L << to)) != 0;
+    }
 
-        public List<Move> calculateKingLegals(final ChessBitSet kingBitSet) {
-            final ChessBitSet alliedUnits = alliedPieces();
-            final int kingPos = kingBitSet.nextSetBit(0);
-            final List<Move> legalMoves = new ArrayList<>();
+    private long attacks(final int type, final int from) {
+        return switch (type) {
+            case PieceUtils.KNIGHT -> BitBoardUtils.KNIGHT_ATTACKS[from];
+            case PieceUtils.BISHOP -> BitBoardUtils.bishopAttacks(from, this.occupancy);
+            case PieceUtils.ROOK -> BitBoardUtils.rookAttacks(from, this.occupancy);
+            case PieceUtils.QUEEN -> BitBoardUtils.queenAttacks(from, this.occupancy);
+            default -> BitBoardUtils.KING_ATTACKS[from];
+        };
+    }
 
-            for (int direction : new int[]{-9, -8, -7, -1, 1, 7, 8, 9}) {
-                int moveLocation = kingPos + direction;
-                if (isValidMove(moveLocation, alliedUnits)) {
-                    legalMoves.add(new Move(kingPos, moveLocation, this));
-                }
-            }
+    /**
+     * Generates the knight, bishop, rook and queen moves to the given target tiles.
+     * If masks are given, pinned pieces only move along their pin line.
+     */
+    private int generatePieceMoves(final int colourFlag, final long targets, final LegalMoveMasks masks,
+                                   final int[] moves, int count) {
+        for (long knights = this.pieceBoards[PieceUtils.KNIGHT | colourFlag]; knights != 0; knights &= knights - 1) {
+            final int from = Long.numberOfTrailingZeros(knights);
+            count = addMoves(from, BitBoardUtils.KNIGHT_ATTACKS[from] & targets & pinMask(masks, from), moves, count);
+        }
+        for (long bishops = this.pieceBoards[PieceUtils.BISHOP | colourFlag]; bishops != 0; bishops &= bishops - 1) {
+            final int from = Long.numberOfTrailingZeros(bishops);
+            count = addMoves(from, BitBoardUtils.bishopAttacks(from, this.occupancy) & targets & pinMask(masks, from),
+                    moves, count);
+        }
+        for (long rooks = this.pieceBoards[PieceUtils.ROOK | colourFlag]; rooks != 0; rooks &= rooks - 1) {
+            final int from = Long.numberOfTrailingZeros(rooks);
+            count = addMoves(from, BitBoardUtils.rookAttacks(from, this.occupancy) & targets & pinMask(masks, from),
+                    moves, count);
+        }
+        for (long queens = this.pieceBoards[PieceUtils.QUEEN | colourFlag]; queens != 0; queens &= queens - 1) {
+            final int from = Long.numberOfTrailingZeros(queens);
+            count = addMoves(from, BitBoardUtils.queenAttacks(from, this.occupancy) & targets & pinMask(masks, from),
+                    moves, count);
+        }
+        return count;
+    }
 
-            return legalMoves;
-        }
+    private static long pinMask(final LegalMoveMasks masks, final int square) {
+        return masks == null ? -1L : masks.getPinMask(square);
+    }
 
-        public List<Move> calculateQueenLegals(final ChessBitSet queenBitSet) {
-            final List<Move> legalMoves = new ArrayList<>();
-            legalMoves.addAll(calculateBishopLegals(queenBitSet));
-            legalMoves.addAll(calculateRookLegals(queenBitSet));
-            return legalMoves;
+    private int addMoves(final int from, long destinations, final int[] moves, int count) {
+        final int movedPiece = this.squares[from];
+        for (; destinations != 0; destinations &= destinations - 1) {
+            final int to = Long.numberOfTrailingZeros(destinations);
+            moves[count++] = MoveUtils.encodeMove(from, to, movedPiece, this.squares[to], MoveUtils.NORMAL_MOVE, 0);
         }
+        return count;
+    }
 
-        public List<Move> calculateRookLegals(final ChessBitSet rookBitSet) {
-            final ChessBitSet alliedUnits = alliedPieces();
-            final ChessBitSet enemyUnits = enemyPieces();
-            final List<Move> legalMoves = new ArrayList<>();
-
-            for (int currentRookLocation = rookBitSet.nextSetBit(0); currentRookLocation >= 0;
-                 currentRookLocation = rookBitSet.nextSetBit(currentRookLocation + 1)) {
-                final ChessBitSet vertical = ALL_FILES.get(currentRookLocation);
-                final ChessBitSet horizontal = ALL_RANKS.get(currentRookLocation);
-
-                // up
-                int candidateLocation = currentRookLocation - 8;
-                int endPos = vertical.nextSetBit(0);
-                while (candidateLocation >= endPos) {
-                    if (alliedUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    setBits(candidateLocation);
-                    legalMoves.add(new Move(currentRookLocation, candidateLocation, this));
-                    if (enemyUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    candidateLocation -= 8;
-                }
-
-                // down
-                candidateLocation = currentRookLocation + 8;
-                endPos = vertical.length();
-                while (endPos >= candidateLocation) {
-                    if (alliedUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    setBits(candidateLocation);
-                    legalMoves.add(new Move(currentRookLocation, candidateLocation, this));
-                    if (enemyUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    candidateLocation += 8;
-                }
-
-                // left
-                candidateLocation = currentRookLocation - 1;
-                endPos = horizontal.nextSetBit(0);
-                while (candidateLocation >= endPos) {
-                    if (alliedUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    setBits(candidateLocation);
-                    legalMoves.add(new Move(currentRookLocation, candidateLocation, this));
-                    if (enemyUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    candidateLocation--;
-                }
-
-                // right
-                candidateLocation = currentRookLocation + 1;
-                endPos = horizontal.length() - 1;
-                while (candidateLocation <= endPos) {
-                    if (alliedUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    setBits(candidateLocation);
-                    legalMoves.add(new Move(currentRookLocation, candidateLocation, this));
-                    if (enemyUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    candidateLocation++;
+    /**
+     * Adds the pawn moves with the given move flag to the given destinations, where every pawn came from
+     * {@code destination - offset}.
+     * Destinations on the last rank are expanded into the four promotions.
+     */
+    private int addPawnMoves(long destinations, final int offset, final int flag, final int[] moves, int count) {
+        for (; destinations != 0; destinations &= destinations - 1) {
+            final int to = Long.numberOfTrailingZeros(destinations);
+            final int from = to - offset;
+            if (((1L << to) & PROMOTION_RANKS) != 0) {
+                for (final int promotionType : PROMOTION_TYPES) {
+                    moves[count++] = MoveUtils.encodeMove(from, to, this.squares[from], this.squares[to], flag, promotionType);
                 }
+            } else {
+                moves[count++] = MoveUtils.encodeMove(from, to, this.squares[from], this.squares[to], flag, 0);
             }
-            return legalMoves;
         }
+        return count;
+    }
 
-        public List<Move> calculateBishopLegals(final ChessBitSet bishopBitSet) {
-            final ChessBitSet alliedUnits = alliedPieces();
-            final ChessBitSet enemyUnits = enemyPieces();
-            final List<Move> legalMoves = new ArrayList<>();
+    /**
+     * Generates the pawn moves of an alliance. Captures include promotions and en passant captures,
+     * while quiet moves are the pushes that do not promote.
+     */
+    private int generatePawnMoves(final Alliance alliance, final boolean captures, final boolean quiets,
+                                  final int[] moves, int count) {
+        final long pawns = this.pieceBoards[PieceUtils.PAWN | (alliance.isBlack() ? PieceUtils.BLACK_FLAG : PieceUtils.WHITE_FLAG)];
+        if (pawns == 0) {
+            return count;
+        }
+        final long empty = ~this.occupancy;
+        final long enemies = captures ?
+                this.allianceBoards[alliance.isWhite() ? Alliance.BLACK.ordinal() : Alliance.WHITE.ordinal()] : 0L;
+        final long pushTargets = (captures ? PROMOTION_RANKS : 0L) | (quiets ? ~PROMOTION_RANKS : 0L);
+        final long doublePushTargets = quiets ? -1L : 0L;
+        if (alliance.isWhite()) {
+            // white pawns move towards lower coordinates
+            final long singlePushes = (pawns >>> 8) & empty;
+            count = addPawnMoves(singlePushes & pushTargets, -8, MoveUtils.NORMAL_MOVE, moves, count);
+            count = addPawnMoves(((singlePushes & BitBoardUtils.RANK_3) >>> 8) & empty & doublePushTargets, -16,
+                    MoveUtils.DOUBLE_PAWN_PUSH, moves, count);
+            count = addPawnMoves((pawns >>> 9) & ~BitBoardUtils.FILE_H & enemies, -9, MoveUtils.NORMAL_MOVE, moves, count);
+            count = addPawnMoves((pawns >>> 7) & ~BitBoardUtils.FILE_A & enemies, -7, MoveUtils.NORMAL_MOVE, moves, count);
+        } else {
+            final long singlePushes = (pawns << 8) & empty;
+            count = addPawnMoves(singlePushes & pushTargets, 8, MoveUtils.NORMAL_MOVE, moves, count);
+            count = addPawnMoves(((singlePushes & BitBoardUtils.RANK_6) << 8) & empty & doublePushTargets, 16,
+                    MoveUtils.DOUBLE_PAWN_PUSH, moves, count);
+            count = addPawnMoves((pawns << 7) & ~BitBoardUtils.FILE_H & enemies, 7, MoveUtils.NORMAL_MOVE, moves, count);
+            count = addPawnMoves((pawns << 9) & ~BitBoardUtils.FILE_A & enemies, 9, MoveUtils.NORMAL_MOVE, moves, count);
+        }
+        if (captures && this.enPassantSquare != -1 && alliance == this.sideToMove) {
+            // the pawns that can capture en passant are the ones an enemy pawn on the en passant square would attack
+            final int opponent = alliance.isWhite() ? Alliance.BLACK.ordinal() : Alliance.WHITE.ordinal();
+            for (long attackers = BitBoardUtils.PAWN_ATTACKS[opponent][this.enPassantSquare] & pawns;
+                 attackers != 0; attackers &= attackers - 1) {
+                final int from = Long.numberOfTrailingZeros(attackers);
+                moves[count++] = MoveUtils.encodeMove(from, this.enPassantSquare, this.squares[from],
+                        this.squares[this.enPassantSquare + 8 * alliance.getOppositeDirection()], MoveUtils.EN_PASSANT, 0);
+            }
+        }
+        return count;
+    }
 
-            for (int currentBishopLocation = bishopBitSet.nextSetBit(0); currentBishopLocation >= 0;
-                 currentBishopLocation = bishopBitSet.nextSetBit(currentBishopLocation + 1)) {
+    private int generateCastleMoves(final Alliance alliance, final int[] moves, int count) {
+        final int kingSideRight = alliance.isWhite() ? WHITE_KING_SIDE_CASTLE : BLACK_KING_SIDE_CASTLE;
+        final int queenSideRight = alliance.isWhite() ? WHITE_QUEEN_SIDE_CASTLE : BLACK_QUEEN_SIDE_CASTLE;
+        if ((this.castlingRights & (kingSideRight | queenSideRight)) == 0) {
+            return count;
+        }
+        final int kingPosition = alliance.isWhite() ? 60 : 4;
+        final Alliance opponent = alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        if (isSquareAttacked(kingPosition, opponent)) {
+            return count;
+        }
+        if ((this.castlingRights & kingSideRight) != 0 &&
+                (this.occupancy & (0b11L << (kingPosition + 1))) == 0 &&
+                !isSquareAttacked(kingPosition + 1, opponent) && !isSquareAttacked(kingPosition + 2, opponent)) {
+            moves[count++] = MoveUtils.encodeMove(kingPosition, kingPosition + 2, this.squares[kingPosition],
+                    PieceUtils.EMPTY, MoveUtils.KING_SIDE_CASTLE, 0);
+        }
+        if ((this.castlingRights & queenSideRight) != 0 &&
+                (this.occupancy & (0b111L << (kingPosition - 3))) == 0 &&
+                !isSquareAttacked(kingPosition - 1, opponent) && !isSquareAttacked(kingPosition - 2, opponent)) {
+            moves[count++] = MoveUtils.encodeMove(kingPosition, kingPosition - 2, this.squares[kingPosition],
+                    PieceUtils.EMPTY, MoveUtils.QUEEN_SIDE_CASTLE, 0);
+        }
+        return count;
+    }
 
-                final ChessBitSet rightDiag = ALL_RIGHT_DIAGONALS.get(currentBishopLocation);
-                final ChessBitSet leftDiag = ALL_LEFT_DIAGONALS.get(currentBishopLocation);
+    /**
+     * Retrieves the bitboard of a piece code.
+     *
+     * @param pieceCode The piece code.
+     * @return The tiles occupied by pieces with that code.
+     */
+    public long getPieceBoard(final int pieceCode) {
+        return this.pieceBoards[pieceCode];
+    }
 
-                // up and to the right
-                int candidateLocation = currentBishopLocation - 7;
-                int endPos = rightDiag.nextSetBit(0);
-                while (candidateLocation >= endPos) {
-                    if (alliedUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    setBits(candidateLocation);
-                    legalMoves.add(new Move(currentBishopLocation, candidateLocation, this));
-                    if (enemyUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    candidateLocation -= 7;
-                }
+    public long getAllianceBoard(final Alliance alliance) {
+        return this.allianceBoards[alliance.ordinal()];
+    }
 
-                // down and to the left
-                candidateLocation = currentBishopLocation + 7;
-                endPos = rightDiag.length() - 1;
-                while (endPos >= candidateLocation) {
-                    if (alliedUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    setBits(candidateLocation);
-                    legalMoves.add(new Move(currentBishopLocation, candidateLocation, this));
-                    if (enemyUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    candidateLocation += 7;
-                }
+    public long getOccupancy() {
+        return this.occupancy;
+    }
 
-                // up and to the left
-                candidateLocation = currentBishopLocation - 9;
-                endPos = leftDiag.nextSetBit(0);
-                while (candidateLocation >= endPos) {
-                    if (alliedUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    setBits(candidateLocation);
-                    legalMoves.add(new Move(currentBishopLocation, candidateLocation, this));
-                    if (enemyUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    candidateLocation -= 9;
-                }
+    @Override
+    public int getPieceCode(final int coordinate) {
+        return this.squares[coordinate];
+    }
 
-                // down and to the right
-                candidateLocation = currentBishopLocation + 9;
-                endPos = leftDiag.length() - 1;
-                while (candidateLocation <= endPos) {
-                    if (alliedUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    setBits(candidateLocation);
-                    legalMoves.add(new Move(currentBishopLocation, candidateLocation, this));
-                    if (enemyUnits.get(candidateLocation)) {
-                        break;
-                    }
-                    candidateLocation += 9;
-                }
-            }
-            return legalMoves;
-        }
+    @Override
+    public int getKingPosition(final Alliance alliance) {
+        return Long.numberOfTrailingZeros(this.pieceBoards[PieceUtils.KING | (alliance.isBlack() ? PieceUtils.BLACK_FLAG : PieceUtils.WHITE_FLAG)]);
+    }
 
-        public List<Move> calculateKnightLegals(final ChessBitSet knightBitSet) {
-            final ChessBitSet alliedUnits = alliedPieces();
-            final ChessBitSet enemyUnits = enemyPieces();
-            final List<Move> legalMoves = new ArrayList<>();
+    @Override
+    public boolean isCastled(final Alliance alliance) {
+        return this.castled[alliance.ordinal()];
+    }
 
-            for (int currentKnightLocation = knightBitSet.nextSetBit(0); currentKnightLocation >= 0;
-                 currentKnightLocation = knightBitSet.nextSetBit(currentKnightLocation + 1)) {
-                if (!(FILE_G.get(currentKnightLocation) || FILE_H.get(currentKnightLocation))) {
-                    final int candidateLocation = currentKnightLocation - 6;
-                    if (isValidTile(candidateLocation)) {
-                        if (!alliedUnits.get(candidateLocation) || enemyUnits.get(candidateLocation)) {
-                            setBits(candidateLocation);
-                            legalMoves.add(new Move(currentKnightLocation, candidateLocation, this));
-                        }
-                    }
-                }
-                if (!(FILE_A.get(currentKnightLocation) || FILE_B.get(currentKnightLocation))) {
-                    final int candidateLocation = currentKnightLocation - 10;
-                    if (isValidTile(candidateLocation)) {
-                        if (!alliedUnits.get(candidateLocation) || enemyUnits.get(candidateLocation)) {
-                            setBits(candidateLocation);
-                            legalMoves.add(new Move(currentKnightLocation, candidateLocation, this));
-                        }
-                    }
-                }
-                if (!(FILE_H.get(currentKnightLocation))) {
-                    final int candidateLocation = currentKnightLocation - 15;
-                    if (isValidTile(candidateLocation)) {
-                        if (!alliedUnits.get(candidateLocation) || enemyUnits.get(candidateLocation)) {
-                            setBits(candidateLocation);
-                            legalMoves.add(new Move(currentKnightLocation, candidateLocation, this));
-                        }
-                    }
-                }
-                if (!(FILE_A.get(currentKnightLocation))) {
-                    final int candidateLocation = currentKnightLocation - 17;
-                    if (isValidTile(candidateLocation)) {
-                        if (!alliedUnits.get(candidateLocation) || enemyUnits.get(candidateLocation)) {
-                            setBits(candidateLocation);
-                            legalMoves.add(new Move(currentKnightLocation, candidateLocation, this));
-                        }
-                    }
-                }
-                if (!(FILE_A.get(currentKnightLocation) || FILE_B.get(currentKnightLocation))) {
-                    final int candidateLocation = currentKnightLocation + 6;
-                    if (isValidTile(candidateLocation)) {
-                        if (!alliedUnits.get(candidateLocation) || enemyUnits.get(candidateLocation)) {
-                            setBits(candidateLocation);
-                            legalMoves.add(new Move(currentKnightLocation, candidateLocation, this));
-                        }
-                    }
-                }
-                if (!(FILE_G.get(currentKnightLocation) || FILE_H.get(currentKnightLocation))) {
-                    final int candidateLocation = currentKnightLocation + 10;
-                    if (isValidTile(candidateLocation)) {
-                        if (!alliedUnits.get(candidateLocation) || enemyUnits.get(candidateLocation)) {
-                            setBits(candidateLocation);
-                            legalMoves.add(new Move(currentKnightLocation, candidateLocation, this));
-                        }
-                    }
-                }
-                if (!(FILE_A.get(currentKnightLocation))) {
-                    final int candidateLocation = currentKnightLocation + 15;
-                    if (isValidTile(candidateLocation)) {
-                        if (!alliedUnits.get(candidateLocation) || enemyUnits.get(candidateLocation)) {
-                            setBits(candidateLocation);
-                            legalMoves.add(new Move(currentKnightLocation, candidateLocation, this));
-                        }
-                    }
-                }
-                if (!(FILE_H.get(currentKnightLocation))) {
-                    final int candidateLocation = currentKnightLocation + 17;
-                    if (isValidTile(candidateLocation)) {
-                        if (!alliedUnits.get(candidateLocation) || enemyUnits.get(candidateLocation)) {
-                            setBits(candidateLocation);
-                            legalMoves.add(new Move(currentKnightLocation, candidateLocation, this));
-                        }
-                    }
-                }
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            builder.append(String.format("%3s", PieceUtils.toString(this.squares[i])));
+            if (((i + 1) % BoardUtils.NUM_TILES_PER_ROW) == 0) {
+                builder.append("\n");
             }
-            return legalMoves;
         }
+        return builder.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,303 @@
+/**
+ * The {@code BitBoardUtils} class provides the precomputed attack tables and bit masks used by {@link BitBoard}.
+ * A bitboard is a {@code long} in which bit {@code i} stands for the tile with coordinate {@code i},
+ * so bit 0 is a8 and bit 63 is h1, matching the coordinates of {@link com.chess.engine.board.Board}.
+ * Slider attacks are looked up in the tables of {@link MagicBitBoards}.
+ */
+
+package com.bitboards;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.piece.PieceUtils;
+
+public class BitBoardUtils {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    /**
+     * The ranks are named from white's point of view: {@code RANK_8} holds the coordinates 0 to 7.
+     */
+    public static final long RANK_8 = 0xFFL;
+    public static final long RANK_7 = RANK_8 << 8;
+    public static final long RANK_6 = RANK_8 << 16;
+    public static final long RANK_3 = RANK_8 << 40;
+    public static final long RANK_2 = RANK_8 << 48;
+    public static final long RANK_1 = RANK_8 << 56;
+
+    public static final long[] KNIGHT_ATTACKS = initStepAttacks(new int[][]{
+            {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}});
+    public static final long[] KING_ATTACKS = initStepAttacks(new int[][]{
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}});
+    /**
+     * For every alliance and coordinate, the tiles attacked by a pawn of that alliance standing on it.
+     */
+    public static final long[][] PAWN_ATTACKS = initPawnAttacks();
+    /**
+     * For every pair of coordinates on a common rank, file or diagonal, the tiles strictly between them.
+     */
+    public static final long[][] BETWEEN = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+    /**
+     * For every pair of coordinates on a common rank, file or diagonal, the whole line through both of them.
+     */
+    public static final long[][] LINE = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+
+    static {
+        for (int from = 0; from < BoardUtils.NUM_TILES; from++) {
+            for (int to = 0; to < BoardUtils.NUM_TILES; to++) {
+                final long fromBit = 1L << from;
+                final long toBit = 1L << to;
+                if (from == to) {
+                    continue;
+                }
+                if ((rookAttacks(from, 0L) & toBit) != 0) {
+                    BETWEEN[from][to] = rookAttacks(from, toBit) & rookAttacks(to, fromBit);
+                    LINE[from][to] = (rookAttacks(from, 0L) & rookAttacks(to, 0L)) | fromBit | toBit;
+                } else if ((bishopAttacks(from, 0L) & toBit) != 0) {
+                    BETWEEN[from][to] = bishopAttacks(from, toBit) & bishopAttacks(to, fromBit);
+                    LINE[from][to] = (bishopAttacks(from, 0L) & bishopAttacks(to, 0L)) | fromBit | toBit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Prevents instantiation of the {@code BitBoardUtils} class.
+     */
+    private BitBoardUtils() {
+        throw new RuntimeException("Not instantiable.");
+    }
+
+    private static boolean isOnBoard(final int row, final int column) {
+        return row >= 0 && row < BoardUtils.NUM_TILES_PER_ROW && column >= 0 && column < BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    private static long[] initStepAttacks(final int[][] steps) {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            for (final int[] step : steps) {
+                final int row = square / 8 + step[0];
+                final int column = square % 8 + step[1];
+                if (isOnBoard(row, column)) {
+                    attacks[square] |= 1L << (row * 8 + column);
+                }
+            }
+        }
+        return attacks;
+    }
+
+    private static long[][] initPawnAttacks() {
+        final long[][] attacks = new long[2][BoardUtils.NUM_TILES];
+        for (final Alliance alliance : Alliance.values()) {
+            for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+                final int row = square / 8 + alliance.getDirection();
+                for (final int columnStep : new int[]{-1, 1}) {
+                    final int column = square % 8 + columnStep;
+                    if (isOnBoard(row, column)) {
+                        attacks[alliance.ordinal()][square] |= 1L << (row * 8 + column);
+                    }
+                }
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Retrieves the tiles attacked by a rook on the given coordinate.
+     *
+     * @param square    The coordinate of the rook.
+     * @param occupancy The occupied tiles of the board.
+     * @return The attacked tiles, including the first occupied tile in every direction.
+     */
+    public static long rookAttacks(final int square, final long occupancy) {
+        return MagicBitBoards.rookAttacks(square, occupancy);
+    }
+
+    /**
+     * Retrieves the tiles attacked by a bishop on the given coordinate.
+     *
+     * @param square    The coordinate of the bishop.
+     * @param occupancy The occupied tiles of the board.
+     * @return The attacked tiles, including the first occupied tile in every direction.
+     */
+    public static long bishopAttacks(final int square, final long occupancy) {
+        return MagicBitBoards.bishopAttacks(square, occupancy);
+    }
+
+    public static long queenAttacks(final int square, final long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    /**
+     * Checks if a tile is attacked by any piece of the given alliance, by looking from the tile outwards:
+     * the tile is attacked if a piece of the attacker standing on it would attack a piece of the same type.
+     *
+     * @param pieceBoards The piece bitboards, indexed by {@link PieceUtils} piece code.
+     * @param occupancy   The occupied tiles.
+     * @param square      The tile to check.
+     * @param attacker    The alliance of the attacking pieces.
+     * @return {@code true} if the tile is attacked, {@code false} otherwise.
+     */
+    public static boolean isSquareAttacked(final long[] pieceBoards, final long occupancy, final int square,
+                                           final Alliance attacker) {
+        final int colourFlag = attacker.isBlack() ? PieceUtils.BLACK_FLAG : PieceUtils.WHITE_FLAG;
+        // a pawn of the attacking alliance attacks this tile if a defending pawn placed here would attack it
+        final int defender = attacker.isWhite() ? Alliance.BLACK.ordinal() : Alliance.WHITE.ordinal();
+        if ((PAWN_ATTACKS[defender][square] & pieceBoards[PieceUtils.PAWN | colourFlag]) != 0 ||
+                (KNIGHT_ATTACKS[square] & pieceBoards[PieceUtils.KNIGHT | colourFlag]) != 0 ||
+                (KING_ATTACKS[square] & pieceBoards[PieceUtils.KING | colourFlag]) != 0) {
+            return true;
+        }
+        final long queens = pieceBoards[PieceUtils.QUEEN | colourFlag];
+        final long rooks = pieceBoards[PieceUtils.ROOK | colourFlag] | queens;
+        if (rooks != 0 && (rookAttacks(square, occupancy) & rooks) != 0) {
+            return true;
+        }
+        final long bishops = pieceBoards[PieceUtils.BISHOP | colourFlag] | queens;
+        return bishops != 0 && (bishopAttacks(square, occupancy) & bishops) != 0;
+    }
+
+    /**
+     * Calculates the pieces of both alliances attacking a tile, treating only the given tiles as occupied.
+     *
+     * @param pieceBoards The piece bitboards, indexed by {@link PieceUtils} piece code.
+     * @param occupancy   The occupied tiles.
+     * @param square      The tile to check.
+     * @return The tiles of the attacking pieces.
+     */
+    public static long attackersTo(final long[] pieceBoards, final long occupancy, final int square) {
+        final long queens = pieceBoards[PieceUtils.QUEEN] | pieceBoards[PieceUtils.QUEEN | PieceUtils.BLACK_FLAG];
+        final long rooks = pieceBoards[PieceUtils.ROOK] | pieceBoards[PieceUtils.ROOK | PieceUtils.BLACK_FLAG] | queens;
+        final long bishops = pieceBoards[PieceUtils.BISHOP] | pieceBoards[PieceUtils.BISHOP | PieceUtils.BLACK_FLAG] | queens;
+        // a white pawn attacks the tile if a black pawn placed on it would attack the white pawn, and vice versa
+        return ((PAWN_ATTACKS[Alliance.BLACK.ordinal()][square] & pieceBoards[PieceUtils.PAWN]) |
+                (PAWN_ATTACKS[Alliance.WHITE.ordinal()][square] & pieceBoards[PieceUtils.PAWN | PieceUtils.BLACK_FLAG]) |
+                (KNIGHT_ATTACKS[square] & (pieceBoards[PieceUtils.KNIGHT] | pieceBoards[PieceUtils.KNIGHT | PieceUtils.BLACK_FLAG])) |
+                (KING_ATTACKS[square] & (pieceBoards[PieceUtils.KING] | pieceBoards[PieceUtils.KING | PieceUtils.BLACK_FLAG])) |
+                (rookAttacks(square, occupancy) & rooks) |
+                (bishopAttacks(square, occupancy) & bishops)) & occupancy;
+    }
+
+    /**
+     * Calculates the static exchange evaluation (SEE) of a move: the material the moving side wins if both sides
+     * keep recapturing on the destination tile with their least valuable attacker, each side stopping as soon as
+     * going on would lose material. Sliders lined up behind a capturing piece join the exchange once it has left
+     * its tile (x-rays). No move is made, the exchange is played out on a copy of the occupancy.
+     * <p>
+     * Pins and checks are not taken into account, and a king only recaptures if the opponent has no attacker left.
+     *
+     * @param pieceBoards The piece bitboards, indexed by {@link PieceUtils} piece code.
+     * @param occupancy   The occupied tiles.
+     * @param move        The encoded move, usually a capture.
+     * @return The material balance of the exchange for the moving side, 0 for a quiet move to a safe tile.
+     */
+    public static int staticExchangeEvaluation(final long[] pieceBoards, long occupancy, final int move) {
+        final int from = MoveUtils.getCurrentCoordinate(move);
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int[] gains = new int[32];
+        gains[0] = PieceUtils.getPieceValue(MoveUtils.getCapturedPiece(move));
+        int pieceOnSquare = PieceUtils.getPieceValue(movedPiece);
+        if (MoveUtils.isPromotion(move)) {
+            pieceOnSquare = PieceUtils.getPieceValue(MoveUtils.getPromotionType(move));
+            gains[0] += pieceOnSquare - PieceUtils.getPieceValue(PieceUtils.PAWN);
+        }
+        occupancy &= ~(1L << from);
+        if (MoveUtils.getMoveFlag(move) == MoveUtils.EN_PASSANT) {
+            occupancy &= ~(1L << (to + (PieceUtils.isWhite(movedPiece) ? 8 : -8)));
+        }
+        final long diagonalSliders = pieceBoards[PieceUtils.BISHOP] | pieceBoards[PieceUtils.BISHOP | PieceUtils.BLACK_FLAG] |
+                pieceBoards[PieceUtils.QUEEN] | pieceBoards[PieceUtils.QUEEN | PieceUtils.BLACK_FLAG];
+        final long straightSliders = pieceBoards[PieceUtils.ROOK] | pieceBoards[PieceUtils.ROOK | PieceUtils.BLACK_FLAG] |
+                pieceBoards[PieceUtils.QUEEN] | pieceBoards[PieceUtils.QUEEN | PieceUtils.BLACK_FLAG];
+        long attackers = attackersTo(pieceBoards, occupancy, to);
+        int colourFlag = (movedPiece & PieceUtils.BLACK_FLAG) ^ PieceUtils.BLACK_FLAG;
+        int depth = 0;
+        while (true) {
+            final long ownAttackers = attackers & allianceBoard(pieceBoards, colourFlag);
+            if (ownAttackers == 0) {
+                break;
+            }
+            int type = PieceUtils.PAWN;
+            while ((ownAttackers & pieceBoards[type | colourFlag]) == 0) {
+                type++;
+            }
+            if (type == PieceUtils.KING &&
+                    (attackers & allianceBoard(pieceBoards, colourFlag ^ PieceUtils.BLACK_FLAG)) != 0) {
+                break;
+            }
+            gains[depth + 1] = pieceOnSquare - gains[depth];
+            if (Math.max(-gains[depth], gains[depth + 1]) < 0) {
+                // the side to capture here is behind whether or not it captures, so it stops
+                break;
+            }
+            depth++;
+            final long attacker = ownAttackers & pieceBoards[type | colourFlag];
+            occupancy &= ~(attacker & -attacker);
+            attackers |= (bishopAttacks(to, occupancy) & diagonalSliders) | (rookAttacks(to, occupancy) & straightSliders);
+            attackers &= occupancy;
+            pieceOnSquare = PieceUtils.getPieceValue(type | colourFlag);
+            colourFlag ^= PieceUtils.BLACK_FLAG;
+        }
+        // every side may stop recapturing, so the best outcome is taken from the end of the exchange backwards
+        while (depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+            depth--;
+        }
+        return gains[0];
+    }
+
+    private static long allianceBoard(final long[] pieceBoards, final int colourFlag) {
+        long pieces = 0L;
+        for (int type = PieceUtils.PAWN; type <= PieceUtils.KING; type++) {
+            pieces |= pieceBoards[type | colourFlag];
+        }
+        return pieces;
+    }
+
+    /**
+     * Calculates the attack map of an alliance: every tile attacked by at least one of its pieces.
+     * Pawns attack diagonally whether or not there is a piece to capture.
+     *
+     * @param pieceBoards The piece bitboards, indexed by {@link PieceUtils} piece code.
+     * @param occupancy   The occupied tiles.
+     * @param attacker    The alliance of the attacking pieces.
+     * @return The attacked tiles.
+     */
+    public static long calculateAttackMap(final long[] pieceBoards, final long occupancy, final Alliance attacker) {
+        final int colourFlag = attacker.isBlack() ? PieceUtils.BLACK_FLAG : PieceUtils.WHITE_FLAG;
+        final long pawns = pieceBoards[PieceUtils.PAWN | colourFlag];
+        long attacks = attacker.isWhite() ?
+                ((pawns >>> 9) & ~FILE_H) | ((pawns >>> 7) & ~FILE_A) :
+                ((pawns << 7) & ~FILE_H) | ((pawns << 9) & ~FILE_A);
+        for (long knights = pieceBoards[PieceUtils.KNIGHT | colourFlag]; knights != 0; knights &= knights - 1) {
+            attacks |= KNIGHT_ATTACKS[Long.numberOfTrailingZeros(knights)];
+        }
+        final long queens = pieceBoards[PieceUtils.QUEEN | colourFlag];
+        for (long bishops = pieceBoards[PieceUtils.BISHOP | colourFlag] | queens; bishops != 0; bishops &= bishops - 1) {
+            attacks |= bishopAttacks(Long.numberOfTrailingZeros(bishops), occupancy);
+        }
+        for (long rooks = pieceBoards[PieceUtils.ROOK | colourFlag] | queens; rooks != 0; rooks &= rooks - 1) {
+            attacks |= rookAttacks(Long.numberOfTrailingZeros(rooks), occupancy);
+        }
+        final long king = pieceBoards[PieceUtils.KING | colourFlag];
+        return king == 0 ? attacks : attacks | KING_ATTACKS[Long.numberOfTrailingZeros(king)];
+    }
+
+    /**
+     * Returns a string representation of a bitboard, with one row per rank and a8 in the top left corner.
+     *
+     * @param bitBoard The bitboard to print.
+     * @return The string representation of the bitboard.
+     */
+    public static String toString(final long bitBoard) {
+        final StringBuilder builder = new StringBuilder();
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            builder.append((bitBoard & (1L << square)) != 0 ? " 1 " : " . ");
+            if ((square + 1) % BoardUtils.NUM_TILES_PER_ROW == 0) {
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+}
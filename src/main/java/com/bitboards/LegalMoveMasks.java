@@ -0,0 +1,167 @@
+/**
+ * The {@code LegalMoveMasks} class holds the information needed to tell legal moves from pseudo-legal ones
+ * without making them: the pieces giving check, the tiles a move has to land on to resolve a check,
+ * and the pieces pinned to their king. A pinned piece may only move along the line through its king and itself.
+ * <p>
+ * With these masks, a move of a piece other than the king is legal if its destination lies in the check mask and,
+ * for a pinned piece, on its pin line. A king move is legal if its destination is not attacked once the king has
+ * left its tile, and in double check only the king can move. En passant captures remove two pieces from a rank
+ * and are checked against the sliders directly.
+ * <p>
+ * An instance is reused by calling {@link #update(long[], long, Alliance)} for every position.
+ */
+
+package com.bitboards;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.piece.PieceUtils;
+
+public class LegalMoveMasks {
+    private long[] pieceBoards;
+    private long occupancy;
+    private Alliance alliance;
+    private int opponentFlag;
+    private int kingSquare;
+    private long checkers;
+    private long checkMask;
+    private long pinned;
+
+    /**
+     * Calculates the masks of the given alliance.
+     *
+     * @param pieceBoards The piece bitboards of the position, indexed by {@link PieceUtils} piece code.
+     *                    The array is read, not copied, so it must not change while the masks are used.
+     * @param occupancy   The occupied tiles of the position.
+     * @param alliance    The alliance whose moves are checked.
+     * @return This instance, for method chaining.
+     */
+    public LegalMoveMasks update(final long[] pieceBoards, final long occupancy, final Alliance alliance) {
+        this.pieceBoards = pieceBoards;
+        this.occupancy = occupancy;
+        this.alliance = alliance;
+        final int colourFlag = alliance.isBlack() ? PieceUtils.BLACK_FLAG : PieceUtils.WHITE_FLAG;
+        this.opponentFlag = colourFlag ^ PieceUtils.BLACK_FLAG;
+        this.kingSquare = Long.numberOfTrailingZeros(pieceBoards[PieceUtils.KING | colourFlag]);
+
+        this.checkers = attackers(this.kingSquare, occupancy);
+        if (this.checkers == 0) {
+            this.checkMask = -1L;
+        } else if ((this.checkers & (this.checkers - 1)) == 0) {
+            // a single check is resolved by capturing the checker or blocking its ray
+            this.checkMask = this.checkers | BitBoardUtils.BETWEEN[this.kingSquare][Long.numberOfTrailingZeros(this.checkers)];
+        } else {
+            this.checkMask = 0L;
+        }
+
+        // a piece is pinned if it is the only piece between its king and an enemy slider looking at the king
+        this.pinned = 0L;
+        final long ownPieces = ownPieces(colourFlag);
+        final long opponentQueens = pieceBoards[PieceUtils.QUEEN | this.opponentFlag];
+        long snipers = (BitBoardUtils.rookAttacks(this.kingSquare, occupancy & ~ownPieces) &
+                (pieceBoards[PieceUtils.ROOK | this.opponentFlag] | opponentQueens)) |
+                (BitBoardUtils.bishopAttacks(this.kingSquare, occupancy & ~ownPieces) &
+                        (pieceBoards[PieceUtils.BISHOP | this.opponentFlag] | opponentQueens));
+        for (; snipers != 0; snipers &= snipers - 1) {
+            final long blockers = BitBoardUtils.BETWEEN[this.kingSquare][Long.numberOfTrailingZeros(snipers)] & occupancy;
+            if ((blockers & (blockers - 1)) == 0 && (blockers & ownPieces) != 0) {
+                this.pinned |= blockers;
+            }
+        }
+        return this;
+    }
+
+    private long ownPieces(final int colourFlag) {
+        long pieces = 0L;
+        for (int type = PieceUtils.PAWN; type <= PieceUtils.KING; type++) {
+            pieces |= this.pieceBoards[type | colourFlag];
+        }
+        return pieces;
+    }
+
+    /**
+     * Calculates the opponent pieces attacking a tile, treating only the given tiles as occupied.
+     * Pieces outside the occupancy are considered captured.
+     */
+    private long attackers(final int square, final long occupancy) {
+        final long[] boards = this.pieceBoards;
+        final long queens = boards[PieceUtils.QUEEN | this.opponentFlag];
+        return ((BitBoardUtils.PAWN_ATTACKS[this.alliance.ordinal()][square] & boards[PieceUtils.PAWN | this.opponentFlag]) |
+                (BitBoardUtils.KNIGHT_ATTACKS[square] & boards[PieceUtils.KNIGHT | this.opponentFlag]) |
+                (BitBoardUtils.KING_ATTACKS[square] & boards[PieceUtils.KING | this.opponentFlag]) |
+                (BitBoardUtils.rookAttacks(square, occupancy) & (boards[PieceUtils.ROOK | this.opponentFlag] | queens)) |
+                (BitBoardUtils.bishopAttacks(square, occupancy) & (boards[PieceUtils.BISHOP | this.opponentFlag] | queens))) &
+                occupancy;
+    }
+
+    /**
+     * Checks if a tile would be attacked by the opponent with only the given tiles occupied.
+     *
+     * @param square    The tile to check.
+     * @param occupancy The occupied tiles to assume.
+     * @return {@code true} if an opponent piece attacks the tile, {@code false} otherwise.
+     */
+    public boolean isAttacked(final int square, final long occupancy) {
+        return attackers(square, occupancy) != 0;
+    }
+
+    /**
+     * Checks if a pseudo-legal move keeps the own king out of check. Castling moves are expected to be generated
+     * only when the king does not pass an attacked tile, so they are always accepted.
+     *
+     * @param move The encoded pseudo-legal move.
+     * @return {@code true} if the move is legal, {@code false} otherwise.
+     */
+    public boolean isLegal(final int move) {
+        final int from = MoveUtils.getCurrentCoordinate(move);
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        if (PieceUtils.typeOf(MoveUtils.getMovedPiece(move)) == PieceUtils.KING) {
+            return MoveUtils.isCastle(move) || !isAttacked(to, (this.occupancy ^ (1L << from)) | (1L << to));
+        }
+        if (MoveUtils.getMoveFlag(move) == MoveUtils.EN_PASSANT) {
+            final int capturedSquare = to - 8 * this.alliance.getDirection();
+            return !isAttacked(this.kingSquare, (this.occupancy ^ (1L << from) ^ (1L << capturedSquare)) | (1L << to));
+        }
+        return ((1L << to) & this.checkMask & getPinMask(from)) != 0;
+    }
+
+    /**
+     * Retrieves the tiles a piece on the given coordinate may move to without exposing its king to a slider.
+     *
+     * @param square The coordinate of the piece.
+     * @return The pin line if the piece is pinned, all tiles otherwise.
+     */
+    public long getPinMask(final int square) {
+        return (this.pinned & (1L << square)) != 0 ? BitBoardUtils.LINE[this.kingSquare][square] : -1L;
+    }
+
+    public boolean isInCheck() {
+        return this.checkers != 0;
+    }
+
+    public boolean isDoubleCheck() {
+        return (this.checkers & (this.checkers - 1)) != 0;
+    }
+
+    public long getCheckers() {
+        return this.checkers;
+    }
+
+    /**
+     * Retrieves the tiles a piece other than the king has to move to: the checking piece and the tiles between it
+     * and the king in single check, no tile in double check and every tile when not in check.
+     *
+     * @return The check mask.
+     */
+    public long getCheckMask() {
+        return this.checkMask;
+    }
+
+    public long getPinned() {
+        return this.pinned;
+    }
+
+    public int getKingSquare() {
+        return this.kingSquare;
+    }
+}
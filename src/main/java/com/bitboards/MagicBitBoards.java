@@ -0,0 +1,208 @@
+/**
+ * The {@code MagicBitBoards} class holds the magic bitboard attack tables of the sliding pieces.
+ * For every tile, the occupied tiles that can block a slider (its relevance mask) are multiplied by a magic
+ * number, and the top bits of the product index a table holding the attack set for that occupancy.
+ * A slider's attacks are thereby found with one multiplication and one table lookup.
+ * <p>
+ * The magic numbers below were found once with a seeded random search and are loaded at class initialization,
+ * which then only has to fill the tables. Should a stored magic number not fit its tile, a new one is searched,
+ * bounded by {@link #MAX_ATTEMPTS} candidates per tile.
+ */
+
+package com.bitboards;
+
+import com.chess.engine.board.BoardUtils;
+
+import java.util.SplittableRandom;
+
+public class MagicBitBoards {
+    private static final long SEED = 0x5EED_C4E55L;
+    private static final int MAX_ATTEMPTS = 10_000_000;
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {0, -1}, {1, 0}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private static final long[] ROOK_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] ROOK_MAGICS = {
+            0x0880004000801022L, 0x4440200440021000L, 0x088008D002200080L, 0x2500209000090004L,
+            0x1080040068008022L, 0x2200010842004410L, 0x1500008409000200L, 0x020000804029040AL,
+            0x4800800040008020L, 0x2082002200410082L, 0x0301001041082000L, 0xC041808008003000L,
+            0x00A4800400800800L, 0x0010800200800400L, 0x0184800100020080L, 0x0040800040802100L,
+            0x4000848004400060L, 0x8684444010002000L, 0x2006820010204200L, 0x0000090021001000L,
+            0x2009010008001004L, 0x900C008004020080L, 0x4108040001100288L, 0x5020220000804114L,
+            0x0080034240002000L, 0x03D0104040002000L, 0x4000100480200480L, 0x0040401200200A00L,
+            0x1032000600102008L, 0x0B820002801C0080L, 0x080A004200011488L, 0x0002908200140041L,
+            0x0080002000400040L, 0x10E0804000802003L, 0x0220100080802000L, 0x2204805004800801L,
+            0xC805004413000800L, 0x0050020080800400L, 0x0010800100800200L, 0x0004008502000864L,
+            0x0002008100420020L, 0x000150002008C000L, 0x090C410020090010L, 0x88422200400A0011L,
+            0x0008002040040400L, 0x0002001004020008L, 0x00008D2842040010L, 0x4204410080420004L,
+            0x0040800821004100L, 0x0200842000400480L, 0x0020620140B68200L, 0x80100008E1510100L,
+            0x0080800801040180L, 0x0803000804000300L, 0x0000080162300400L, 0x4002108041040200L,
+            0x8200102040800101L, 0x4602400016210481L, 0x08000A0040102082L, 0x0410210108100005L,
+            0x1011001008000423L, 0x11B1000400020801L, 0x0000012200881004L, 0x000008204401008AL
+    };
+    private static final int[] ROOK_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final long[][] ROOK_ATTACKS = new long[BoardUtils.NUM_TILES][];
+
+    private static final long[] BISHOP_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] BISHOP_MAGICS = {
+            0x08040104010A0A00L, 0x20080800C4004040L, 0x211008B0A1010804L, 0x0108061840900088L,
+            0x0210882000442020L, 0x3009045241040400L, 0xC010A80802100046L, 0x02018A0802010400L,
+            0x080010111001204AL, 0x0080041024005080L, 0x8140418103010080L, 0x0040640428800614L,
+            0x0000411041302012L, 0x0022008820880490L, 0x402000450C10C080L, 0x1454020704925000L,
+            0x4044000988080800L, 0x02A0000404041044L, 0x05020030102A0320L, 0x020420180A0060A8L,
+            0x8882004C02110000L, 0x0083000200514404L, 0x002C040209046208L, 0x2285180044008409L,
+            0x2002081020481020L, 0x1004020004884820L, 0x02180A000C4A0600L, 0x0480802008020020L,
+            0x0481020004008400L, 0x0470030001806104L, 0x4304084404210408L, 0x0002890040844802L,
+            0x2201200800105020L, 0x8803A49001201200L, 0x0400222408480800L, 0x0004208020080200L,
+            0x0008020010040900L, 0x1002004100021008L, 0x0002108A00010800L, 0x3050810100A04410L,
+            0x0024100808230400L, 0x10010410AA004420L, 0x01000C0048002401L, 0x0081011414041800L,
+            0x0400812012000100L, 0x0040182804204840L, 0x0144100220420A00L, 0x0410020216204040L,
+            0x8006010420050020L, 0x48120280D8082001L, 0x8000428048280000L, 0x1000230042020081L,
+            0x8244A21002120340L, 0x0100081001820880L, 0x0421044102340000L, 0x0004114802008404L,
+            0x2080842110022010L, 0x0020007309082000L, 0x1010200052080400L, 0x4201009200460800L,
+            0x00084040E014A401L, 0x2101004011240121L, 0x0520404204840080L, 0x0A4C907009012380L
+    };
+    private static final int[] BISHOP_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final long[][] BISHOP_ATTACKS = new long[BoardUtils.NUM_TILES][];
+
+    static {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            initSquare(square, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_ATTACKS, random);
+            initSquare(square, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_ATTACKS, random);
+        }
+    }
+
+    /**
+     * Prevents instantiation of the {@code MagicBitBoards} class.
+     */
+    private MagicBitBoards() {
+        throw new RuntimeException("Not instantiable.");
+    }
+
+    /**
+     * Retrieves the tiles attacked by a rook on the given coordinate.
+     *
+     * @param square    The coordinate of the rook.
+     * @param occupancy The occupied tiles of the board.
+     * @return The attacked tiles, including the first occupied tile in every direction.
+     */
+    public static long rookAttacks(final int square, final long occupancy) {
+        return ROOK_ATTACKS[square][(int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Retrieves the tiles attacked by a bishop on the given coordinate.
+     *
+     * @param square    The coordinate of the bishop.
+     * @param occupancy The occupied tiles of the board.
+     * @return The attacked tiles, including the first occupied tile in every direction.
+     */
+    public static long bishopAttacks(final int square, final long occupancy) {
+        return BISHOP_ATTACKS[square][(int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    private static boolean isOnBoard(final int row, final int column) {
+        return row >= 0 && row < BoardUtils.NUM_TILES_PER_ROW && column >= 0 && column < BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    /**
+     * Calculates the relevance mask of a tile: the tiles on its rays that can block a slider.
+     * The last tile of every ray is left out, since a piece there never hides anything behind it.
+     */
+    private static long relevanceMask(final int square, final int[][] directions) {
+        long mask = 0L;
+        for (final int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int column = square % 8 + direction[1];
+            while (isOnBoard(row + direction[0], column + direction[1])) {
+                mask |= 1L << (row * 8 + column);
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Calculates slider attacks by walking the rays tile by tile. Only used to fill the tables.
+     */
+    private static long slidingAttacks(final int square, final long occupancy, final int[][] directions) {
+        long attacks = 0L;
+        for (final int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int column = square % 8 + direction[1];
+            while (isOnBoard(row, column)) {
+                final long bit = 1L << (row * 8 + column);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static void initSquare(final int square, final int[][] directions, final long[] masks, final long[] magics,
+                                   final int[] shifts, final long[][] attackTables, final SplittableRandom random) {
+        final long mask = relevanceMask(square, directions);
+        final int relevantBits = Long.bitCount(mask);
+        final int size = 1 << relevantBits;
+
+        // enumerate every subset of the mask with the carry-rippler trick
+        final long[] occupancies = new long[size];
+        final long[] attacks = new long[size];
+        long subset = 0L;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        final long[] table = new long[size];
+        // the attempt that last wrote each entry, which saves clearing the table between attempts
+        final int[] epochs = new int[size];
+        if (!fillTable(magics[square], occupancies, attacks, relevantBits, table, epochs, 1)) {
+            magics[square] = findMagic(square, mask, occupancies, attacks, relevantBits, table, epochs, random);
+        }
+        masks[square] = mask;
+        shifts[square] = 64 - relevantBits;
+        attackTables[square] = table;
+    }
+
+    /**
+     * Fills the attack table of a tile using the given magic number.
+     *
+     * @return {@code true} if the magic number maps every occupancy without a destructive collision.
+     */
+    private static boolean fillTable(final long magic, final long[] occupancies, final long[] attacks, final int relevantBits,
+                                     final long[] table, final int[] epochs, final int epoch) {
+        for (int i = 0; i < occupancies.length; i++) {
+            final int index = (int) ((occupancies[i] * magic) >>> (64 - relevantBits));
+            if (epochs[index] != epoch) {
+                epochs[index] = epoch;
+                table[index] = attacks[i];
+            } else if (table[index] != attacks[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long findMagic(final int square, final long mask, final long[] occupancies, final long[] attacks,
+                                  final int relevantBits, final long[] table, final int[] epochs,
+                                  final SplittableRandom random) {
+        for (int attempt = 2; attempt <= MAX_ATTEMPTS; attempt++) {
+            // candidates with few set bits make good magics
+            final long magic = random.nextLong() & random.nextLong() & random.nextLong();
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) >= 6 &&
+                    fillTable(magic, occupancies, attacks, relevantBits, table, epochs, attempt)) {
+                return magic;
+            }
+        }
+        throw new RuntimeException("No magic number found for tile " + square);
+    }
+}
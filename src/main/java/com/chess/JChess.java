@@ -9,7 +9,7 @@ public class JChess {
         Board board = Board.createStandardBoard();
         System.out.println(board);
 
-        System.out.print(BitBoard.get());
+        System.out.print(new BitBoard(board));
 
         Table.get().show();
     }
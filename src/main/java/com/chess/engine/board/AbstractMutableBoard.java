@@ -0,0 +1,172 @@
+/**
+ * The {@code AbstractMutableBoard} class holds the state of a {@link MutableBoard} that does not depend on how
+ * the pieces are stored: the side to move, the castling rights, the en passant tile, the Zobrist key and
+ * the halfmove clock, along with the stack of the moves made and the state they replaced. The implementations
+ * save that state with {@link #pushHistory(int)} before changing it for a move, and restore it with
+ * {@link #popHistory()} when the move is taken back. Null moves and the repetition detection only touch
+ * this state, so they are implemented here once for every board.
+ */
+
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+
+import java.util.Arrays;
+
+public abstract class AbstractMutableBoard implements MutableBoard {
+    protected Alliance sideToMove;
+    protected int castlingRights;
+    protected int enPassantSquare;
+    protected long zobristKey;
+
+    private int ply;
+    private int[] historyMoves;
+    private int[] historyCastlingRights;
+    private int[] historyEnPassantSquares;
+    private long[] historyZobristKeys;
+    private int[] historyHalfmoveClocks;
+    private int halfmoveClock;
+    /**
+     * The keys of the game positions before the board was created that it could repeat, see {@link Board#getPositionHistory()}.
+     */
+    private final long[] gameKeys;
+
+    /**
+     * Copies the state of the given immutable board, with an empty history of moves.
+     *
+     * @param board The board to copy.
+     */
+    protected AbstractMutableBoard(final Board board) {
+        this.sideToMove = board.getCurrentPlayer().getAlliance();
+        this.castlingRights = board.getCastlingRights();
+        this.enPassantSquare = MutableBoard.calculateEnPassantSquare(board);
+        this.zobristKey = board.getZobristKey();
+        this.ply = 0;
+        this.historyMoves = new int[INITIAL_HISTORY_SIZE];
+        this.historyCastlingRights = new int[INITIAL_HISTORY_SIZE];
+        this.historyEnPassantSquares = new int[INITIAL_HISTORY_SIZE];
+        this.historyZobristKeys = new long[INITIAL_HISTORY_SIZE];
+        this.historyHalfmoveClocks = new int[INITIAL_HISTORY_SIZE];
+        this.halfmoveClock = board.getHalfmoveClock();
+        this.gameKeys = board.getPositionHistory();
+    }
+
+    /**
+     * Saves the state of the current position before a move changes it, and advances the halfmove clock:
+     * a capture or a pawn move resets it, any other move, the null move included, counts one more halfmove.
+     *
+     * @param move The encoded move about to be made, or {@link MoveUtils#NULL_ENCODED_MOVE}.
+     */
+    protected final void pushHistory(final int move) {
+        if (this.ply == this.historyMoves.length) {
+            growHistory();
+        }
+        this.historyMoves[this.ply] = move;
+        this.historyCastlingRights[this.ply] = this.castlingRights;
+        this.historyEnPassantSquares[this.ply] = this.enPassantSquare;
+        this.historyZobristKeys[this.ply] = this.zobristKey;
+        this.historyHalfmoveClocks[this.ply] = this.halfmoveClock;
+        this.halfmoveClock = MoveUtils.resetsHalfmoveClock(move) ? 0 : this.halfmoveClock + 1;
+        this.ply++;
+    }
+
+    /**
+     * Restores the state saved by the last {@link #pushHistory(int)} and gives the move back to the side that made it.
+     * The pieces are left to the caller.
+     *
+     * @return The move taken back, or {@link MoveUtils#NULL_ENCODED_MOVE} for a null move.
+     * @throws IllegalStateException If no move was made.
+     */
+    protected final int popHistory() {
+        if (this.ply == 0) {
+            throw new IllegalStateException("No move to undo!");
+        }
+        this.ply--;
+        this.sideToMove = this.sideToMove.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        this.castlingRights = this.historyCastlingRights[this.ply];
+        this.enPassantSquare = this.historyEnPassantSquares[this.ply];
+        this.zobristKey = this.historyZobristKeys[this.ply];
+        this.halfmoveClock = this.historyHalfmoveClocks[this.ply];
+        return this.historyMoves[this.ply];
+    }
+
+    private void growHistory() {
+        final int newLength = this.historyMoves.length * 2;
+        this.historyMoves = Arrays.copyOf(this.historyMoves, newLength);
+        this.historyCastlingRights = Arrays.copyOf(this.historyCastlingRights, newLength);
+        this.historyEnPassantSquares = Arrays.copyOf(this.historyEnPassantSquares, newLength);
+        this.historyZobristKeys = Arrays.copyOf(this.historyZobristKeys, newLength);
+        this.historyHalfmoveClocks = Arrays.copyOf(this.historyHalfmoveClocks, newLength);
+    }
+
+    @Override
+    public void makeNullMove() {
+        pushHistory(MoveUtils.NULL_ENCODED_MOVE);
+        this.zobristKey ^= Zobrist.sideToMoveKey() ^ Zobrist.enPassantKey(this.enPassantSquare);
+        this.enPassantSquare = -1;
+        this.sideToMove = this.sideToMove.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+    }
+
+    @Override
+    public Alliance getSideToMove() {
+        return this.sideToMove;
+    }
+
+    @Override
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    @Override
+    public int getEnPassantSquare() {
+        return this.enPassantSquare;
+    }
+
+    @Override
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    @Override
+    public int getPly() {
+        return this.ply;
+    }
+
+    @Override
+    public int getLastMove() {
+        return this.ply == 0 ? MoveUtils.NULL_ENCODED_MOVE : this.historyMoves[this.ply - 1];
+    }
+
+    @Override
+    public int getHalfmoveClock() {
+        return this.halfmoveClock;
+    }
+
+    /**
+     * Checks if the current position repeats an earlier one. Only the positions within the halfmove clock can repeat,
+     * and only those with the same side to move. A repetition of a position reached after the board was created
+     * is a draw right away: the side that could avoid it can as well repeat the moves again, so there is nothing
+     * to gain by searching on. A position of the game before, the position the board was created with included,
+     * has to occur twice before, for a threefold repetition. The positions before a null move do not count,
+     * since the null move is not a legal move.
+     */
+    @Override
+    public boolean isRepetition() {
+        final int distance = Math.min(this.halfmoveClock, this.ply + this.gameKeys.length);
+        int earlierCount = 0;
+        for (int back = 1; back <= distance; back++) {
+            final int index = this.ply - back;
+            if (index >= 0 && this.historyMoves[index] == MoveUtils.NULL_ENCODED_MOVE) {
+                break;
+            }
+            if ((back & 1) == 0 &&
+                    (index >= 0 ? this.historyZobristKeys[index] : this.gameKeys[this.gameKeys.length + index]) == this.zobristKey) {
+                if (index > 0) {
+                    return true;
+                }
+                earlierCount++;
+            }
+        }
+        return earlierCount >= 2;
+    }
+}
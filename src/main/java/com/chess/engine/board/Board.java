@@ -1,10 +1,15 @@
 /**
  * The {@code Board} class represents a chess board.
  * It includes methods for creating a standard chess board, calculating active pieces, and handling legal moves.
+ * <p>
+ * The tiles are stored as a flat mailbox of {@link PieceUtils} piece codes next to the piece objects,
+ * so tile lookups are plain array reads. {@link Tile} objects are only created as a view for the GUI.
  */
 
 package com.chess.engine.board;
 
+import com.bitboards.BitBoardUtils;
+import com.bitboards.LegalMoveMasks;
 import com.chess.engine.Alliance;
 import com.chess.engine.piece.*;
 import com.chess.engine.player.BlackPlayer;
@@ -14,19 +19,27 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import lombok.Getter;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class Board {
-    private final List<Tile> gameBoard;
+    /**
+     * The piece codes of the tiles, indexed by coordinate, see {@link PieceUtils}.
+     */
+    private final byte[] squares;
+    /**
+     * The pieces on the tiles, indexed by coordinate, with {@code null} for empty tiles.
+     */
+    private final Piece[] pieces;
     @Getter
     private final Collection<Piece> whitePieces;
     @Getter
     private final Collection<Piece> blackPieces;
+    /**
+     * All pieces on the board, white pieces first.
+     */
+    @Getter
+    private final Collection<Piece> allPieces;
 
     @Getter
     private final WhitePlayer whitePlayer;
@@ -41,60 +54,164 @@ public class Board {
     @Getter
     private final Move transitionMove;
 
+    /**
+     * The bitboard of all occupied tiles, where bit {@code i} stands for the tile with coordinate {@code i}.
+     */
+    @Getter
+    private final long occupancy;
+    /**
+     * The bitboards of the pieces, indexed by {@link PieceUtils} piece code.
+     */
+    private final long[] pieceBoards;
+
+    /**
+     * The castling rights as a combination of the castle flags of {@link MutableBoard}.
+     */
+    @Getter
+    private final int castlingRights;
+
+    /**
+     * The Zobrist key identifying the position, see {@link Zobrist}.
+     */
+    @Getter
+    private final long zobristKey;
+
+    /**
+     * The number of halfmoves since the last capture or pawn move, for the fifty-move rule, and the number of
+     * the full move, which starts at 1 and grows after every move of black.
+     */
+    @Getter
+    private final int halfmoveClock;
+    @Getter
+    private final int fullmoveNumber;
+    /**
+     * The Zobrist keys of the earlier positions of the game that this one could repeat, i.e. those since the last
+     * capture or pawn move, oldest first.
+     */
+    private final long[] positionHistory;
+
+    /**
+     * The attack maps of both alliances, indexed by alliance ordinal and calculated on first access.
+     */
+    private long[] attackMaps;
+    private Collection<Move> whiteStandardMoves;
+    private Collection<Move> blackStandardMoves;
+
     /**
      * Constructs a new {@code Board} using the provided {@code Builder}.
      *
      * @param builder The {@code Builder} used to construct the board.
      */
     private Board(final Builder builder) {
-        this.gameBoard = createGameBoard(builder);
-        this.whitePieces = calculateActivePieces(this.gameBoard, Alliance.WHITE);
-        this.blackPieces = calculateActivePieces(this.gameBoard, Alliance.BLACK);
+        this.pieces = builder.boardConfig.clone();
+        this.squares = calculateSquares(this.pieces);
+        this.whitePieces = calculateActivePieces(this.pieces, Alliance.WHITE);
+        this.blackPieces = calculateActivePieces(this.pieces, Alliance.BLACK);
+        this.allPieces = ImmutableList.<Piece>builder().addAll(this.whitePieces).addAll(this.blackPieces).build();
         this.enPassantPawn = builder.enPassantPawn;
+        this.occupancy = calculateOccupancy(this.squares);
+        this.pieceBoards = calculatePieceBoards(this.squares);
 
-        final Collection<Move> whiteStandardMoves = calculateLegalMoves(this.whitePieces);
-        final Collection<Move> blackStandardMoves = calculateLegalMoves(this.blackPieces);
-
-        this.whitePlayer = new WhitePlayer(this, whiteStandardMoves, blackStandardMoves);
-        this.blackPlayer = new BlackPlayer(this, whiteStandardMoves, blackStandardMoves);
+        // the moves of both sides are only generated once they are needed
+        this.whitePlayer = new WhitePlayer(this);
+        this.blackPlayer = new BlackPlayer(this);
         this.currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
 
         this.transitionMove = builder.transitionMove != null ? builder.transitionMove : MoveUtils.NULL_MOVE;
+
+        this.castlingRights = MutableBoard.calculateCastlingRights(this);
+        // boards created by a move get their key updated incrementally, all others are hashed from scratch
+        if (builder.zobristKey == null) {
+            this.zobristKey = Zobrist.calculateKey(this);
+        } else {
+            this.zobristKey = builder.zobristKey;
+            if (Zobrist.isDebug()) {
+                Zobrist.verifyKey(this.zobristKey, Zobrist.calculateKey(this));
+            }
+        }
+
+        if (builder.transitionMove == null) {
+            this.halfmoveClock = builder.halfmoveClock;
+            this.fullmoveNumber = builder.fullmoveNumber;
+            this.positionHistory = builder.positionHistory;
+        } else {
+            // a board created by a move continues the clocks and the history of the board the move was made on
+            final Board previous = builder.transitionMove.getBoard();
+            final boolean reset = MoveUtils.resetsHalfmoveClock(MoveUtils.encodeMove(builder.transitionMove));
+            this.halfmoveClock = reset ? 0 : previous.halfmoveClock + 1;
+            this.fullmoveNumber = previous.fullmoveNumber + (previous.currentPlayer.getAlliance().isBlack() ? 1 : 0);
+            if (reset) {
+                this.positionHistory = new long[0];
+            } else {
+                this.positionHistory = Arrays.copyOf(previous.positionHistory, previous.positionHistory.length + 1);
+                this.positionHistory[previous.positionHistory.length] = previous.zobristKey;
+            }
+        }
     }
 
     /**
      * Calculates the active pieces on the game board belonging to the specified alliance.
      *
-     * @param gameBoard The list of tiles representing the game board.
-     * @param alliance  The alliance of the pieces to be considered.
+     * @param pieces   The pieces on the tiles, indexed by coordinate.
+     * @param alliance The alliance of the pieces to be considered.
      * @return An immutable collection of active pieces belonging to the specified alliance.
-     * @throws NullPointerException If any tile on the game board is occupied, but the associated piece is null.
      */
-    private static Collection<Piece> calculateActivePieces(final List<Tile> gameBoard, final Alliance alliance) {
-        final List<Piece> activePieces = gameBoard.stream()
-                .filter(Tile::isTileOccupied)
-                .map(Tile::getPieceOnTile)
-                .filter(piece -> piece != null && piece.getPieceAlliance() == alliance)
-                .collect(Collectors.toList());
-        return ImmutableList.copyOf(activePieces);
+    private static Collection<Piece> calculateActivePieces(final Piece[] pieces, final Alliance alliance) {
+        final ImmutableList.Builder<Piece> activePieces = ImmutableList.builder();
+        for (final Piece piece : pieces) {
+            if (piece != null && piece.getPieceAlliance() == alliance) {
+                activePieces.add(piece);
+            }
+        }
+        return activePieces.build();
+    }
+
+    /**
+     * Calculates the piece codes of the tiles.
+     *
+     * @param pieces The pieces on the tiles, indexed by coordinate.
+     * @return The piece codes, indexed by coordinate.
+     */
+    private static byte[] calculateSquares(final Piece[] pieces) {
+        final byte[] squares = new byte[BoardUtils.NUM_TILES];
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            if (pieces[i] != null) {
+                squares[i] = (byte) PieceUtils.encode(pieces[i]);
+            }
+        }
+        return squares;
     }
 
+    /**
+     * Calculates the bitboard of the occupied tiles.
+     *
+     * @param squares The piece codes of the tiles.
+     * @return The bitboard of the occupied tiles.
+     */
+    private static long calculateOccupancy(final byte[] squares) {
+        long occupancy = 0L;
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            if (squares[i] != PieceUtils.EMPTY) {
+                occupancy |= 1L << i;
+            }
+        }
+        return occupancy;
+    }
 
     /**
-     * Creates the game board based on the configuration provided by the {@code Builder}.
-     * Each tile on the board is initialized with the corresponding piece
-     * or with an empty tile if no piece is configured for that position.
+     * Calculates the bitboard of every piece code.
      *
-     * @param builder The {@code Builder} containing the board configuration.
-     * @return A list of tiles representing the game board.
-     * @throws NullPointerException If the builder's configuration contains a null value at any position.
+     * @param squares The piece codes of the tiles.
+     * @return The piece bitboards, indexed by piece code.
      */
-    private static List<Tile> createGameBoard(final Builder builder) {
-        final Tile[] tiles = new Tile[BoardUtils.NUM_TILES];
+    private static long[] calculatePieceBoards(final byte[] squares) {
+        final long[] pieceBoards = new long[16];
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            tiles[i] = Tile.createTile(i, builder.boardConfig.get(i));
+            pieceBoards[squares[i]] |= 1L << i;
         }
-        return ImmutableList.copyOf(tiles);
+        // the empty tiles are not a piece board
+        pieceBoards[PieceUtils.EMPTY] = 0L;
+        return pieceBoards;
     }
 
     /**
@@ -138,7 +255,7 @@ public class Board {
 
     /**
      * Returns a string representation of the current board state.
-     * Each tile on the board is represented by its text representation.
+     * Each tile on the board is represented by the letter of its piece, or "-" if it is empty.
      * The board is formatted with ranks and files for better readability.
      *
      * @return A string representing the current board.
@@ -147,8 +264,7 @@ public class Board {
     public String toString() {
         final StringBuilder builder = new StringBuilder();
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            final String tileText = this.gameBoard.get(i).toString();
-            builder.append(String.format("%3s", tileText));
+            builder.append(String.format("%3s", PieceUtils.toString(this.squares[i])));
             if (((i + 1) % BoardUtils.NUM_TILES_PER_ROW) == 0) {
                 builder.append("\n");
             }
@@ -157,36 +273,59 @@ public class Board {
     }
 
     /**
-     * Retrieves all pieces on the board, both white and black.
+     * Retrieves all legal moves of a given collection of pieces
+     *
+     * @param pieces The pieces for witch the legal moves are calculated
+     * @return A collection of legal moves for the provided collection
+     */
+    private Collection<Move> calculateLegalMoves(Collection<Piece> pieces) {
+        final ImmutableList.Builder<Move> legalMoves = ImmutableList.builder();
+        for (final Piece piece : pieces) {
+            legalMoves.addAll(piece.calculateLegalMoves(this));
+        }
+        return legalMoves.build();
+    }
+
+    /**
+     * Retrieves the standard moves (all piece moves without castles) of the white pieces.
+     * The moves are calculated on first access and memoized, since the board is immutable.
      *
-     * @return A collection containing all pieces on the board.
+     * @return A collection of the standard moves of the white pieces.
      */
-    public Collection<Piece> getAllPieces() {
-        return ImmutableList.copyOf(
-                Stream.concat(whitePieces.stream(), blackPieces.stream()).collect(Collectors.toList()));
+    public Collection<Move> getWhiteStandardMoves() {
+        Collection<Move> moves = this.whiteStandardMoves;
+        if (moves == null) {
+            moves = calculateLegalMoves(this.whitePieces);
+            this.whiteStandardMoves = moves;
+        }
+        return moves;
     }
 
     /**
-     * Retrieves all legal moves of a given collection of pieces
+     * Retrieves the standard moves (all piece moves without castles) of the black pieces.
+     * The moves are calculated on first access and memoized, since the board is immutable.
      *
-     * @param pieces The pieces for witch the legal moves are calculated
-     * @return A collection of legal moves for the provided collection
+     * @return A collection of the standard moves of the black pieces.
      */
-    private Collection<Move> calculateLegalMoves(Collection<Piece> pieces) {
-        return ImmutableList.copyOf(pieces.stream()
-                .flatMap(piece -> piece.calculateLegalMoves(this).stream())
-                .collect(Collectors.toList()));
+    public Collection<Move> getBlackStandardMoves() {
+        Collection<Move> moves = this.blackStandardMoves;
+        if (moves == null) {
+            moves = calculateLegalMoves(this.blackPieces);
+            this.blackStandardMoves = moves;
+        }
+        return moves;
     }
 
     /**
-     * Retrieves the tile at the specified coordinate on the game board.
+     * Retrieves a view of the tile at the specified coordinate on the game board, as used by the GUI.
+     * Engine code should use {@link #getPiece(int)} or {@link #getPieceCode(int)} instead.
      *
      * @param tileCoordinate The specified coordinate of the wanted tile
      * @return The tile at the specified coordinate
      * @throws IndexOutOfBoundsException If the provided coordinate is not within the valid range.
      */
     public Tile getTileAtCoordinate(final int tileCoordinate) {
-        return gameBoard.get(tileCoordinate);
+        return Tile.createTile(tileCoordinate, this.pieces[tileCoordinate]);
     }
 
     /**
@@ -199,8 +338,73 @@ public class Board {
                 Iterables.concat(this.whitePlayer.getLegalMoves(), this.blackPlayer.getLegalMoves()));
     }
 
+    /**
+     * Calculates the pinned pieces, checking pieces and check mask of the given alliance.
+     *
+     * @param alliance The alliance whose moves are to be checked.
+     * @return The masks telling the legal moves of the alliance from its pseudo-legal ones.
+     */
+    public LegalMoveMasks calculateLegalMoveMasks(final Alliance alliance) {
+        return new LegalMoveMasks().update(this.pieceBoards, this.occupancy, alliance);
+    }
+
+    /**
+     * Checks if a tile is attacked by any piece of the given alliance, using reverse attack lookups
+     * from the tile instead of generating the moves of the attacker.
+     *
+     * @param square     The coordinate of the tile.
+     * @param byAlliance The alliance of the attacking pieces.
+     * @return {@code true} if the tile is attacked, {@code false} otherwise.
+     */
+    public boolean isSquareAttacked(final int square, final Alliance byAlliance) {
+        return BitBoardUtils.isSquareAttacked(this.pieceBoards, this.occupancy, square, byAlliance);
+    }
+
+    /**
+     * Retrieves the tiles attacked by the pieces of the given alliance.
+     * The attack maps of both alliances are calculated together on first access and memoized.
+     *
+     * @param alliance The alliance of the attacking pieces.
+     * @return The bitboard of the attacked tiles.
+     */
+    public long getAttackMap(final Alliance alliance) {
+        long[] maps = this.attackMaps;
+        if (maps == null) {
+            maps = new long[]{
+                    BitBoardUtils.calculateAttackMap(this.pieceBoards, this.occupancy, Alliance.WHITE),
+                    BitBoardUtils.calculateAttackMap(this.pieceBoards, this.occupancy, Alliance.BLACK)
+            };
+            this.attackMaps = maps;
+        }
+        return maps[alliance.ordinal()];
+    }
+
     public Piece getPiece(final int position) {
-        return this.gameBoard.get(position).getPieceOnTile();
+        return this.pieces[position];
+    }
+
+    /**
+     * Retrieves the code of the piece on a tile.
+     *
+     * @param position The coordinate of the tile.
+     * @return The {@link PieceUtils} piece code, or {@link PieceUtils#EMPTY} if the tile is empty.
+     */
+    public int getPieceCode(final int position) {
+        return this.squares[position];
+    }
+
+    public boolean isTileOccupied(final int position) {
+        return this.squares[position] != PieceUtils.EMPTY;
+    }
+
+    /**
+     * Retrieves the Zobrist keys of the earlier positions of the game that this one could repeat, which are those
+     * since the last capture or pawn move. A search uses them to find repetitions of the game positions.
+     *
+     * @return The keys, oldest first.
+     */
+    public long[] getPositionHistory() {
+        return this.positionHistory.clone();
     }
 
     /**
@@ -208,16 +412,23 @@ public class Board {
      * It allows for configuring the initial state of the board before creating an immutable {@code Board} instance.
      */
     public static class Builder {
-        private final Map<Integer, Piece> boardConfig;
+        private final Piece[] boardConfig;
         private Alliance nextMoveMaker;
         private Pawn enPassantPawn;
         private Move transitionMove;
+        private Long zobristKey;
+        private int halfmoveClock;
+        private int fullmoveNumber;
+        private long[] positionHistory;
 
         /**
          * Constructs a new {@code Builder} with an empty board configuration.
          */
         public Builder() {
-            this.boardConfig = new HashMap<>();
+            this.boardConfig = new Piece[BoardUtils.NUM_TILES];
+            this.halfmoveClock = 0;
+            this.fullmoveNumber = 1;
+            this.positionHistory = new long[0];
         }
 
         /**
@@ -227,7 +438,7 @@ public class Board {
          * @return The current builder instance for method chaining.
          */
         public Builder setPieceAtPosition(final Piece piece) {
-            this.boardConfig.put(piece.getPiecePosition(), piece);
+            this.boardConfig[piece.getPiecePosition()] = piece;
             return this;
         }
 
@@ -254,7 +465,8 @@ public class Board {
         }
 
         /**
-         * Sets the move that resulted in the current board state.
+         * Sets the move that resulted in the current board state. The move clocks and the position history
+         * of the new board are then carried over from the board the move was made on.
          *
          * @param transitionMove The move that resulted in the current board state.
          * @return The current builder instance for method chaining.
@@ -264,6 +476,42 @@ public class Board {
             return this;
         }
 
+        /**
+         * Sets the Zobrist key of the board, when it is known from an incremental update.
+         * If no key is set, the key is calculated from scratch.
+         *
+         * @param zobristKey The Zobrist key of the board.
+         * @return The current builder instance for method chaining.
+         */
+        public Builder setZobristKey(final long zobristKey) {
+            this.zobristKey = zobristKey;
+            return this;
+        }
+
+        /**
+         * Sets the move clocks of a board that is not created by a move, for example from a FEN string.
+         *
+         * @param halfmoveClock  The number of halfmoves since the last capture or pawn move.
+         * @param fullmoveNumber The number of the full move, starting at 1.
+         * @return The current builder instance for method chaining.
+         */
+        public Builder setMoveClocks(final int halfmoveClock, final int fullmoveNumber) {
+            this.halfmoveClock = halfmoveClock;
+            this.fullmoveNumber = fullmoveNumber;
+            return this;
+        }
+
+        /**
+         * Sets the Zobrist keys of the earlier positions of the game, for a board that is not created by a move.
+         *
+         * @param positionHistory The keys of the positions since the last capture or pawn move, oldest first.
+         * @return The current builder instance for method chaining.
+         */
+        public Builder setPositionHistory(final long[] positionHistory) {
+            this.positionHistory = positionHistory.clone();
+            return this;
+        }
+
         /**
          * Builds and returns an immutable instance of the {@code Board} class based on the current configuration.
          *
@@ -7,6 +7,7 @@ package com.chess.engine.board;
 
 import com.google.common.collect.ImmutableMap;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +28,11 @@ public class BoardUtils {
     public static final boolean[] SECOND_ROW = initRow(8);
     public static final boolean[] FIRST_ROW = initRow(0);
 
+    /**
+     * The castling rights (see {@link MutableBoard}) that survive a move from or to a given coordinate.
+     */
+    public static final int[] CASTLING_RIGHTS_MASK = initCastlingRightsMask();
+
     /**
      * Prevents instantiation of the {@code BoardUtils} class.
      * Instances of this class should not be created.
@@ -63,6 +69,25 @@ public class BoardUtils {
         return row;
     }
 
+    /**
+     * Initializes the castling rights mask: moving from or to the starting coordinate of a king or rook
+     * removes the castling rights that depend on that piece.
+     *
+     * @return An array containing the surviving castling rights for each tile.
+     */
+    private static int[] initCastlingRightsMask() {
+        final int[] mask = new int[NUM_TILES];
+        Arrays.fill(mask, MutableBoard.WHITE_KING_SIDE_CASTLE | MutableBoard.WHITE_QUEEN_SIDE_CASTLE |
+                MutableBoard.BLACK_KING_SIDE_CASTLE | MutableBoard.BLACK_QUEEN_SIDE_CASTLE);
+        mask[60] &= ~(MutableBoard.WHITE_KING_SIDE_CASTLE | MutableBoard.WHITE_QUEEN_SIDE_CASTLE);
+        mask[63] &= ~MutableBoard.WHITE_KING_SIDE_CASTLE;
+        mask[56] &= ~MutableBoard.WHITE_QUEEN_SIDE_CASTLE;
+        mask[4] &= ~(MutableBoard.BLACK_KING_SIDE_CASTLE | MutableBoard.BLACK_QUEEN_SIDE_CASTLE);
+        mask[7] &= ~MutableBoard.BLACK_KING_SIDE_CASTLE;
+        mask[0] &= ~MutableBoard.BLACK_QUEEN_SIDE_CASTLE;
+        return mask;
+    }
+
     /**
      * Initializes an array representing algebraic notation for each tile on the chess board.
      *
@@ -0,0 +1,545 @@
+/**
+ * The {@code MailboxBoard} class is the {@link MutableBoard} implementation that stores the pieces as
+ * {@link PieceUtils} codes in a 64 square mailbox. Moves are generated by walking precomputed rays and
+ * step tables square by square.
+ */
+
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.piece.King;
+import com.chess.engine.piece.Piece;
+import com.chess.engine.piece.PieceUtils;
+
+import java.util.Arrays;
+
+public class MailboxBoard extends AbstractMutableBoard {
+    /**
+     * Row and column steps of the eight sliding directions: the four orthogonal ones followed by the four diagonal ones.
+     */
+    private static final int[][] DIRECTIONS = {
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1},
+            {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
+    };
+    private static final int[][] KNIGHT_STEPS = {
+            {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+    private static final int[] PROMOTION_TYPES = {PieceUtils.QUEEN, PieceUtils.ROOK, PieceUtils.BISHOP, PieceUtils.KNIGHT};
+
+    /**
+     * For every coordinate and direction, the coordinates reached by sliding in that direction, nearest first.
+     */
+    private static final int[][][] RAYS = computeRays();
+    private static final int[][] KNIGHT_TARGETS = computeSteps(KNIGHT_STEPS);
+    private static final int[][] KING_TARGETS = computeSteps(DIRECTIONS);
+    /**
+     * For every alliance and coordinate, the coordinates attacked by a pawn of that alliance standing on it.
+     */
+    private static final int[][][] PAWN_ATTACKS = computePawnAttacks();
+
+    private final int[] squares;
+    private final int[] kingPositions;
+    private final boolean[] castled;
+
+    /**
+     * Constructs a {@code MailboxBoard} holding the same position as the given immutable board.
+     *
+     * @param board The board to copy.
+     */
+    public MailboxBoard(final Board board) {
+        super(board);
+        this.squares = new int[BoardUtils.NUM_TILES];
+        this.kingPositions = new int[2];
+        this.castled = new boolean[2];
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            final Piece piece = board.getPiece(i);
+            this.squares[i] = PieceUtils.encode(piece);
+            if (piece != null && piece.getPieceType().isKing()) {
+                this.kingPositions[piece.getPieceAlliance().ordinal()] = i;
+                this.castled[piece.getPieceAlliance().ordinal()] = ((King) piece).isCastled();
+            }
+        }
+    }
+
+    private static boolean isOnBoard(final int row, final int column) {
+        return row >= 0 && row < BoardUtils.NUM_TILES_PER_ROW && column >= 0 && column < BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    private static int[][][] computeRays() {
+        final int[][][] rays = new int[BoardUtils.NUM_TILES][DIRECTIONS.length][];
+        for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+            for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                final int[] ray = new int[BoardUtils.NUM_TILES_PER_ROW];
+                int length = 0;
+                int row = position / 8 + DIRECTIONS[direction][0];
+                int column = position % 8 + DIRECTIONS[direction][1];
+                while (isOnBoard(row, column)) {
+                    ray[length++] = row * 8 + column;
+                    row += DIRECTIONS[direction][0];
+                    column += DIRECTIONS[direction][1];
+                }
+                rays[position][direction] = Arrays.copyOf(ray, length);
+            }
+        }
+        return rays;
+    }
+
+    private static int[][] computeSteps(final int[][] steps) {
+        final int[][] targets = new int[BoardUtils.NUM_TILES][];
+        for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+            final int[] destinations = new int[steps.length];
+            int length = 0;
+            for (final int[] step : steps) {
+                final int row = position / 8 + step[0];
+                final int column = position % 8 + step[1];
+                if (isOnBoard(row, column)) {
+                    destinations[length++] = row * 8 + column;
+                }
+            }
+            targets[position] = Arrays.copyOf(destinations, length);
+        }
+        return targets;
+    }
+
+    private static int[][][] computePawnAttacks() {
+        final int[][][] attacks = new int[2][BoardUtils.NUM_TILES][];
+        for (final Alliance alliance : Alliance.values()) {
+            for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+                final int[] destinations = new int[2];
+                int length = 0;
+                final int row = position / 8 + alliance.getDirection();
+                for (final int columnStep : new int[]{-1, 1}) {
+                    final int column = position % 8 + columnStep;
+                    if (isOnBoard(row, column)) {
+                        destinations[length++] = row * 8 + column;
+                    }
+                }
+                attacks[alliance.ordinal()][position] = Arrays.copyOf(destinations, length);
+            }
+        }
+        return attacks;
+    }
+
+    @Override
+    public void makeMove(final int move) {
+        final int from = MoveUtils.getCurrentCoordinate(move);
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int flag = MoveUtils.getMoveFlag(move);
+
+        pushHistory(move);
+
+        this.squares[from] = PieceUtils.EMPTY;
+        this.squares[to] = MoveUtils.isPromotion(move) ?
+                MoveUtils.getPromotionType(move) | (movedPiece & PieceUtils.BLACK_FLAG) : movedPiece;
+        switch (flag) {
+            // the captured pawn is behind the destination, from the mover's point of view
+            case MoveUtils.EN_PASSANT -> this.squares[to + 8 * this.sideToMove.getOppositeDirection()] = PieceUtils.EMPTY;
+            case MoveUtils.KING_SIDE_CASTLE -> {
+                moveCastleRook(from + 3, from + 1);
+                this.castled[this.sideToMove.ordinal()] = true;
+            }
+            case MoveUtils.QUEEN_SIDE_CASTLE -> {
+                moveCastleRook(from - 4, from - 1);
+                this.castled[this.sideToMove.ordinal()] = true;
+            }
+            default -> {
+            }
+        }
+        if (PieceUtils.typeOf(movedPiece) == PieceUtils.KING) {
+            this.kingPositions[this.sideToMove.ordinal()] = to;
+        }
+
+        final int oldEnPassantSquare = this.enPassantSquare;
+        final int oldCastlingRights = this.castlingRights;
+        this.enPassantSquare = flag == MoveUtils.DOUBLE_PAWN_PUSH ? (from + to) / 2 : -1;
+        this.castlingRights &= BoardUtils.CASTLING_RIGHTS_MASK[from] & BoardUtils.CASTLING_RIGHTS_MASK[to];
+        this.sideToMove = this.sideToMove.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        this.zobristKey ^= Zobrist.calculateMoveKey(move) ^ Zobrist.sideToMoveKey() ^
+                Zobrist.castlingKey(oldCastlingRights) ^ Zobrist.castlingKey(this.castlingRights) ^
+                Zobrist.enPassantKey(oldEnPassantSquare) ^ Zobrist.enPassantKey(this.enPassantSquare);
+        if (Zobrist.isDebug()) {
+            Zobrist.verifyKey(this.zobristKey, Zobrist.calculateKey(this));
+        }
+    }
+
+    @Override
+    public void unmakeMove() {
+        final int move = popHistory();
+        if (move == MoveUtils.NULL_ENCODED_MOVE) {
+            return;
+        }
+        final int from = MoveUtils.getCurrentCoordinate(move);
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int capturedPiece = MoveUtils.getCapturedPiece(move);
+
+        this.squares[from] = movedPiece;
+        switch (MoveUtils.getMoveFlag(move)) {
+            case MoveUtils.EN_PASSANT -> {
+                this.squares[to] = PieceUtils.EMPTY;
+                this.squares[to + 8 * this.sideToMove.getOppositeDirection()] = capturedPiece;
+            }
+            case MoveUtils.KING_SIDE_CASTLE -> {
+                this.squares[to] = PieceUtils.EMPTY;
+                moveCastleRook(from + 1, from + 3);
+                this.castled[this.sideToMove.ordinal()] = false;
+            }
+            case MoveUtils.QUEEN_SIDE_CASTLE -> {
+                this.squares[to] = PieceUtils.EMPTY;
+                moveCastleRook(from - 1, from - 4);
+                this.castled[this.sideToMove.ordinal()] = false;
+            }
+            default -> this.squares[to] = capturedPiece;
+        }
+        if (PieceUtils.typeOf(movedPiece) == PieceUtils.KING) {
+            this.kingPositions[this.sideToMove.ordinal()] = from;
+        }
+    }
+
+    private void moveCastleRook(final int rookStart, final int rookDestination) {
+        this.squares[rookDestination] = this.squares[rookStart];
+        this.squares[rookStart] = PieceUtils.EMPTY;
+    }
+
+    @Override
+    public boolean isSquareAttacked(final int coordinate, final Alliance attacker) {
+        final int colourFlag = attacker.isBlack() ? PieceUtils.BLACK_FLAG : PieceUtils.WHITE_FLAG;
+        // a pawn of the attacking alliance attacks this coordinate if a defending pawn placed here would attack it
+        final int defender = attacker.isWhite() ? Alliance.BLACK.ordinal() : Alliance.WHITE.ordinal();
+        for (final int target : PAWN_ATTACKS[defender][coordinate]) {
+            if (this.squares[target] == (PieceUtils.PAWN | colourFlag)) {
+                return true;
+            }
+        }
+        for (final int target : KNIGHT_TARGETS[coordinate]) {
+            if (this.squares[target] == (PieceUtils.KNIGHT | colourFlag)) {
+                return true;
+            }
+        }
+        for (final int target : KING_TARGETS[coordinate]) {
+            if (this.squares[target] == (PieceUtils.KING | colourFlag)) {
+                return true;
+            }
+        }
+        for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+            final int sliderType = direction < 4 ? PieceUtils.ROOK : PieceUtils.BISHOP;
+            for (final int target : RAYS[coordinate][direction]) {
+                final int pieceCode = this.squares[target];
+                if (pieceCode != PieceUtils.EMPTY) {
+                    if (pieceCode == (sliderType | colourFlag) || pieceCode == (PieceUtils.QUEEN | colourFlag)) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int generatePseudoLegalMoves(final Alliance alliance, final int[] moves) {
+        return generatePseudoLegalMoves(alliance, true, true, moves);
+    }
+
+    @Override
+    public int generateLegalCaptures(final int[] moves) {
+        return filterLegalMoves(moves, generatePseudoLegalMoves(this.sideToMove, true, false, moves));
+    }
+
+    @Override
+    public int generateLegalQuietMoves(final int[] moves) {
+        return filterLegalMoves(moves, generatePseudoLegalMoves(this.sideToMove, false, true, moves));
+    }
+
+    @Override
+    public int generateLegalQuietChecks(final int[] moves) {
+        final int pseudoLegalCount = generatePseudoLegalMoves(this.sideToMove, false, true, moves);
+        int count = 0;
+        for (int i = 0; i < pseudoLegalCount; i++) {
+            makeMove(moves[i]);
+            if (!leftKingInCheck() && isInCheck()) {
+                moves[count++] = moves[i];
+            }
+            unmakeMove();
+        }
+        return count;
+    }
+
+    /**
+     * Generates the pseudo-legal captures and promotions, the pseudo-legal quiet moves, or both, see
+     * {@link MoveUtils#isTactical(int)}, so that a picker asking for one kind does not pay for the other.
+     */
+    private int generatePseudoLegalMoves(final Alliance alliance, final boolean captures, final boolean quiets,
+                                         final int[] moves) {
+        int count = 0;
+        for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+            final int pieceCode = this.squares[position];
+            if (pieceCode == PieceUtils.EMPTY || PieceUtils.getAlliance(pieceCode) != alliance) {
+                continue;
+            }
+            switch (PieceUtils.typeOf(pieceCode)) {
+                case PieceUtils.PAWN -> count = generatePawnMoves(position, alliance, captures, quiets, moves, count);
+                case PieceUtils.KNIGHT ->
+                        count = generateStepMoves(position, KNIGHT_TARGETS[position], alliance, captures, quiets, moves, count);
+                case PieceUtils.BISHOP -> count = generateSlidingMoves(position, 4, 8, alliance, captures, quiets, moves, count);
+                case PieceUtils.ROOK -> count = generateSlidingMoves(position, 0, 4, alliance, captures, quiets, moves, count);
+                case PieceUtils.QUEEN -> count = generateSlidingMoves(position, 0, 8, alliance, captures, quiets, moves, count);
+                case PieceUtils.KING -> {
+                    count = generateStepMoves(position, KING_TARGETS[position], alliance, captures, quiets, moves, count);
+                    if (quiets) {
+                        count = generateCastleMoves(alliance, moves, count);
+                    }
+                }
+                default -> throw new IllegalStateException("Invalid piece code " + pieceCode);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Keeps the pseudo-legal moves at the start of the array that do not leave the king in check.
+     */
+    private int filterLegalMoves(final int[] moves, final int pseudoLegalCount) {
+        int count = 0;
+        for (int i = 0; i < pseudoLegalCount; i++) {
+            makeMove(moves[i]);
+            if (!leftKingInCheck()) {
+                moves[count++] = moves[i];
+            }
+            unmakeMove();
+        }
+        return count;
+    }
+
+    private boolean isEnemy(final int pieceCode, final Alliance alliance) {
+        return pieceCode != PieceUtils.EMPTY && PieceUtils.getAlliance(pieceCode) != alliance;
+    }
+
+    private int generateStepMoves(final int position, final int[] targets, final Alliance alliance,
+                                  final boolean captures, final boolean quiets, final int[] moves, int count) {
+        for (final int target : targets) {
+            final int pieceCode = this.squares[target];
+            if ((quiets && pieceCode == PieceUtils.EMPTY) || (captures && isEnemy(pieceCode, alliance))) {
+                moves[count++] = MoveUtils.encodeMove(position, target, this.squares[position], pieceCode,
+                        MoveUtils.NORMAL_MOVE, 0);
+            }
+        }
+        return count;
+    }
+
+    private int generateSlidingMoves(final int position, final int firstDirection, final int lastDirection,
+                                     final Alliance alliance, final boolean captures, final boolean quiets,
+                                     final int[] moves, int count) {
+        final int slider = this.squares[position];
+        for (int direction = firstDirection; direction < lastDirection; direction++) {
+            for (final int target : RAYS[position][direction]) {
+                final int pieceCode = this.squares[target];
+                if (pieceCode == PieceUtils.EMPTY) {
+                    if (quiets) {
+                        moves[count++] = MoveUtils.encodeMove(position, target, slider, PieceUtils.EMPTY, MoveUtils.NORMAL_MOVE, 0);
+                    }
+                } else {
+                    if (captures && isEnemy(pieceCode, alliance)) {
+                        moves[count++] = MoveUtils.encodeMove(position, target, slider, pieceCode, MoveUtils.NORMAL_MOVE, 0);
+                    }
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Generates the moves of a pawn. Pushes to the last rank promote and count as captures.
+     */
+    private int generatePawnMoves(final int position, final Alliance alliance, final boolean captures,
+                                  final boolean quiets, final int[] moves, int count) {
+        final int advance = position + 8 * alliance.getDirection();
+        if (this.squares[advance] == PieceUtils.EMPTY) {
+            if (alliance.isPawnPromotionSquare(advance) ? captures : quiets) {
+                count = addPawnMove(position, advance, alliance, moves, count);
+            }
+            final boolean onStartRow = alliance.isWhite() ? BoardUtils.SEVENTH_ROW[position] : BoardUtils.SECOND_ROW[position];
+            final int jump = advance + 8 * alliance.getDirection();
+            if (quiets && onStartRow && this.squares[jump] == PieceUtils.EMPTY) {
+                moves[count++] = MoveUtils.encodeMove(position, jump, this.squares[position], PieceUtils.EMPTY,
+                        MoveUtils.DOUBLE_PAWN_PUSH, 0);
+            }
+        }
+        if (!captures) {
+            return count;
+        }
+        for (final int target : PAWN_ATTACKS[alliance.ordinal()][position]) {
+            if (isEnemy(this.squares[target], alliance)) {
+                count = addPawnMove(position, target, alliance, moves, count);
+            } else if (target == this.enPassantSquare && alliance == this.sideToMove) {
+                moves[count++] = MoveUtils.encodeMove(position, target, this.squares[position],
+                        this.squares[target + 8 * alliance.getOppositeDirection()], MoveUtils.EN_PASSANT, 0);
+            }
+        }
+        return count;
+    }
+
+    private int addPawnMove(final int position, final int destination, final Alliance alliance, final int[] moves, int count) {
+        final int pawn = this.squares[position];
+        final int capturedPiece = this.squares[destination];
+        if (alliance.isPawnPromotionSquare(destination)) {
+            for (final int promotionType : PROMOTION_TYPES) {
+                moves[count++] = MoveUtils.encodeMove(position, destination, pawn, capturedPiece,
+                        MoveUtils.NORMAL_MOVE, promotionType);
+            }
+        } else {
+            moves[count++] = MoveUtils.encodeMove(position, destination, pawn, capturedPiece, MoveUtils.NORMAL_MOVE, 0);
+        }
+        return count;
+    }
+
+    private int generateCastleMoves(final Alliance alliance, final int[] moves, int count) {
+        final int kingSideRight = alliance.isWhite() ? WHITE_KING_SIDE_CASTLE : BLACK_KING_SIDE_CASTLE;
+        final int queenSideRight = alliance.isWhite() ? WHITE_QUEEN_SIDE_CASTLE : BLACK_QUEEN_SIDE_CASTLE;
+        if ((this.castlingRights & (kingSideRight | queenSideRight)) == 0) {
+            return count;
+        }
+        final int kingPosition = alliance.isWhite() ? 60 : 4;
+        final Alliance opponent = alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        if (isSquareAttacked(kingPosition, opponent)) {
+            return count;
+        }
+        if ((this.castlingRights & kingSideRight) != 0 &&
+                this.squares[kingPosition + 1] == PieceUtils.EMPTY && this.squares[kingPosition + 2] == PieceUtils.EMPTY &&
+                !isSquareAttacked(kingPosition + 1, opponent) && !isSquareAttacked(kingPosition + 2, opponent)) {
+            moves[count++] = MoveUtils.encodeMove(kingPosition, kingPosition + 2, this.squares[kingPosition],
+                    PieceUtils.EMPTY, MoveUtils.KING_SIDE_CASTLE, 0);
+        }
+        if ((this.castlingRights & queenSideRight) != 0 &&
+                this.squares[kingPosition - 1] == PieceUtils.EMPTY && this.squares[kingPosition - 2] == PieceUtils.EMPTY &&
+                this.squares[kingPosition - 3] == PieceUtils.EMPTY &&
+                !isSquareAttacked(kingPosition - 1, opponent) && !isSquareAttacked(kingPosition - 2, opponent)) {
+            moves[count++] = MoveUtils.encodeMove(kingPosition, kingPosition - 2, this.squares[kingPosition],
+                    PieceUtils.EMPTY, MoveUtils.QUEEN_SIDE_CASTLE, 0);
+        }
+        return count;
+    }
+
+    /**
+     * Checks a move coming from another position, such as a hash move or a killer move, without generating
+     * the moves of this position: the move has to be pseudo-legal here and must not leave the king in check.
+     */
+    @Override
+    public boolean isLegalMove(final int move) {
+        if (!isPseudoLegal(move)) {
+            return false;
+        }
+        makeMove(move);
+        final boolean legal = !leftKingInCheck();
+        unmakeMove();
+        return legal;
+    }
+
+    private boolean isPseudoLegal(final int move) {
+        if (move == MoveUtils.NULL_ENCODED_MOVE) {
+            return false;
+        }
+        final int from = MoveUtils.getCurrentCoordinate(move);
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int capturedPiece = MoveUtils.getCapturedPiece(move);
+        final int flag = MoveUtils.getMoveFlag(move);
+        if (this.squares[from] != movedPiece || PieceUtils.getAlliance(movedPiece) != this.sideToMove ||
+                (capturedPiece != PieceUtils.EMPTY && PieceUtils.getAlliance(capturedPiece) == this.sideToMove)) {
+            return false;
+        }
+        if (flag == MoveUtils.EN_PASSANT) {
+            return to == this.enPassantSquare && this.squares[to + 8 * this.sideToMove.getOppositeDirection()] == capturedPiece &&
+                    contains(PAWN_ATTACKS[this.sideToMove.ordinal()][from], to);
+        }
+        if (this.squares[to] != capturedPiece) {
+            return false;
+        }
+        if (MoveUtils.isCastle(move)) {
+            final int[] castleMoves = new int[2];
+            final int count = generateCastleMoves(this.sideToMove, castleMoves, 0);
+            return (count > 0 && castleMoves[0] == move) || (count > 1 && castleMoves[1] == move);
+        }
+        final int type = PieceUtils.typeOf(movedPiece);
+        if (type != PieceUtils.PAWN) {
+            return flag == MoveUtils.NORMAL_MOVE && !MoveUtils.isPromotion(move) && reaches(type, from, to);
+        }
+        // a pawn promotes exactly when it reaches the last rank
+        if (MoveUtils.isPromotion(move) != this.sideToMove.isPawnPromotionSquare(to)) {
+            return false;
+        }
+        final int direction = this.sideToMove.getDirection();
+        if (flag == MoveUtils.DOUBLE_PAWN_PUSH) {
+            return to == from + 16 * direction && this.squares[from + 8 * direction] == PieceUtils.EMPTY &&
+                    capturedPiece == PieceUtils.EMPTY &&
+                    (this.sideToMove.isWhite() ? BoardUtils.SEVENTH_ROW[from] : BoardUtils.SECOND_ROW[from]);
+        }
+        return capturedPiece == PieceUtils.EMPTY ? to == from + 8 * direction :
+                contains(PAWN_ATTACKS[this.sideToMove.ordinal()][from], to);
+    }
+
+    /**
+     * Checks if a knight, bishop, rook, queen or king standing on a coordinate attacks another one.
+     */
+    private boolean reaches(final int type, final int from, final int to) {
+        return switch (type) {
+            case PieceUtils.KNIGHT -> contains(KNIGHT_TARGETS[from], to);
+            case PieceUtils.BISHOP -> slidesTo(from, to, 4, 8);
+            case PieceUtils.ROOK -> slidesTo(from, to, 0, 4);
+            case PieceUtils.QUEEN -> slidesTo(from, to, 0, 8);
+            default -> contains(KING_TARGETS[from], to);
+        };
+    }
+
+    private boolean slidesTo(final int from, final int to, final int firstDirection, final int lastDirection) {
+        for (int direction = firstDirection; direction < lastDirection; direction++) {
+            for (final int target : RAYS[from][direction]) {
+                if (target == to) {
+                    return true;
+                }
+                if (this.squares[target] != PieceUtils.EMPTY) {
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(final int[] coordinates, final int coordinate) {
+        for (final int candidate : coordinates) {
+            if (candidate == coordinate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getPieceCode(final int coordinate) {
+        return this.squares[coordinate];
+    }
+
+    @Override
+    public int getKingPosition(final Alliance alliance) {
+        return this.kingPositions[alliance.ordinal()];
+    }
+
+    @Override
+    public boolean isCastled(final Alliance alliance) {
+        return this.castled[alliance.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            builder.append(String.format("%3s", PieceUtils.toString(this.squares[i])));
+            if (((i + 1) % BoardUtils.NUM_TILES_PER_ROW) == 0) {
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -12,7 +12,6 @@
 
 package com.chess.engine.board;
 
-import com.bitboards.BitBoard;
 import com.chess.engine.board.Board.Builder;
 import com.chess.engine.piece.Pawn;
 import com.chess.engine.piece.Piece;
@@ -95,6 +94,26 @@ public abstract class Move {
         return null;
     }
 
+    /**
+     * Calculates the Zobrist key of the board resulting from this move by updating the key of the current board:
+     * the displaced pieces (see {@link Zobrist#calculateMoveKey(int)}), the side to move, the castling rights lost
+     * by moving from or capturing on a king or rook tile, and the en passant file.
+     *
+     * @return The Zobrist key of the board after this move.
+     */
+    public long calculateZobristKey() {
+        final int move = MoveUtils.encodeMove(this);
+        final int castlingRights = this.board.getCastlingRights();
+        final int newCastlingRights = castlingRights & BoardUtils.CASTLING_RIGHTS_MASK[getCurrentCoordinate()] &
+                BoardUtils.CASTLING_RIGHTS_MASK[this.destinationCoordinate];
+        final int newEnPassantSquare = MoveUtils.getMoveFlag(move) == MoveUtils.DOUBLE_PAWN_PUSH ?
+                (getCurrentCoordinate() + this.destinationCoordinate) / 2 : -1;
+        return this.board.getZobristKey() ^ Zobrist.calculateMoveKey(move) ^ Zobrist.sideToMoveKey() ^
+                Zobrist.castlingKey(castlingRights) ^ Zobrist.castlingKey(newCastlingRights) ^
+                Zobrist.enPassantKey(MutableBoard.calculateEnPassantSquare(this.board)) ^
+                Zobrist.enPassantKey(newEnPassantSquare);
+    }
+
     /**
      * Places pieces on the specified board builder according to the current game state.
      * This method adds all active pieces of the current player to the board, excluding the moved piece,
@@ -127,11 +146,9 @@ public abstract class Move {
         final Board.Builder builder = placePieces(new Board.Builder());
         // set the moved piece and change the current move maker
         builder.setPieceAtPosition(this.movedPiece.movePiece(this));
-        BitBoard.Piece.WHITE_KNIGHTS.setBits(this.movedPiece.getPiecePosition());
         builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
         builder.setTransitionMove(this);
-        // TODO - print bitboard representation of the board
-        // System.out.println(BitBoard.get() + "\n");
+        builder.setZobristKey(calculateZobristKey());
         // build the new board and return it
         return builder.build();
     }
@@ -319,6 +336,7 @@ public abstract class Move {
             builder.setPieceAtPosition(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
             builder.setTransitionMove(this);
+            builder.setZobristKey(calculateZobristKey());
             return builder.build();
         }
     }
@@ -330,9 +348,13 @@ public abstract class Move {
     public static class PawnPromotion extends Move {
         final Move decoratedMove;
         final Pawn promotedPawn;
+        /**
+         * The piece the pawn becomes, standing on the tile the pawn moves from.
+         */
+        @Getter
         final Piece promotionPiece;
 
-        public PawnPromotion(final Move decoratorMove, Piece promotionPiece) {
+        public PawnPromotion(final Move decoratorMove, final Piece promotionPiece) {
             super(decoratorMove.getBoard(), decoratorMove.getMovedPiece(), decoratorMove.getDestinationCoordinate());
             this.decoratedMove = decoratorMove;
             this.promotedPawn = (Pawn) decoratedMove.getMovedPiece();
@@ -349,9 +371,10 @@ public abstract class Move {
         public Board execute() {
             final Board pawnMoveBoard = this.decoratedMove.execute();
             final Board.Builder builder = placePieces(new Board.Builder());
-            builder.setPieceAtPosition(this.promotedPawn.getPromotionPiece().movePiece(this));
+            builder.setPieceAtPosition(this.promotionPiece.movePiece(this));
             builder.setMoveMaker(pawnMoveBoard.getCurrentPlayer().getAlliance());
             builder.setTransitionMove(this);
+            builder.setZobristKey(calculateZobristKey());
             return builder.build();
         }
 
@@ -367,18 +390,19 @@ public abstract class Move {
 
         @Override
         public String toString() {
-            return BoardUtils.getPositionAtCoordinate(this.movedPiece.getPiecePosition()) + "=";
-                    // + this.promotionPiece.getPieceType(); - TODO - fix this
+            return this.decoratedMove.toString() + "=" + this.promotionPiece.getPieceType();
         }
 
         @Override
         public int hashCode() {
-            return this.decoratedMove.hashCode() + (31 * promotedPawn.hashCode());
+            return this.decoratedMove.hashCode() + (31 * promotedPawn.hashCode()) +
+                    this.promotionPiece.getPieceType().hashCode();
         }
 
         @Override
         public boolean equals(final Object other) {
-            return this == other || other instanceof PawnPromotion && super.equals(other);
+            return this == other || other instanceof PawnPromotion otherPromotion && super.equals(other) &&
+                    this.promotionPiece.getPieceType() == otherPromotion.promotionPiece.getPieceType();
         }
 
         @Override
@@ -414,6 +438,7 @@ public abstract class Move {
             builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
             builder.setTransitionMove(this);
+            builder.setZobristKey(calculateZobristKey());
             return builder.build();
         }
     }
@@ -460,6 +485,7 @@ public abstract class Move {
             builder.setPieceAtPosition(new Rook(this.castleRook.getPieceAlliance(), this.castleRookDestination, false));
             builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
             builder.setTransitionMove(this);
+            builder.setZobristKey(calculateZobristKey());
             return builder.build();
         }
 
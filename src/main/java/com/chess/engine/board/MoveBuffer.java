@@ -0,0 +1,44 @@
+/**
+ * The {@code MoveBuffer} class holds one preallocated move array per search ply. A search generates the moves of
+ * a node into the array of its ply with {@link MutableBoard#generatePseudoLegalMoves(int[])}, so walking the game
+ * tree allocates no move lists at all. An array is only valid until the search returns to a lower ply and
+ * revisits the same ply, which is exactly the lifetime of a node's move loop.
+ */
+
+package com.chess.engine.board;
+
+public class MoveBuffer {
+    public static final int MAX_PLY = 128;
+
+    private final int[][] moves;
+
+    /**
+     * Constructs a {@code MoveBuffer} for searches up to {@link #MAX_PLY} plies deep.
+     */
+    public MoveBuffer() {
+        this(MAX_PLY);
+    }
+
+    /**
+     * Constructs a {@code MoveBuffer} for searches up to the given number of plies.
+     *
+     * @param maxPly The number of plies to allocate arrays for.
+     */
+    public MoveBuffer(final int maxPly) {
+        this.moves = new int[maxPly][MutableBoard.MAX_MOVES];
+    }
+
+    /**
+     * Retrieves the move array of a ply.
+     *
+     * @param ply The distance from the root of the search.
+     * @return The move array, holding {@link MutableBoard#MAX_MOVES} entries.
+     */
+    public int[] getMoves(final int ply) {
+        return this.moves[ply];
+    }
+
+    public int getMaxPly() {
+        return this.moves.length;
+    }
+}
@@ -1,11 +1,15 @@
 package com.chess.engine.board;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.chess.engine.piece.PieceUtils;
 
 public class MoveUtils {
     public static final Move NULL_MOVE = new Move.NullMove();
 
+    /**
+     * The encoded representation of "no move". It can never be a real move since its source and destination are equal.
+     */
+    public static final int NULL_ENCODED_MOVE = 0;
+
     public static int exchangeScore(final Move move) {
         if(move == NULL_MOVE) {
             return 1;
@@ -17,25 +21,172 @@ public class MoveUtils {
     }
 
     /**
-     *  A {@code Line} represents a line of coordinates on the chess board.
+     * The move flags of an encoded move, telling the special moves apart.
      */
-    public static class Line {
-        private final List<Integer> coordinates;
+    public static final int NORMAL_MOVE = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int EN_PASSANT = 2;
+    public static final int KING_SIDE_CASTLE = 3;
+    public static final int QUEEN_SIDE_CASTLE = 4;
 
-        public Line() {
-            this.coordinates = new ArrayList<>();
-        }
+    /**
+     * Encodes a move used by the {@link MutableBoard} into a single int:
+     * <ul>
+     *     <li>bits 0-5: the source coordinate</li>
+     *     <li>bits 6-11: the destination coordinate</li>
+     *     <li>bits 12-14: the {@link PieceUtils} type code of the promotion piece, 0 if the move is not a promotion</li>
+     *     <li>bits 15-18: the {@link PieceUtils} code of the moved piece</li>
+     *     <li>bits 19-22: the {@link PieceUtils} code of the captured piece, {@link PieceUtils#EMPTY} for quiet moves</li>
+     *     <li>bits 23-25: the move flag, one of {@link #NORMAL_MOVE} ... {@link #QUEEN_SIDE_CASTLE}</li>
+     * </ul>
+     *
+     * @param currentCoordinate     The source coordinate.
+     * @param destinationCoordinate The destination coordinate.
+     * @param movedPiece            The code of the moved piece.
+     * @param capturedPiece         The code of the captured piece, or {@link PieceUtils#EMPTY}.
+     * @param flag                  The move flag.
+     * @param promotionType         The type code of the promotion piece, or 0.
+     * @return The encoded move.
+     */
+    public static int encodeMove(final int currentCoordinate, final int destinationCoordinate, final int movedPiece,
+                                 final int capturedPiece, final int flag, final int promotionType) {
+        return currentCoordinate | (destinationCoordinate << 6) | (promotionType << 12) |
+                (movedPiece << 15) | (capturedPiece << 19) | (flag << 23);
+    }
 
-        public void addCoordinate(int coordinate) {
-            this.coordinates.add(coordinate);
+    /**
+     * Encodes a {@link Move} object into an int move, the inverse of {@link #toMove(Board, int)}.
+     *
+     * @param move The move to encode.
+     * @return The encoded move, or {@link #NULL_ENCODED_MOVE} for the null move.
+     */
+    public static int encodeMove(final Move move) {
+        if (move == null || move.getMovedPiece() == null) {
+            return NULL_ENCODED_MOVE;
         }
-
-        public List<Integer> getLineCoordinates() {
-            return this.coordinates;
+        final int flag;
+        if (move instanceof Move.PawnJump) {
+            flag = DOUBLE_PAWN_PUSH;
+        } else if (move instanceof Move.PawnEnPassantAttackMove) {
+            flag = EN_PASSANT;
+        } else if (move instanceof Move.KingSideCastleMove) {
+            flag = KING_SIDE_CASTLE;
+        } else if (move instanceof Move.QueenSideCastleMove) {
+            flag = QUEEN_SIDE_CASTLE;
+        } else {
+            flag = NORMAL_MOVE;
         }
+        return encodeMove(move.getCurrentCoordinate(), move.getDestinationCoordinate(),
+                PieceUtils.encode(move.getMovedPiece()), PieceUtils.encode(move.getAttackedPiece()), flag,
+                getPromotionType(move));
+    }
+
+    /**
+     * Retrieves the type code of the piece a {@link Move} promotes to.
+     *
+     * @param move The move.
+     * @return The type code of the promotion piece, or 0 if the move does not promote.
+     */
+    public static int getPromotionType(final Move move) {
+        return move instanceof Move.PawnPromotion promotion ?
+                PieceUtils.typeOf(PieceUtils.encode(promotion.getPromotionPiece())) : 0;
+    }
+
+    public static int getCurrentCoordinate(final int move) {
+        return move & 0x3F;
+    }
+
+    public static int getDestinationCoordinate(final int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int getPromotionType(final int move) {
+        return (move >>> 12) & 0x7;
+    }
+
+    public static int getMovedPiece(final int move) {
+        return (move >>> 15) & 0xF;
+    }
+
+    public static int getCapturedPiece(final int move) {
+        return (move >>> 19) & 0xF;
+    }
 
-        public boolean isEmpty() {
-            return this.coordinates.isEmpty();
+    public static int getMoveFlag(final int move) {
+        return (move >>> 23) & 0x7;
+    }
+
+    public static boolean isCapture(final int move) {
+        return getCapturedPiece(move) != PieceUtils.EMPTY;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return getPromotionType(move) != 0;
+    }
+
+    /**
+     * Checks if a move changes the material on the board, i.e. if it captures or promotes.
+     *
+     * @param move The encoded move.
+     * @return {@code true} if the move is a capture or a promotion, {@code false} otherwise.
+     */
+    public static boolean isTactical(final int move) {
+        return isCapture(move) || isPromotion(move);
+    }
+
+    /**
+     * Checks if a move is a king side or queen side castle.
+     *
+     * @param move The encoded move.
+     * @return {@code true} if the move is a castle, {@code false} otherwise.
+     */
+    public static boolean isCastle(final int move) {
+        return getMoveFlag(move) >= KING_SIDE_CASTLE;
+    }
+
+    /**
+     * Checks if a move resets the halfmove clock of the fifty-move rule, i.e. if it captures or moves a pawn.
+     * No position from before such a move can occur again.
+     *
+     * @param move The encoded move.
+     * @return {@code true} if the move is a capture or a pawn move, {@code false} otherwise.
+     */
+    public static boolean resetsHalfmoveClock(final int move) {
+        return isCapture(move) || PieceUtils.typeOf(getMovedPiece(move)) == PieceUtils.PAWN;
+    }
+
+    /**
+     * Converts an encoded move into the matching {@link Move} of the given board.
+     *
+     * @param board The board the move is played on.
+     * @param move  The encoded move.
+     * @return The matching move of the board, or {@link #NULL_MOVE} if there is none.
+     */
+    public static Move toMove(final Board board, final int move) {
+        if (move == NULL_ENCODED_MOVE) {
+            return NULL_MOVE;
+        }
+        // the coordinates alone do not tell the promotions of a pawn apart
+        for (final Move candidate : board.getAllLegalMoves()) {
+            if (candidate.getCurrentCoordinate() == getCurrentCoordinate(move) &&
+                    candidate.getDestinationCoordinate() == getDestinationCoordinate(move) &&
+                    getPromotionType(candidate) == getPromotionType(move)) {
+                return candidate;
+            }
         }
+        return NULL_MOVE;
+    }
+
+    /**
+     * Returns the algebraic representation of an encoded move, e.g. "e2e4" or "e7e8q".
+     *
+     * @param move The encoded move.
+     * @return The algebraic representation of the move.
+     */
+    public static String toAlgebraic(final int move) {
+        final String promotion = getPromotionType(move) == 0 ? "" :
+                PieceUtils.toString(getPromotionType(move) | PieceUtils.BLACK_FLAG);
+        return BoardUtils.getPositionAtCoordinate(getCurrentCoordinate(move)) +
+                BoardUtils.getPositionAtCoordinate(getDestinationCoordinate(move)) + promotion;
     }
 }
@@ -0,0 +1,495 @@
+/**
+ * The {@code MutableBoard} interface represents a mutable chess position used by the search.
+ * Moves are applied in place with {@link #makeMove(int)} and reverted with {@link #unmakeMove()}, using an
+ * undo stack that restores the previous state exactly. This lets the search walk the game tree without
+ * building a new {@link Board} for every node. The immutable {@code Board} remains the snapshot type
+ * used by the GUI and the FEN utilities.
+ * <p>
+ * Pieces are reported as {@link PieceUtils} codes and moves are encoded as ints
+ * (see {@link MoveUtils#encodeMove(int, int, int, int, int, int)}). Moves are generated into a caller supplied
+ * array, so a search can reuse one preallocated array per ply (see {@link MoveBuffer}) instead of allocating
+ * a new list at every node. The available implementations are listed in {@link Backend}.
+ */
+
+package com.chess.engine.board;
+
+import com.bitboards.BitBoard;
+import com.bitboards.BitBoardUtils;
+import com.chess.engine.Alliance;
+import com.chess.engine.piece.King;
+import com.chess.engine.piece.Pawn;
+import com.chess.engine.piece.Piece;
+import com.chess.engine.piece.PieceUtils;
+
+import java.util.Arrays;
+
+public interface MutableBoard {
+    int WHITE_KING_SIDE_CASTLE = 1;
+    int WHITE_QUEEN_SIDE_CASTLE = 2;
+    int BLACK_KING_SIDE_CASTLE = 4;
+    int BLACK_QUEEN_SIDE_CASTLE = 8;
+
+    /**
+     * The maximum number of pseudo-legal moves in any chess position is 218.
+     */
+    int MAX_MOVES = 256;
+    int INITIAL_HISTORY_SIZE = 256;
+    /**
+     * The number of halfmoves without a capture or pawn move after which the game is drawn.
+     */
+    int FIFTY_MOVE_HALFMOVES = 100;
+
+    /**
+     * Applies a move to the board and pushes the information needed to revert it onto the undo stack.
+     * The move is not checked for legality; use {@link #leftKingInCheck()} afterward to reject
+     * pseudo-legal moves that leave the moving side in check.
+     *
+     * @param move The encoded move to make.
+     */
+    void makeMove(int move);
+
+    /**
+     * Passes the turn to the opponent without moving a piece, as null-move pruning does. The en passant square
+     * is cleared. The null move is pushed onto the undo stack as {@link MoveUtils#NULL_ENCODED_MOVE} and reverted
+     * with {@link #unmakeMove()}. It must not be made while the side to move is in check.
+     */
+    void makeNullMove();
+
+    /**
+     * Reverts the last move made with {@link #makeMove(int)}, restoring the previous state exactly.
+     *
+     * @throws IllegalStateException If there is no move to undo.
+     */
+    void unmakeMove();
+
+    /**
+     * Checks if a coordinate is attacked by any piece of the given alliance.
+     *
+     * @param coordinate The coordinate to check.
+     * @param attacker   The alliance of the attacking pieces.
+     * @return {@code true} if the coordinate is attacked, {@code false} otherwise.
+     */
+    boolean isSquareAttacked(int coordinate, Alliance attacker);
+
+    /**
+     * Generates the pseudo-legal moves of the given alliance: moves that follow the movement rules of the pieces
+     * but may leave the own king in check. Castling moves are only generated if the squares the king passes are safe,
+     * and en passant captures only for the side to move.
+     *
+     * @param alliance The alliance to generate the moves for.
+     * @param moves    The array the encoded moves are written to, starting at index 0.
+     *                 It must hold at least {@link #MAX_MOVES} entries.
+     * @return The number of moves written.
+     */
+    int generatePseudoLegalMoves(Alliance alliance, int[] moves);
+
+    int getPieceCode(int coordinate);
+
+    Alliance getSideToMove();
+
+    int getCastlingRights();
+
+    /**
+     * Retrieves the coordinate an en passant capture would move to, i.e. the square behind the pawn that just jumped.
+     *
+     * @return The en passant coordinate, or -1 if there is none.
+     */
+    int getEnPassantSquare();
+
+    int getKingPosition(Alliance alliance);
+
+    /**
+     * Retrieves the Zobrist key of the current position, which is updated incrementally by every move.
+     *
+     * @return The Zobrist key, see {@link Zobrist}.
+     */
+    long getZobristKey();
+
+    boolean isCastled(Alliance alliance);
+
+    /**
+     * Retrieves the number of moves currently on the undo stack.
+     *
+     * @return The number of moves that can be undone.
+     */
+    int getPly();
+
+    /**
+     * Retrieves the move made last, the one {@link #unmakeMove()} would revert.
+     *
+     * @return The encoded move, or {@link MoveUtils#NULL_ENCODED_MOVE} if no move was made.
+     */
+    int getLastMove();
+
+    /**
+     * Retrieves the number of halfmoves since the last capture or pawn move, for the fifty-move rule.
+     * A null move counts as a halfmove.
+     *
+     * @return The halfmove clock.
+     */
+    int getHalfmoveClock();
+
+    /**
+     * Checks if the current position repeats an earlier one, see {@link AbstractMutableBoard#isRepetition()}.
+     *
+     * @return {@code true} if the position counts as repeated, {@code false} otherwise.
+     */
+    boolean isRepetition();
+
+    /**
+     * Checks if the current position is drawn by the fifty-move rule or by repetition, which a search scores
+     * as a draw without searching it. A mate given by the move that reaches the fifty-move limit still counts.
+     *
+     * @return {@code true} if the position is drawn by rule, {@code false} otherwise.
+     */
+    default boolean isDrawByRule() {
+        if (getHalfmoveClock() >= FIFTY_MOVE_HALFMOVES && (!isInCheck() || hasLegalMove())) {
+            return true;
+        }
+        return isRepetition();
+    }
+
+    /**
+     * Checks if the king of the given alliance is attacked by the opponent.
+     *
+     * @param alliance The alliance of the king.
+     * @return {@code true} if the king is attacked, {@code false} otherwise.
+     */
+    default boolean isKingAttacked(final Alliance alliance) {
+        return isSquareAttacked(getKingPosition(alliance), alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE);
+    }
+
+    /**
+     * Checks if an alliance has a piece other than its king and pawns. Null-move pruning is only safe with such
+     * a piece, since pawn endings are full of positions where every move makes things worse (zugzwang).
+     * The default implementation scans the tiles.
+     *
+     * @param alliance The alliance to check.
+     * @return {@code true} if the alliance has a knight, bishop, rook or queen, {@code false} otherwise.
+     */
+    default boolean hasNonPawnMaterial(final Alliance alliance) {
+        for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+            final int pieceCode = getPieceCode(coordinate);
+            final int type = PieceUtils.typeOf(pieceCode);
+            if (pieceCode != PieceUtils.EMPTY && PieceUtils.getAlliance(pieceCode) == alliance &&
+                    type != PieceUtils.PAWN && type != PieceUtils.KING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the side to move is in check.
+     *
+     * @return {@code true} if the side to move is in check, {@code false} otherwise.
+     */
+    default boolean isInCheck() {
+        return isKingAttacked(getSideToMove());
+    }
+
+    /**
+     * Checks if the move just made left the king of the side that made it in check, i.e. if it was illegal.
+     *
+     * @return {@code true} if the last move was illegal, {@code false} otherwise.
+     */
+    default boolean leftKingInCheck() {
+        return isKingAttacked(getSideToMove().isWhite() ? Alliance.BLACK : Alliance.WHITE);
+    }
+
+    /**
+     * Generates the pseudo-legal moves of the side to move into the given array.
+     *
+     * @param moves The array the encoded moves are written to.
+     * @return The number of moves written.
+     */
+    default int generatePseudoLegalMoves(final int[] moves) {
+        return generatePseudoLegalMoves(getSideToMove(), moves);
+    }
+
+    /**
+     * Generates the legal moves of the side to move into the given array. The default implementation generates
+     * the pseudo-legal moves and drops the ones that leave the king in check after making them.
+     *
+     * @param moves The array the encoded moves are written to.
+     * @return The number of moves written.
+     */
+    default int generateLegalMoves(final int[] moves) {
+        final int pseudoLegalCount = generatePseudoLegalMoves(moves);
+        int count = 0;
+        for (int i = 0; i < pseudoLegalCount; i++) {
+            makeMove(moves[i]);
+            if (!leftKingInCheck()) {
+                moves[count++] = moves[i];
+            }
+            unmakeMove();
+        }
+        return count;
+    }
+
+    /**
+     * Generates the legal captures and promotions of the side to move into the given array, see
+     * {@link MoveUtils#isTactical(int)}. The default implementation filters the legal moves.
+     *
+     * @param moves The array the encoded moves are written to.
+     * @return The number of moves written.
+     */
+    default int generateLegalCaptures(final int[] moves) {
+        return filterLegalMoves(moves, true);
+    }
+
+    /**
+     * Generates the legal moves of the side to move that neither capture nor promote into the given array.
+     * The default implementation filters the legal moves.
+     *
+     * @param moves The array the encoded moves are written to.
+     * @return The number of moves written.
+     */
+    default int generateLegalQuietMoves(final int[] moves) {
+        return filterLegalMoves(moves, false);
+    }
+
+    /**
+     * Generates the legal moves of the side to move that neither capture nor promote but give check into the given
+     * array. The default implementation makes every pseudo-legal quiet move once and tests both kings.
+     *
+     * @param moves The array the encoded moves are written to.
+     * @return The number of moves written.
+     */
+    default int generateLegalQuietChecks(final int[] moves) {
+        final int pseudoLegalCount = generatePseudoLegalMoves(moves);
+        int count = 0;
+        for (int i = 0; i < pseudoLegalCount; i++) {
+            if (!MoveUtils.isTactical(moves[i])) {
+                makeMove(moves[i]);
+                if (!leftKingInCheck() && isInCheck()) {
+                    moves[count++] = moves[i];
+                }
+                unmakeMove();
+            }
+        }
+        return count;
+    }
+
+    private int filterLegalMoves(final int[] moves, final boolean tactical) {
+        final int legalCount = generateLegalMoves(moves);
+        int count = 0;
+        for (int i = 0; i < legalCount; i++) {
+            if (MoveUtils.isTactical(moves[i]) == tactical) {
+                moves[count++] = moves[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if an encoded move, for example one remembered from another position, is legal in the current position.
+     * The default implementation searches the legal moves.
+     *
+     * @param move The encoded move.
+     * @return {@code true} if the move is legal, {@code false} otherwise.
+     */
+    default boolean isLegalMove(final int move) {
+        if (move == MoveUtils.NULL_ENCODED_MOVE) {
+            return false;
+        }
+        final int[] moves = new int[MAX_MOVES];
+        final int count = generateLegalMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calculates the static exchange evaluation of a move, see
+     * {@link BitBoardUtils#staticExchangeEvaluation(long[], long, int)}. No move is made.
+     * The default implementation builds the bitboards of the position from its piece codes.
+     *
+     * @param move The encoded move, usually a capture.
+     * @return The material the moving side wins in the exchange on the destination tile, negative if it loses some.
+     */
+    default int staticExchangeEvaluation(final int move) {
+        final long[] pieceBoards = new long[PieceUtils.BLACK_FLAG + PieceUtils.KING + 1];
+        long occupancy = 0L;
+        for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+            final int pieceCode = getPieceCode(coordinate);
+            if (pieceCode != PieceUtils.EMPTY) {
+                pieceBoards[pieceCode] |= 1L << coordinate;
+                occupancy |= 1L << coordinate;
+            }
+        }
+        return BitBoardUtils.staticExchangeEvaluation(pieceBoards, occupancy, move);
+    }
+
+    /**
+     * Generates the pseudo-legal moves of the given alliance into a new array.
+     *
+     * @param alliance The alliance to generate the moves for.
+     * @return An array of encoded moves.
+     */
+    default int[] generatePseudoLegalMoves(final Alliance alliance) {
+        final int[] moves = new int[MAX_MOVES];
+        return Arrays.copyOf(moves, generatePseudoLegalMoves(alliance, moves));
+    }
+
+    /**
+     * Generates the pseudo-legal moves of the side to move into a new array.
+     *
+     * @return An array of encoded moves.
+     */
+    default int[] generatePseudoLegalMoves() {
+        return generatePseudoLegalMoves(getSideToMove());
+    }
+
+    /**
+     * Generates the legal moves of the side to move into a new array.
+     *
+     * @return An array of encoded legal moves.
+     */
+    default int[] generateLegalMoves() {
+        final int[] moves = new int[MAX_MOVES];
+        return Arrays.copyOf(moves, generateLegalMoves(moves));
+    }
+
+    /**
+     * Checks if the side to move has at least one legal move.
+     *
+     * @param moves A scratch array for the generated moves.
+     * @return {@code true} if there is a legal move, {@code false} otherwise.
+     */
+    default boolean hasLegalMove(final int[] moves) {
+        final int count = generatePseudoLegalMoves(moves);
+        for (int i = 0; i < count; i++) {
+            makeMove(moves[i]);
+            final boolean legal = !leftKingInCheck();
+            unmakeMove();
+            if (legal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the side to move has at least one legal move.
+     *
+     * @return {@code true} if there is a legal move, {@code false} otherwise.
+     */
+    default boolean hasLegalMove() {
+        return hasLegalMove(new int[MAX_MOVES]);
+    }
+
+    /**
+     * Creates an immutable snapshot of the current position.
+     *
+     * @return A new {@link Board} holding the current position.
+     */
+    default Board toBoard() {
+        final int castlingRights = getCastlingRights();
+        final Board.Builder builder = new Board.Builder();
+        for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+            final int pieceCode = getPieceCode(position);
+            if (pieceCode == PieceUtils.EMPTY) {
+                continue;
+            }
+            final Alliance alliance = PieceUtils.getAlliance(pieceCode);
+            switch (PieceUtils.typeOf(pieceCode)) {
+                case PieceUtils.KING -> {
+                    final boolean kingSide = (castlingRights &
+                            (alliance.isWhite() ? WHITE_KING_SIDE_CASTLE : BLACK_KING_SIDE_CASTLE)) != 0;
+                    final boolean queenSide = (castlingRights &
+                            (alliance.isWhite() ? WHITE_QUEEN_SIDE_CASTLE : BLACK_QUEEN_SIDE_CASTLE)) != 0;
+                    builder.setPieceAtPosition(new King(alliance, position, kingSide || queenSide,
+                            isCastled(alliance), kingSide, queenSide));
+                }
+                // a rook keeps its first move status only while it still grants a castling right
+                case PieceUtils.ROOK -> builder.setPieceAtPosition(PieceUtils.createPiece(pieceCode, position,
+                        (castlingRights & ~BoardUtils.CASTLING_RIGHTS_MASK[position]) != 0));
+                default -> builder.setPieceAtPosition(PieceUtils.createPiece(pieceCode, position, true));
+            }
+        }
+        if (getEnPassantSquare() != -1) {
+            final int pawnPosition = getEnPassantSquare() - 8 * getSideToMove().getDirection();
+            builder.setEnPassantPawn(new Pawn(getSideToMove().isWhite() ? Alliance.BLACK : Alliance.WHITE, pawnPosition));
+        }
+        builder.setMoveMaker(getSideToMove());
+        builder.setMoveClocks(getHalfmoveClock(), 1);
+        return builder.build();
+    }
+
+    /**
+     * Calculates the castling rights of an immutable board, see {@link Board#getCastlingRights()}. A right is kept if the king and the rook on their
+     * starting coordinates have not moved yet and the king is capable of castling on that side.
+     *
+     * @param board The board to read.
+     * @return The castling rights as a combination of the castle flags of this interface.
+     */
+    static int calculateCastlingRights(final Board board) {
+        int rights = 0;
+        if (canCastle(board, 60, 63, Alliance.WHITE, true)) {
+            rights |= WHITE_KING_SIDE_CASTLE;
+        }
+        if (canCastle(board, 60, 56, Alliance.WHITE, false)) {
+            rights |= WHITE_QUEEN_SIDE_CASTLE;
+        }
+        if (canCastle(board, 4, 7, Alliance.BLACK, true)) {
+            rights |= BLACK_KING_SIDE_CASTLE;
+        }
+        if (canCastle(board, 4, 0, Alliance.BLACK, false)) {
+            rights |= BLACK_QUEEN_SIDE_CASTLE;
+        }
+        return rights;
+    }
+
+    private static boolean canCastle(final Board board, final int kingPosition, final int rookPosition,
+                                     final Alliance alliance, final boolean kingSide) {
+        final Piece king = board.getPiece(kingPosition);
+        final Piece rook = board.getPiece(rookPosition);
+        if (king == null || !king.getPieceType().isKing() || king.getPieceAlliance() != alliance || !king.isFirstMove() ||
+                rook == null || !rook.getPieceType().isRook() || rook.getPieceAlliance() != alliance || !rook.isFirstMove()) {
+            return false;
+        }
+        return kingSide ? ((King) king).isKingSideCastleCapable() : ((King) king).isQueenSideCastleCapable();
+    }
+
+    /**
+     * Calculates the en passant coordinate of an immutable board from its en passant pawn.
+     *
+     * @param board The board to read.
+     * @return The en passant coordinate, or -1 if there is none.
+     */
+    static int calculateEnPassantSquare(final Board board) {
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        return enPassantPawn == null ? -1 :
+                enPassantPawn.getPiecePosition() + 8 * enPassantPawn.getPieceAlliance().getOppositeDirection();
+    }
+
+    /**
+     * The {@code Backend} enum lists the available {@link MutableBoard} implementations.
+     */
+    enum Backend {
+        MAILBOX {
+            @Override
+            public MutableBoard create(final Board board) {
+                return new MailboxBoard(board);
+            }
+        },
+        BITBOARD {
+            @Override
+            public MutableBoard create(final Board board) {
+                return new BitBoard(board);
+            }
+        };
+
+        /**
+         * Creates a mutable board of this backend holding the same position as the given immutable board.
+         *
+         * @param board The board to copy.
+         * @return The new mutable board.
+         */
+        public abstract MutableBoard create(Board board);
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * The {@code Zobrist} class holds the random keys used to hash chess positions. The key of a position is the XOR of
+ * one key per piece and tile, a key if black is to move, a key for the combination of castling rights and a key
+ * for the file of the en passant square, if there is one.
+ * <p>
+ * Since XOR is its own inverse, a move changes the key by XOR-ing out what it removes and XOR-ing in what it adds,
+ * see {@link #calculateMoveKey(int)}. {@link Board} and the {@link MutableBoard} implementations update their keys
+ * this way. In debug mode, every incrementally updated key is checked against a key calculated from scratch.
+ * Debug mode is turned on with the system property {@code chess.zobrist.debug} or {@link #setDebug(boolean)}.
+ */
+
+package com.chess.engine.board;
+
+import com.chess.engine.piece.Piece;
+import com.chess.engine.piece.PieceUtils;
+
+import java.util.SplittableRandom;
+
+public class Zobrist {
+    private static final long SEED = 0x2B7E_1516_28AE_D2A6L;
+
+    /**
+     * The piece keys, indexed by {@link PieceUtils} piece code and coordinate.
+     */
+    private static final long[][] PIECE_KEYS = new long[16][BoardUtils.NUM_TILES];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[BoardUtils.NUM_TILES_PER_ROW];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    private static volatile boolean debug = Boolean.getBoolean("chess.zobrist.debug");
+
+    static {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (final long[] pieceKeys : PIECE_KEYS) {
+            for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+                pieceKeys[position] = random.nextLong();
+            }
+        }
+        // no castling rights leave the key unchanged
+        for (int rights = 1; rights < CASTLING_KEYS.length; rights++) {
+            CASTLING_KEYS[rights] = random.nextLong();
+        }
+        for (int file = 0; file < EN_PASSANT_KEYS.length; file++) {
+            EN_PASSANT_KEYS[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    /**
+     * Prevents instantiation of the {@code Zobrist} class.
+     */
+    private Zobrist() {
+        throw new RuntimeException("Not instantiable.");
+    }
+
+    public static boolean isDebug() {
+        return debug;
+    }
+
+    public static void setDebug(final boolean debug) {
+        Zobrist.debug = debug;
+    }
+
+    public static long pieceKey(final int pieceCode, final int coordinate) {
+        return PIECE_KEYS[pieceCode][coordinate];
+    }
+
+    public static long castlingKey(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    /**
+     * Retrieves the key of an en passant square. Only the file of the square is hashed, since the rank follows
+     * from the side to move.
+     *
+     * @param enPassantSquare The en passant coordinate, or -1 if there is none.
+     * @return The key of the en passant file, or 0 if there is no en passant square.
+     */
+    public static long enPassantKey(final int enPassantSquare) {
+        return enPassantSquare == -1 ? 0L : EN_PASSANT_KEYS[enPassantSquare % BoardUtils.NUM_TILES_PER_ROW];
+    }
+
+    public static long sideToMoveKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+
+    /**
+     * Calculates the change of the key caused by the pieces a move displaces: the moved piece leaving its tile and
+     * landing (or being promoted) on its destination, the captured piece, including a pawn captured en passant,
+     * and the rook of a castling move. Side to move, castling rights and en passant square are not included,
+     * since they depend on the position the move is made in.
+     *
+     * @param move The encoded move.
+     * @return The key to XOR into the key of the position before the move.
+     */
+    public static long calculateMoveKey(final int move) {
+        final int from = MoveUtils.getCurrentCoordinate(move);
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int colourFlag = movedPiece & PieceUtils.BLACK_FLAG;
+        final int landingPiece = MoveUtils.isPromotion(move) ? MoveUtils.getPromotionType(move) | colourFlag : movedPiece;
+        long key = PIECE_KEYS[movedPiece][from] ^ PIECE_KEYS[landingPiece][to];
+        final int rook = PieceUtils.ROOK | colourFlag;
+        switch (MoveUtils.getMoveFlag(move)) {
+            // the captured pawn is behind the destination, from the mover's point of view
+            case MoveUtils.EN_PASSANT -> key ^= PIECE_KEYS[MoveUtils.getCapturedPiece(move)][colourFlag == 0 ? to + 8 : to - 8];
+            case MoveUtils.KING_SIDE_CASTLE -> key ^= PIECE_KEYS[rook][from + 3] ^ PIECE_KEYS[rook][from + 1];
+            case MoveUtils.QUEEN_SIDE_CASTLE -> key ^= PIECE_KEYS[rook][from - 4] ^ PIECE_KEYS[rook][from - 1];
+            default -> {
+                if (MoveUtils.isCapture(move)) {
+                    key ^= PIECE_KEYS[MoveUtils.getCapturedPiece(move)][to];
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Calculates the key of an immutable board from scratch.
+     *
+     * @param board The board to hash.
+     * @return The Zobrist key of the board.
+     */
+    public static long calculateKey(final Board board) {
+        long key = 0L;
+        for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+            final Piece piece = board.getPiece(position);
+            if (piece != null) {
+                key ^= PIECE_KEYS[PieceUtils.encode(piece)][position];
+            }
+        }
+        if (board.getCurrentPlayer().getAlliance().isBlack()) {
+            key ^= BLACK_TO_MOVE_KEY;
+        }
+        return key ^ CASTLING_KEYS[board.getCastlingRights()] ^
+                enPassantKey(MutableBoard.calculateEnPassantSquare(board));
+    }
+
+    /**
+     * Calculates the key of a mutable board from scratch.
+     *
+     * @param board The board to hash.
+     * @return The Zobrist key of the board.
+     */
+    public static long calculateKey(final MutableBoard board) {
+        long key = 0L;
+        for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+            final int pieceCode = board.getPieceCode(position);
+            if (pieceCode != PieceUtils.EMPTY) {
+                key ^= PIECE_KEYS[pieceCode][position];
+            }
+        }
+        if (board.getSideToMove().isBlack()) {
+            key ^= BLACK_TO_MOVE_KEY;
+        }
+        return key ^ CASTLING_KEYS[board.getCastlingRights()] ^ enPassantKey(board.getEnPassantSquare());
+    }
+
+    /**
+     * Checks an incrementally updated key against the key calculated from scratch.
+     *
+     * @param incrementalKey The incrementally updated key.
+     * @param calculatedKey  The key calculated from scratch.
+     * @throws IllegalStateException If the keys differ.
+     */
+    public static void verifyKey(final long incrementalKey, final long calculatedKey) {
+        if (incrementalKey != calculatedKey) {
+            throw new IllegalStateException("Zobrist key mismatch: incremental " + Long.toHexString(incrementalKey) +
+                    ", calculated " + Long.toHexString(calculatedKey));
+        }
+    }
+}
@@ -106,13 +106,11 @@ public class King extends Piece {
         final List<Move> legalMoves = new ArrayList<>();
         for (int offset : PRECOMPUTED_LEGAL_MOVES.get(this.piecePosition)) {
             final int candidateDestination = this.piecePosition + offset;
-            final Piece pieceAtCandidatePosition = board.getPiece(candidateDestination);
-            if (pieceAtCandidatePosition == null) {
+            final int pieceCode = board.getPieceCode(candidateDestination);
+            if (pieceCode == PieceUtils.EMPTY) {
                 legalMoves.add(new Move.MajorMove(board, this, candidateDestination));
-            } else {
-                if (pieceAtCandidatePosition.getPieceAlliance() != this.pieceAlliance) {
-                    legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestination, pieceAtCandidatePosition));
-                }
+            } else if (PieceUtils.getAlliance(pieceCode) != this.pieceAlliance) {
+                legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestination, board.getPiece(candidateDestination)));
             }
         }
         return ImmutableList.copyOf(legalMoves);
@@ -9,7 +9,6 @@ import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
@@ -102,13 +101,11 @@ public class Knight extends Piece {
     public Collection<Move> calculateLegalMoves(final Board board) {
         final List<Move> legalMoves = new ArrayList<>();
         for (int destination : PRECOMPUTED_LEGAL_MOVES.get(this.piecePosition)) {
-            final Piece pieceAtCandidatePosition =  board.getPiece(destination);
-            if (pieceAtCandidatePosition == null) {
+            final int pieceCode = board.getPieceCode(destination);
+            if (pieceCode == PieceUtils.EMPTY) {
                 legalMoves.add(new Move.MajorMove(board, this, destination));
-            } else {
-                if (pieceAtCandidatePosition.getPieceAlliance() != this.pieceAlliance) {
-                    legalMoves.add(new Move.MajorAttackMove(board, this, destination, pieceAtCandidatePosition));
-                }
+            } else if (PieceUtils.getAlliance(pieceCode) != this.pieceAlliance) {
+                legalMoves.add(new Move.MajorAttackMove(board, this, destination, board.getPiece(destination)));
             }
         }
         return ImmutableList.copyOf(legalMoves);
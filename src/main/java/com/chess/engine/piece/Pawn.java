@@ -37,9 +37,9 @@ public class Pawn extends Piece {
             }
 
             // normal move
-            if (currentCandidateOffset == 8 && !board.getTileAtCoordinate(candidateDestinationCoordinate).isTileOccupied()) {
+            if (currentCandidateOffset == 8 && !board.isTileOccupied(candidateDestinationCoordinate)) {
                 if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                    legalMoves.add(new Move.PawnPromotion(new PawnMove(board, this, candidateDestinationCoordinate), null));
+                    addPromotions(legalMoves, new PawnMove(board, this, candidateDestinationCoordinate));
                 } else {
                     legalMoves.add(new PawnMove(board, this, candidateDestinationCoordinate));
                 }
@@ -49,20 +49,19 @@ public class Pawn extends Piece {
                             (BoardUtils.SEVENTH_ROW[this.piecePosition] && this.getPieceAlliance().isWhite()))) {
                 final int behindCandidateDestinationLocation = this.piecePosition + (this.pieceAlliance.getDirection() * 8);
 
-                if (!board.getTileAtCoordinate(behindCandidateDestinationLocation).isTileOccupied() &&
-                        !board.getTileAtCoordinate(candidateDestinationCoordinate).isTileOccupied()) {
+                if (!board.isTileOccupied(behindCandidateDestinationLocation) &&
+                        !board.isTileOccupied(candidateDestinationCoordinate)) {
                     legalMoves.add(new PawnJump(board, this, candidateDestinationCoordinate));
                 }
                 // capture cases and exceptions to the rules (pawns on the 1st and 8th column)
             } else if (currentCandidateOffset == 7 &&
                     !((BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()) ||
                             (BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()))) {
-                if (board.getTileAtCoordinate(candidateDestinationCoordinate).isTileOccupied()) {
-                    final Piece pieceOnCandidate = board.getTileAtCoordinate(candidateDestinationCoordinate).getPieceOnTile();
-
-                    if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
+                if (board.isTileOccupied(candidateDestinationCoordinate)) {
+                    if (PieceUtils.getAlliance(board.getPieceCode(candidateDestinationCoordinate)) != this.pieceAlliance) {
+                        final Piece pieceOnCandidate = board.getPiece(candidateDestinationCoordinate);
                         if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                            legalMoves.add(new Move.PawnPromotion(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate), null));
+                            addPromotions(legalMoves, new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
                         } else {
                             legalMoves.add(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
                         }
@@ -79,12 +78,11 @@ public class Pawn extends Piece {
             } else if (currentCandidateOffset == 9 &&
                     !((BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()) ||
                             (BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()))) {
-                if (board.getTileAtCoordinate(candidateDestinationCoordinate).isTileOccupied()) {
-                    final Piece pieceOnCandidate = board.getTileAtCoordinate(candidateDestinationCoordinate).getPieceOnTile();
-
-                    if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
+                if (board.isTileOccupied(candidateDestinationCoordinate)) {
+                    if (PieceUtils.getAlliance(board.getPieceCode(candidateDestinationCoordinate)) != this.pieceAlliance) {
+                        final Piece pieceOnCandidate = board.getPiece(candidateDestinationCoordinate);
                         if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                            legalMoves.add(new Move.PawnPromotion(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate), null));
+                            addPromotions(legalMoves, new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
                         } else {
                             legalMoves.add(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
                         }
@@ -118,8 +116,17 @@ public class Pawn extends Piece {
         return this.pieceAlliance.pawnBonus(this.piecePosition);
     }
 
-    public Piece getPromotionPiece() {
-        // TODO - make it possible to promote to something else, not just queen
-        return new Queen(this.pieceAlliance, this.piecePosition, false);
+    /**
+     * Adds a promotion to every piece the pawn can become. The queen comes first, so that a move looked up
+     * by its coordinates alone, see {@link Move.MoveFactory}, promotes to a queen.
+     *
+     * @param legalMoves The moves of the pawn.
+     * @param pawnMove   The move or capture that takes the pawn to the last rank.
+     */
+    private void addPromotions(final List<Move> legalMoves, final Move pawnMove) {
+        legalMoves.add(new Move.PawnPromotion(pawnMove, new Queen(this.pieceAlliance, this.piecePosition, false)));
+        legalMoves.add(new Move.PawnPromotion(pawnMove, new Rook(this.pieceAlliance, this.piecePosition, false)));
+        legalMoves.add(new Move.PawnPromotion(pawnMove, new Bishop(this.pieceAlliance, this.piecePosition, false)));
+        legalMoves.add(new Move.PawnPromotion(pawnMove, new Knight(this.pieceAlliance, this.piecePosition, false)));
     }
 }
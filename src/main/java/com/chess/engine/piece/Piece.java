@@ -3,9 +3,12 @@ package com.chess.engine.piece;
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
 import lombok.Getter;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * The abstract class representing a chess piece.
@@ -64,6 +67,28 @@ public abstract class Piece {
 
     public abstract Collection<Move> calculateLegalMoves(final Board board);
 
+    /**
+     * Creates the moves of a sliding piece to the tiles it attacks, skipping tiles occupied by allied pieces.
+     *
+     * @param board   The board on which the piece is placed.
+     * @param attacks The bitboard of the tiles attacked by the piece.
+     * @return A collection of the moves to the attacked tiles.
+     */
+    protected Collection<Move> calculateSlidingMoves(final Board board, long attacks) {
+        final List<Move> legalMoves = new ArrayList<>();
+        for (; attacks != 0; attacks &= attacks - 1) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(attacks);
+            final int pieceCode = board.getPieceCode(candidateDestinationCoordinate);
+            if (pieceCode == PieceUtils.EMPTY) {
+                legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
+            } else if (this.pieceAlliance != PieceUtils.getAlliance(pieceCode)) {
+                legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate,
+                        board.getPiece(candidateDestinationCoordinate)));
+            }
+        }
+        return ImmutableList.copyOf(legalMoves);
+    }
+
     public abstract Piece movePiece(Move move);
 
     public boolean isFirstMove() {
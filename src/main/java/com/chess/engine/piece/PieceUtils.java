@@ -0,0 +1,125 @@
+/**
+ * The {@code PieceUtils} class provides a compact integer encoding for chess pieces.
+ * A piece code stores the piece type in its lowest three bits and the alliance in the fourth bit,
+ * which lets mutable boards keep a primitive mailbox instead of {@link Piece} objects.
+ */
+
+package com.chess.engine.piece;
+
+import com.chess.engine.Alliance;
+
+public class PieceUtils {
+    public static final int EMPTY = 0;
+    public static final int PAWN = 1;
+    public static final int KNIGHT = 2;
+    public static final int BISHOP = 3;
+    public static final int ROOK = 4;
+    public static final int QUEEN = 5;
+    public static final int KING = 6;
+
+    public static final int WHITE_FLAG = 0;
+    public static final int BLACK_FLAG = 8;
+    public static final int TYPE_MASK = 7;
+
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
+
+    /**
+     * Prevents instantiation of the {@code PieceUtils} class.
+     */
+    private PieceUtils() {
+        throw new RuntimeException("Not instantiable.");
+    }
+
+    /**
+     * Encodes a piece type and alliance into a piece code.
+     *
+     * @param pieceType The type of the piece.
+     * @param alliance  The alliance of the piece.
+     * @return The piece code.
+     */
+    public static int encode(final Piece.PieceType pieceType, final Alliance alliance) {
+        return (pieceType.ordinal() + 1) | (alliance.isBlack() ? BLACK_FLAG : WHITE_FLAG);
+    }
+
+    /**
+     * Encodes a piece into a piece code.
+     *
+     * @param piece The piece to encode, may be null.
+     * @return The piece code, or {@link #EMPTY} if the piece is null.
+     */
+    public static int encode(final Piece piece) {
+        return piece == null ? EMPTY : encode(piece.getPieceType(), piece.getPieceAlliance());
+    }
+
+    /**
+     * Retrieves the type code (one of {@link #PAWN} ... {@link #KING}) of a piece code.
+     *
+     * @param pieceCode The piece code.
+     * @return The type code of the piece.
+     */
+    public static int typeOf(final int pieceCode) {
+        return pieceCode & TYPE_MASK;
+    }
+
+    public static Piece.PieceType getPieceType(final int pieceCode) {
+        return PIECE_TYPES[typeOf(pieceCode) - 1];
+    }
+
+    public static Alliance getAlliance(final int pieceCode) {
+        return (pieceCode & BLACK_FLAG) != 0 ? Alliance.BLACK : Alliance.WHITE;
+    }
+
+    public static boolean isWhite(final int pieceCode) {
+        return pieceCode != EMPTY && (pieceCode & BLACK_FLAG) == 0;
+    }
+
+    public static boolean isBlack(final int pieceCode) {
+        return (pieceCode & BLACK_FLAG) != 0;
+    }
+
+    /**
+     * Retrieves the material value of a piece code, as defined by {@link Piece.PieceType}.
+     *
+     * @param pieceCode The piece code.
+     * @return The value of the piece, or 0 for an empty square.
+     */
+    public static int getPieceValue(final int pieceCode) {
+        return pieceCode == EMPTY ? 0 : getPieceType(pieceCode).getPieceValue();
+    }
+
+    /**
+     * Creates a {@link Piece} object from a piece code.
+     * Kings created this way have no castling capabilities; callers needing them should build the king directly.
+     *
+     * @param pieceCode     The piece code.
+     * @param piecePosition The position of the new piece.
+     * @param isFirstMove   Whether the piece has not moved yet.
+     * @return The created piece.
+     */
+    public static Piece createPiece(final int pieceCode, final int piecePosition, final boolean isFirstMove) {
+        final Alliance alliance = getAlliance(pieceCode);
+        return switch (typeOf(pieceCode)) {
+            case PAWN -> new Pawn(alliance, piecePosition, isFirstMove);
+            case KNIGHT -> new Knight(alliance, piecePosition, isFirstMove);
+            case BISHOP -> new Bishop(alliance, piecePosition, isFirstMove);
+            case ROOK -> new Rook(alliance, piecePosition, isFirstMove);
+            case QUEEN -> new Queen(alliance, piecePosition, isFirstMove);
+            case KING -> new King(alliance, piecePosition, isFirstMove, false, false, false);
+            default -> throw new RuntimeException("Invalid piece code " + pieceCode);
+        };
+    }
+
+    /**
+     * Retrieves the one-letter representation of a piece code, upper case for white and lower case for black.
+     *
+     * @param pieceCode The piece code.
+     * @return The piece letter, or "-" for an empty square.
+     */
+    public static String toString(final int pieceCode) {
+        if (pieceCode == EMPTY) {
+            return "-";
+        }
+        final String name = getPieceType(pieceCode).toString();
+        return isBlack(pieceCode) ? name.toLowerCase() : name;
+    }
+}
@@ -6,27 +6,14 @@
 
 package com.chess.engine.piece;
 
+import com.bitboards.BitBoardUtils;
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.MoveUtils.Line;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 
-import java.util.*;
+import java.util.Collection;
 
 public class Queen extends Piece {
-    /**
-     * The candidate move vector coordinates for a queen piece.
-     */
-    private final static int[] CANDIDATE_MOVES_VECTOR_COORDINATES = {-9, -8, -7, -1, 1, 7, 8, 9};
-
-    /**
-     * The pre-computed legal moves for each tile coordinate on a chessboard for a queen piece.
-     */
-    private final static Map<Integer, Line[]> PRECOMPUTED_LEGAL_MOVES = computeLegalMoves();
-
     /**
      * Constructor for the Queen class.
      *
@@ -48,50 +35,6 @@ public class Queen extends Piece {
         super(piecePosition, pieceAlliance, PieceType.QUEEN, isFirstMove);
     }
 
-    /**
-     * Helper method to check if the queen is in the first or eighth column and the destination offset vector is invalid.
-     *
-     * @param currentPosition The current position of the queen.
-     * @param candidateOffset The destination offset vector.
-     * @return {@code true} if the queen is in the first or eighth column and the destination offset vector is invalid.
-     */
-    private static boolean isFirstOrEighthColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && (candidateOffset == -9 || candidateOffset == -1 || candidateOffset == 7) ||
-                BoardUtils.EIGHTH_COLUMN[currentPosition] && (candidateOffset == -7 || candidateOffset == 1 || candidateOffset == 9);
-    }
-
-    /**
-     * Initializes and returns a mapping of tile coordinates to legal moves for the queen.
-     *
-     * @return An immutable mapping of tile coordinates to legal moves for the queen.
-     */
-    private static Map<Integer, Line[]> computeLegalMoves() {
-        Map<Integer, Line[]> legalMoves = new HashMap<>();
-        for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
-            List<Line> lines = new ArrayList<>();
-            for (int offset : CANDIDATE_MOVES_VECTOR_COORDINATES) {
-                Line line = new Line();
-                int destination = position;
-                while (BoardUtils.isValidCoordinate(destination)) {
-                    if (isFirstOrEighthColumnExclusion(destination, offset)) {
-                        break;
-                    }
-                    destination += offset;
-                    if (BoardUtils.isValidCoordinate(destination)) {
-                        line.addCoordinate(destination);
-                    }
-                }
-                if (!line.isEmpty()) {
-                    lines.add(line);
-                }
-            }
-            if (!lines.isEmpty()) {
-                legalMoves.put(position, lines.toArray(new Line[0]));
-            }
-        }
-        return ImmutableMap.copyOf(legalMoves);
-    }
-
     /**
      * Calculates the legal moves for the queen on the board.
      *
@@ -100,22 +43,7 @@ public class Queen extends Piece {
      */
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-        for (final Line line : PRECOMPUTED_LEGAL_MOVES.get(this.piecePosition)) {
-            for (final int candidateDestinationCoordinate : line.getLineCoordinates()) {
-                final Piece pieceAtDestination = board.getPiece(candidateDestinationCoordinate);
-                if (pieceAtDestination == null) {
-                    legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-                } else {
-                    if (this.pieceAlliance != pieceAtDestination.getPieceAlliance()) {
-                        legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate,
-                                pieceAtDestination));
-                    }
-                    break;
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
+        return calculateSlidingMoves(board, BitBoardUtils.queenAttacks(this.piecePosition, board.getOccupancy()));
     }
 
     /**
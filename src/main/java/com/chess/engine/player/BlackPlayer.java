@@ -3,7 +3,6 @@ package com.chess.engine.player;
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import com.chess.engine.piece.Piece;
 import com.chess.engine.piece.Rook;
 import com.google.common.collect.ImmutableList;
@@ -13,8 +12,8 @@ import java.util.Collection;
 import java.util.List;
 
 public class BlackPlayer extends Player {
-    public BlackPlayer(final Board board, final Collection<Move> whiteStandardMoves, final Collection<Move> blackStandardMoves) {
-        super(board, blackStandardMoves, whiteStandardMoves);
+    public BlackPlayer(final Board board) {
+        super(board);
     }
 
     @Override
@@ -27,44 +26,49 @@ public class BlackPlayer extends Player {
         return Alliance.BLACK;
     }
 
+    @Override
+    public Collection<Move> getStandardMoves() {
+        return this.board.getBlackStandardMoves();
+    }
+
     @Override
     public Player getOpponent() {
         return this.board.getWhitePlayer();
     }
 
     @Override
-    public Collection<Move> calculateKingCastles(final Collection<Move> playerLegals, final Collection<Move> opponentsLegals) {
+    public Collection<Move> calculateKingCastles() {
         final List<Move> kingCastles = new ArrayList<>();
 
         if (this.playerKing.isFirstMove() && !this.isInCheck()) {
             // black king side castle
             // check if the tiles between king and rook are empty
-            if (!this.board.getTileAtCoordinate(5).isTileOccupied() && !this.board.getTileAtCoordinate(6).isTileOccupied()) {
+            if (!this.board.isTileOccupied(5) && !this.board.isTileOccupied(6)) {
                 // check if rook tile is occupied by a rook who hasn't made it's first move yet
-                final Tile rookTile = this.board.getTileAtCoordinate(7);
-                if (rookTile.isTileOccupied() && rookTile.getPieceOnTile().isFirstMove() && rookTile.getPieceOnTile().getPieceType().isRook()) {
+                final Piece rook = this.board.getPiece(7);
+                if (rook != null && rook.isFirstMove() && rook.getPieceType().isRook()) {
                     // check if tiles between them are not attacked
-                    if (Player.calculateAttacksOnTile(5, opponentsLegals).isEmpty() &&
-                            Player.calculateAttacksOnTile(6, opponentsLegals).isEmpty()) {
+                    if (!this.board.isSquareAttacked(5, Alliance.WHITE) &&
+                            !this.board.isSquareAttacked(6, Alliance.WHITE)) {
                         kingCastles.add(new Move.KingSideCastleMove(this.board, this.playerKing, 6,
-                                (Rook) rookTile.getPieceOnTile(), rookTile.getTileCoordinate(), 5));
+                                (Rook) rook, rook.getPiecePosition(), 5));
                     }
                 }
             }
 
             // black queen side castle
             // check if the tiles between king and rook are empty
-            if (!this.board.getTileAtCoordinate(1).isTileOccupied() && !this.board.getTileAtCoordinate(2).isTileOccupied() &&
-                    !this.board.getTileAtCoordinate(3).isTileOccupied()) {
+            if (!this.board.isTileOccupied(1) && !this.board.isTileOccupied(2) &&
+                    !this.board.isTileOccupied(3)) {
                 // check if rook tile is occupied by a rook who hasn't made it's first move yet
-                final Tile rookTile = this.board.getTileAtCoordinate(0);
-                if (rookTile.isTileOccupied() && rookTile.getPieceOnTile().isFirstMove() && rookTile.getPieceOnTile().getPieceType().isRook()) {
+                final Piece rook = this.board.getPiece(0);
+                if (rook != null && rook.isFirstMove() && rook.getPieceType().isRook()) {
                     // check if tiles between them are not attacked
-                    if (Player.calculateAttacksOnTile(1, opponentsLegals).isEmpty() &&
-                            Player.calculateAttacksOnTile(2, opponentsLegals).isEmpty() &&
-                            Player.calculateAttacksOnTile(3, opponentsLegals).isEmpty()) {
+                    // the tile next to the rook only has to be empty, the king does not cross it
+                    if (!this.board.isSquareAttacked(1, Alliance.WHITE) &&
+                            !this.board.isSquareAttacked(2, Alliance.WHITE)) {
                         kingCastles.add(new Move.QueenSideCastleMove(this.board, this.playerKing, 2,
-                                (Rook) rookTile.getPieceOnTile(), rookTile.getTileCoordinate(), 3));
+                                (Rook) rook, rook.getPiecePosition(), 3));
                     }
                 }
             }
@@ -1,8 +1,10 @@
 package com.chess.engine.player;
 
+import com.bitboards.LegalMoveMasks;
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveUtils;
 import com.chess.engine.piece.King;
 import com.chess.engine.piece.Piece;
 import com.google.common.collect.ImmutableList;
@@ -17,27 +19,13 @@ public abstract class Player {
     protected final Board board;
     @Getter
     protected final King playerKing;
-    @Getter
-    protected final Collection<Move> legalMoves;
-    private final boolean isInCheck;
+    // calculated on first access, a board that is only evaluated or rejected never pays for them
+    private LegalMoveMasks legalMoveMasks;
+    private Collection<Move> legalMoves;
 
-    Player(final Board board, final Collection<Move> legalMoves, final Collection<Move> opponentMoves) {
+    Player(final Board board) {
         this.board = board;
         this.playerKing = establishKing();
-        this.legalMoves = (Collection<Move>) Iterables.concat(legalMoves, calculateKingCastles(legalMoves, opponentMoves));
-        this.isInCheck = !Player.calculateAttacksOnTile(this.playerKing.getPiecePosition(), opponentMoves).isEmpty();
-    }
-
-    protected static Collection<Move> calculateAttacksOnTile(int piecePosition, Collection<Move> moves) {
-        final List<Move> attackMoves = new ArrayList<>();
-        // check every potential move from the opponent
-        // if the destination is the same as the players piece => the move is an attack
-        for (final Move move : moves) {
-            if (piecePosition == move.getDestinationCoordinate()) {
-                attackMoves.add(move);
-            }
-        }
-        return ImmutableList.copyOf(attackMoves);
     }
 
     // check is there is a king on the current board and returns him
@@ -50,20 +38,58 @@ public abstract class Player {
         throw new RuntimeException("Not a valid board, king is missing!");
     }
 
+    /**
+     * Retrieves the pins, checks and check mask of the player, calculated on first access.
+     *
+     * @return The legal move masks of the player.
+     */
+    private LegalMoveMasks getLegalMoveMasks() {
+        LegalMoveMasks masks = this.legalMoveMasks;
+        if (masks == null) {
+            masks = this.board.calculateLegalMoveMasks(getAlliance());
+            this.legalMoveMasks = masks;
+        }
+        return masks;
+    }
+
+    /**
+     * Retrieves the legal moves of the player: the standard moves of his pieces that do not leave his king in check,
+     * found with the pins and checks of {@link LegalMoveMasks} without executing them, and the castle moves.
+     * The moves are calculated on first access and memoized.
+     *
+     * @return A collection of the legal moves of the player.
+     */
+    public Collection<Move> getLegalMoves() {
+        Collection<Move> moves = this.legalMoves;
+        if (moves == null) {
+            final LegalMoveMasks masks = getLegalMoveMasks();
+            final Collection<Move> standardMoves = getStandardMoves();
+            final List<Move> legalStandardMoves = new ArrayList<>(standardMoves.size());
+            for (final Move move : standardMoves) {
+                if (masks.isLegal(MoveUtils.encodeMove(move))) {
+                    legalStandardMoves.add(move);
+                }
+            }
+            moves = ImmutableList.copyOf(Iterables.concat(legalStandardMoves, calculateKingCastles()));
+            this.legalMoves = moves;
+        }
+        return moves;
+    }
+
     public boolean isMoveLegal(final Move move) {
-        return this.legalMoves.contains(move);
+        return getLegalMoves().contains(move);
     }
 
     public boolean isInCheck() {
-        return this.isInCheck;
+        return getLegalMoveMasks().isInCheck();
     }
 
     public boolean isInCheckMate() {
-        return this.isInCheck && !hasEscapeMoves();
+        return isInCheck() && !hasEscapeMoves();
     }
 
     public boolean isInStalemate() {
-        return !this.isInCheck && !hasEscapeMoves();
+        return !isInCheck() && !hasEscapeMoves();
     }
 
     public boolean isKingSideCastleCapable() {
@@ -79,34 +105,21 @@ public abstract class Player {
     }
 
     protected boolean hasEscapeMoves() {
-        // goes through every possible playerMove and makes them on an imaginary board
-        // after a move is made, it checks if the move is possible (doesn't result in check)
-        for (final Move move : this.legalMoves) {
-            final MoveTransition transition = makeMove(move);
-            if (transition.getMoveStatus().isDone()) {
-                return true;
-            }
-        }
-        return false;
+        // the legal moves contain no move that leaves the king in check
+        return !getLegalMoves().isEmpty();
     }
 
     public MoveTransition makeMove(final Move move) {
         // return the same board if move is illegal
         if (!isMoveLegal(move)) {
-            return new MoveTransition(this.board, this.board, move, MoveStatus.ILLEGAL_MOVE);
+            // a move the pieces could make, but that exposes the king
+            final MoveStatus moveStatus = getStandardMoves().contains(move) ?
+                    MoveStatus.LEAVES_PLAYER_IN_CHECK : MoveStatus.ILLEGAL_MOVE;
+            return new MoveTransition(this.board, this.board, move, moveStatus);
         }
 
         // create a new board with the new move (and switch the current player)
         final Board transitionBoard = move.execute();
-        // check if there are any attacks on the current players king if the move is made
-        // the current player changes after we execute the move => we need to check the opponents king
-
-        // return the same board if there are attacks
-        if (transitionBoard.getCurrentPlayer().getOpponent().isInCheck()) {
-            return new MoveTransition(this.board, this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
-        }
-
-        // move is legal => return a new MoveTransition with the made move
         return new MoveTransition(this.board, transitionBoard, move, MoveStatus.DONE);
     }
 
@@ -118,7 +131,20 @@ public abstract class Player {
 
     public abstract Alliance getAlliance();
 
+    /**
+     * Retrieves the standard moves of the player's pieces, without castle moves.
+     *
+     * @return A collection of the standard moves of the player.
+     */
+    public abstract Collection<Move> getStandardMoves();
+
     public abstract Player getOpponent();
 
-    public abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals, Collection<Move> opponentsLegals);
+    /**
+     * Calculates the castle moves of the player. The king may not be in check, and the tiles it passes
+     * may not be attacked by the opponent.
+     *
+     * @return A collection of the castle moves of the player.
+     */
+    public abstract Collection<Move> calculateKingCastles();
 }
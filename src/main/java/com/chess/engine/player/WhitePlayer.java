@@ -3,7 +3,6 @@ package com.chess.engine.player;
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import com.chess.engine.piece.Piece;
 import com.chess.engine.piece.Rook;
 import com.google.common.collect.ImmutableList;
@@ -13,8 +12,8 @@ import java.util.Collection;
 import java.util.List;
 
 public class WhitePlayer extends Player {
-    public WhitePlayer(final Board board, final Collection<Move> whiteStandardMoves, final Collection<Move> blackStandardMoves) {
-        super(board, whiteStandardMoves, blackStandardMoves);
+    public WhitePlayer(final Board board) {
+        super(board);
     }
 
     @Override
@@ -27,44 +26,49 @@ public class WhitePlayer extends Player {
         return Alliance.WHITE;
     }
 
+    @Override
+    public Collection<Move> getStandardMoves() {
+        return this.board.getWhiteStandardMoves();
+    }
+
     @Override
     public Player getOpponent() {
         return this.board.getBlackPlayer();
     }
 
     @Override
-    public Collection<Move> calculateKingCastles(final Collection<Move> playerLegals, final Collection<Move> opponentsLegals) {
+    public Collection<Move> calculateKingCastles() {
         final List<Move> kingCastles = new ArrayList<>();
 
         if (this.playerKing.isFirstMove() && !this.isInCheck()) {
             // whites king side castle
             // check if the tiles between king and rook are empty
-            if (!this.board.getTileAtCoordinate(61).isTileOccupied() && !this.board.getTileAtCoordinate(62).isTileOccupied()) {
+            if (!this.board.isTileOccupied(61) && !this.board.isTileOccupied(62)) {
                 // check if rook tile is occupied by a rook who hasn't made it's first move yet
-                final Tile rookTile = this.board.getTileAtCoordinate(63);
-                if (rookTile.isTileOccupied() && rookTile.getPieceOnTile().isFirstMove() && rookTile.getPieceOnTile().getPieceType().isRook()) {
+                final Piece rook = this.board.getPiece(63);
+                if (rook != null && rook.isFirstMove() && rook.getPieceType().isRook()) {
                     // check if tiles between them are not attacked
-                    if (Player.calculateAttacksOnTile(61, opponentsLegals).isEmpty() &&
-                            Player.calculateAttacksOnTile(62, opponentsLegals).isEmpty()) {
+                    if (!this.board.isSquareAttacked(61, Alliance.BLACK) &&
+                            !this.board.isSquareAttacked(62, Alliance.BLACK)) {
                         kingCastles.add(new Move.KingSideCastleMove(this.board, this.playerKing, 62,
-                                (Rook) rookTile.getPieceOnTile(), rookTile.getTileCoordinate(), 61));
+                                (Rook) rook, rook.getPiecePosition(), 61));
                     }
                 }
             }
 
             // white queen side castle
             // check if the tiles between king and rook are empty
-            if (!this.board.getTileAtCoordinate(59).isTileOccupied() && !this.board.getTileAtCoordinate(58).isTileOccupied() &&
-                    !this.board.getTileAtCoordinate(57).isTileOccupied()) {
+            if (!this.board.isTileOccupied(59) && !this.board.isTileOccupied(58) &&
+                    !this.board.isTileOccupied(57)) {
                 // check if rook tile is occupied by a rook who hasn't made it's first move yet
-                final Tile rookTile = this.board.getTileAtCoordinate(56);
-                if (rookTile.isTileOccupied() && rookTile.getPieceOnTile().isFirstMove() && rookTile.getPieceOnTile().getPieceType().isRook()) {
+                final Piece rook = this.board.getPiece(56);
+                if (rook != null && rook.isFirstMove() && rook.getPieceType().isRook()) {
                     // check if tiles between them are not attacked
-                    if (Player.calculateAttacksOnTile(59, opponentsLegals).isEmpty() &&
-                            Player.calculateAttacksOnTile(58, opponentsLegals).isEmpty() &&
-                            Player.calculateAttacksOnTile(57, opponentsLegals).isEmpty()) {
+                    // the tile next to the rook only has to be empty, the king does not cross it
+                    if (!this.board.isSquareAttacked(59, Alliance.BLACK) &&
+                            !this.board.isSquareAttacked(58, Alliance.BLACK)) {
                         kingCastles.add(new Move.QueenSideCastleMove(this.board, this.playerKing, 58,
-                                (Rook) rookTile.getPieceOnTile(), rookTile.getTileCoordinate(), 59));
+                                (Rook) rook, rook.getPiecePosition(), 59));
                     }
                 }
             }
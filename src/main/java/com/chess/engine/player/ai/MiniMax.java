@@ -3,28 +3,272 @@ package com.chess.engine.player.ai;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveBuffer;
 import com.chess.engine.board.MoveUtils;
-import com.chess.engine.piece.Piece;
-import com.chess.engine.player.MoveTransition;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.piece.PieceUtils;
+import lombok.Getter;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MiniMax implements MoveStrategy {
+    /**
+     * The number of positions between two looks at the clock and the stop flag, minus one.
+     */
+    private static final int POLL_MASK = 1023;
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    /**
+     * A bound beyond every score. Unlike {@link Integer#MIN_VALUE}, it can be negated safely.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int DRAW_SCORE = 0;
+    /**
+     * The score of a checkmate at the root. A checkmate further from the root scores one less per ply,
+     * so that the search prefers the fastest mate and the slowest defeat.
+     */
+    private static final int MATE_SCORE = 100_000_000;
+    /**
+     * The smallest score of a checkmate within the search.
+     */
+    private static final int MATE_THRESHOLD = MATE_SCORE - MoveBuffer.MAX_PLY;
+    /**
+     * The margin on top of the captured material for the positional gain of a capture, used by delta pruning.
+     */
+    private static final int DELTA_MARGIN = 200;
+    /**
+     * The least remaining depth at which a null move is tried, and the depth from which it is reduced by 3 plies
+     * instead of 2.
+     */
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_DEEP_DEPTH = 7;
+    /**
+     * The least remaining depth at which late moves are reduced, and the number of moves searched in full before.
+     */
+    private static final int LATE_MOVE_MIN_DEPTH = 3;
+    private static final int LATE_MOVE_MIN_COUNT = 4;
+    /**
+     * The first iteration searched with an aspiration window. The scores of the shallower ones swing too much.
+     */
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    /**
+     * The first iteration whose root moves are split among threads. The shallower ones are over too quickly.
+     */
+    private static final int ROOT_SPLIT_MIN_DEPTH = 3;
+    /**
+     * The least remaining depth at which the move of the transposition table is tested for a singular extension,
+     * how much shallower the stored entry may be, and the margin below its score per ply of depth.
+     */
+    private static final int SINGULAR_MIN_DEPTH = 6;
+    private static final int SINGULAR_TABLE_DEPTH_MARGIN = 3;
+    private static final int SINGULAR_MARGIN = 4;
 
     private final BoardEvaluator boardEvaluator;
-    private final int searchDepth;
+    private final MutableBoard.Backend backend;
+    private final TranspositionTable transpositionTable;
+    private final SearchLimits searchLimits;
+    private final SearchOptions searchOptions;
+    private final MoveBuffer moveBuffer;
+    private final MovePicker[] movePickers;
+    /**
+     * The two most recent quiet moves that caused a cutoff at every ply, tried right after the good captures.
+     */
+    private final int[][] killerMoves;
+    private final MoveHistory moveHistory;
+    /**
+     * The quiet moves searched at every ply before the current one, punished in the history if another quiet move
+     * causes the cutoff.
+     */
+    private final int[][] triedQuietMoves;
+    /**
+     * The triangular PV table: row {@code ply} holds the best line from the node at that ply in the entries
+     * {@code ply} to {@code pvLength[ply] - 1}.
+     */
+    private final int[][] pvTable;
+    private final int[] pvLength;
+    /**
+     * The plies the extensions added along the line to every ply, and the move a singular extension test skips
+     * at every ply, see {@link #search}.
+     */
+    private final int[] extensionsOnPath;
+    private final int[] singularExcludedMoves;
+    private int iterationDepth;
+    private int[] principalVariation;
+    private final int maxDepth;
     private int positionsEvaluated;
+    /**
+     * The number of quiescence nodes of the last search, counted apart from the positions of the main search.
+     */
+    @Getter
+    private int quiescenceNodes;
+    /**
+     * The number of aspiration windows of the last search that the score fell below or rose above.
+     */
+    @Getter
+    private int aspirationFailLows;
+    @Getter
+    private int aspirationFailHighs;
+    /**
+     * The number of moves the last search extended.
+     */
+    @Getter
+    private int extensions;
+    /**
+     * The time at which the search is cut off, and the time after which no new iteration is started.
+     * Both are written by another thread on a ponder hit, see {@link #ponderHit()}.
+     */
+    private volatile long deadline;
+    private volatile long iterationDeadline;
+    private long timeBudget;
+    private int rootScore;
+    /**
+     * The scores of the lines of the previous iteration, and the root moves of the lines already found
+     * in the current one, which the root skips. See {@link #analyze(Board, int)}.
+     */
+    private int[] lineScores;
+    private int[] excludedRootMoves;
+    private int excludedCount;
+    @Getter
+    private int completedDepth;
+    /**
+     * Set when the search runs out of time or is stopped with {@link #stop()}. Every node returns right away
+     * once it is set, and nothing found after it is stored. Only the searching thread writes it.
+     */
+    private boolean aborted;
+    /**
+     * Set by {@link #stop()} from another thread. The search polls it along with the clock, so that the hot path
+     * does not read a volatile field at every node.
+     */
+    private volatile boolean stopRequested;
+    /**
+     * Set while the search runs on the time of the opponent, see {@link #ponder(Board)}, and by a ponder hit.
+     * Both are only changed under the lock of this strategy.
+     */
+    private boolean pondering;
+    private boolean ponderHitReceived;
+    /**
+     * The reply the opponent is expected to play to the move of the last search.
+     */
+    @Getter
+    private int ponderMove;
+    /**
+     * The strategies searching along with this one in a parallel search, one per helper thread.
+     */
+    private MiniMax[] helpers;
+    /**
+     * The state of a root-split search: the pool running the root moves, the strategies searching them,
+     * one per thread, with the board each of them keeps at the root, and the best root move found so far.
+     * The shared alpha is read without locking, the best move is only written under the lock of this strategy.
+     * The pool may run more tasks at once than it has threads, when a joining thread is compensated with a new one,
+     * so a task waits for a worker to become idle instead of assuming that one is.
+     */
+    private ForkJoinPool rootPool;
+    private MiniMax[] rootWorkers;
+    private final BlockingQueue<MiniMax> idleRootWorkers;
+    private MutableBoard workerBoard;
+    private final AtomicInteger sharedAlpha;
+    private int splitBestScore;
+    private int splitBestMove;
 
     public MiniMax(int searchDepth) {
-        this.boardEvaluator = new StandardBoardEvaluator();
-        this.searchDepth = searchDepth;
-        this.positionsEvaluated = 0;
+        this(searchDepth, MutableBoard.Backend.BITBOARD);
+    }
+
+    /**
+     * Constructs a {@code MiniMax} strategy searching on the given board backend,
+     * with a transposition table of {@link TranspositionTable#DEFAULT_SIZE_MB} megabytes of its own.
+     *
+     * @param searchDepth The depth of the search.
+     * @param backend     The {@link MutableBoard} implementation the search runs on.
+     */
+    public MiniMax(int searchDepth, final MutableBoard.Backend backend) {
+        this(searchDepth, backend, new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+    }
+
+    /**
+     * Constructs a {@code MiniMax} strategy using the given transposition table. Passing the same table to the
+     * strategies of consecutive moves lets every search reuse the results of the previous ones.
+     *
+     * @param searchDepth        The depth of the search.
+     * @param backend            The {@link MutableBoard} implementation the search runs on.
+     * @param transpositionTable The table storing the results of searched positions.
+     */
+    public MiniMax(int searchDepth, final MutableBoard.Backend backend, final TranspositionTable transpositionTable) {
+        this(SearchLimits.ofDepth(searchDepth), backend, transpositionTable);
     }
 
-    private static boolean isEndgameScenario(final Board board) {
-        return board.getCurrentPlayer().isInCheckMate() || board.getCurrentPlayer().isInStalemate();
+    /**
+     * Constructs a {@code MiniMax} strategy that searches until one of the given limits is reached.
+     *
+     * @param searchLimits       The depth and time limits of every search.
+     * @param backend            The {@link MutableBoard} implementation the search runs on.
+     * @param transpositionTable The table storing the results of searched positions.
+     */
+    public MiniMax(final SearchLimits searchLimits, final MutableBoard.Backend backend,
+                   final TranspositionTable transpositionTable) {
+        this(searchLimits, SearchOptions.DEFAULT, backend, transpositionTable);
+    }
+
+    /**
+     * Constructs a {@code MiniMax} strategy that searches until one of the given limits is reached,
+     * using only the selective techniques enabled in the options.
+     *
+     * @param searchLimits       The depth and time limits of every search.
+     * @param searchOptions      The selective techniques of the search.
+     * @param backend            The {@link MutableBoard} implementation the search runs on.
+     * @param transpositionTable The table storing the results of searched positions.
+     */
+    public MiniMax(final SearchLimits searchLimits, final SearchOptions searchOptions,
+                   final MutableBoard.Backend backend, final TranspositionTable transpositionTable) {
+        this(searchLimits, searchOptions, backend, transpositionTable, new MoveHistory());
+    }
+
+    /**
+     * Constructs a {@code MiniMax} strategy using the given move history. Passing the same history to the strategies
+     * of consecutive moves lets every search start with the move ordering learned by the previous ones, aged at the
+     * start of each search. The history is not synchronized, since a lost update only costs a little move ordering.
+     *
+     * @param searchLimits       The depth and time limits of every search.
+     * @param searchOptions      The selective techniques of the search.
+     * @param backend            The {@link MutableBoard} implementation the search runs on.
+     * @param transpositionTable The table storing the results of searched positions.
+     * @param moveHistory        The statistics ordering the quiet moves.
+     */
+    public MiniMax(final SearchLimits searchLimits, final SearchOptions searchOptions,
+                   final MutableBoard.Backend backend, final TranspositionTable transpositionTable,
+                   final MoveHistory moveHistory) {
+        this.boardEvaluator = new StandardBoardEvaluator();
+        this.backend = backend;
+        this.transpositionTable = transpositionTable;
+        this.searchLimits = searchLimits;
+        this.searchOptions = searchOptions;
+        this.maxDepth = searchLimits.getDepth();
+        // the quiescence search goes beyond the maximum depth, so every ply of the buffer is needed
+        this.moveBuffer = new MoveBuffer();
+        this.moveHistory = moveHistory;
+        this.movePickers = new MovePicker[MoveBuffer.MAX_PLY];
+        for (int ply = 0; ply < MoveBuffer.MAX_PLY; ply++) {
+            this.movePickers[ply] = new MovePicker(this.moveHistory);
+        }
+        this.killerMoves = new int[MoveBuffer.MAX_PLY][2];
+        this.triedQuietMoves = new int[MoveBuffer.MAX_PLY][MutableBoard.MAX_MOVES];
+        this.pvTable = new int[MoveBuffer.MAX_PLY][MoveBuffer.MAX_PLY];
+        this.pvLength = new int[MoveBuffer.MAX_PLY];
+        this.extensionsOnPath = new int[MoveBuffer.MAX_PLY];
+        this.singularExcludedMoves = new int[MoveBuffer.MAX_PLY];
+        this.principalVariation = new int[0];
+        this.positionsEvaluated = 0;
+        this.helpers = new MiniMax[0];
+        this.rootWorkers = new MiniMax[0];
+        this.idleRootWorkers = new LinkedBlockingQueue<>();
+        this.sharedAlpha = new AtomicInteger();
     }
 
     @Override
@@ -32,118 +276,996 @@ public class MiniMax implements MoveStrategy {
         return "MiniMax";
     }
 
+    /**
+     * Searches the best move for the current player of the board.
+     * The search runs on a {@link MutableBoard} copy of the board created by the configured backend,
+     * making and unmaking moves in place. The moves of every ply are handed out by a {@link MovePicker},
+     * which generates them stage by stage into the preallocated arrays of a {@link MoveBuffer},
+     * indexed by the number of moves made since the root. Positions already stored in the transposition table
+     * with a sufficient depth are not searched again, and the stored best move is tried first otherwise.
+     * At the horizon, a quiescence search plays out the pending captures before a position is evaluated.
+     * <p>
+     * The search deepens iteratively: depth 1, 2, 3 and so on, until the maximum depth of the {@link SearchLimits}
+     * is done or the time budget runs out. An iteration that is cut off by the clock or by {@link #stop()} is thrown
+     * away, and the best move of the last completed one is returned. A new iteration is only started while less than
+     * half of the budget is spent, since it would hardly ever finish otherwise.
+     * <p>
+     * With more than one thread in the {@link SearchOptions}, the search runs as Lazy SMP: helper threads search
+     * the same position at the same time, and the only thing they share with this one is the transposition table.
+     * Their results reach this search as table entries, which cut off or order the moves of positions it has not
+     * searched yet. The helpers are stopped as soon as this search is done. In the root-split mode, the root moves
+     * of every iteration are split among the threads instead, see {@link #searchRootInParallel}.
+     *
+     * @param board The board to search.
+     * @return The best move found, or {@link MoveUtils#NULL_MOVE} if there is no legal move.
+     */
     @Override
     public Move execute(Board board) {
+        return toBestMove(think(board, false, 1));
+    }
+
+    /**
+     * Searches the best moves for the current player of the board like {@link #execute(Board)}, as MultiPV:
+     * every iteration searches the root once per line, excluding the root moves of the lines already found,
+     * so the lines share one search instead of costing one search each, see {@link #searchLines}.
+     * The results are those of the last completed iteration.
+     *
+     * @param board     The board to analyze.
+     * @param lineCount The number of best moves wanted.
+     * @return The results ranked best first.
+     * @throws IllegalArgumentException If the number of lines is not positive.
+     */
+    @Override
+    public List<SearchResult> analyze(final Board board, final int lineCount) {
+        if (lineCount <= 0) {
+            throw new IllegalArgumentException("The number of lines has to be positive!");
+        }
+        return think(board, false, lineCount);
+    }
+
+    private static Move toBestMove(final List<SearchResult> results) {
+        return results.isEmpty() ? MoveUtils.NULL_MOVE : results.get(0).getMove();
+    }
+
+    /**
+     * Searches the position the opponent is expected to reach with its next move, on the time of the opponent.
+     * The search runs like {@link #execute(Board)}, but without a time limit, and it does not return before
+     * {@link #ponderHit()} or {@link #stop()}, even once it reached the maximum depth.
+     * <p>
+     * If the opponent plays the expected move, {@link #ponderHit()} turns this search into the search of the reply:
+     * the iterations, killer moves and history gathered so far are kept, and the time budget starts at the hit.
+     * Otherwise the search is stopped and its move thrown away. What it stored in the transposition table
+     * belongs to real positions and stays useful either way.
+     *
+     * @param board The board after the expected move of the opponent.
+     * @return The best move found, or {@link MoveUtils#NULL_MOVE} if there is no legal move.
+     */
+    public Move ponder(final Board board) {
+        return toBestMove(think(board, true, 1));
+    }
+
+    /**
+     * Tells a running or starting {@link #ponder(Board)} that the opponent played the expected move.
+     * From now on the search is bounded by the time budget of its {@link SearchLimits}, counted from this call.
+     */
+    public void ponderHit() {
+        synchronized (this) {
+            this.ponderHitReceived = true;
+            if (this.pondering) {
+                this.pondering = false;
+                startClock(System.currentTimeMillis());
+                for (final MiniMax worker : this.rootWorkers) {
+                    worker.deadline = this.deadline;
+                }
+            }
+            notifyAll();
+        }
+    }
+
+    private List<SearchResult> think(final Board board, final boolean ponder, final int lineCount) {
         final long startTime = System.currentTimeMillis();
-        Move bestMove = MoveUtils.NULL_MOVE;
-        int highestSeenValue = Integer.MIN_VALUE;
-        int lowestSeenValue = Integer.MAX_VALUE;
-        int currentValue;
-
-        final int numLegalMoves = board.getCurrentPlayer().getLegalMoves().size();
-
-        System.out.println(board.getCurrentPlayer() + "Thinking with depth = " + this.searchDepth);
-
-        for (final Move move : sortLegalMoves(board.getCurrentPlayer().getLegalMoves())) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().makeMove(move);
-            if (moveTransition.getMoveStatus().isDone()) {
-                currentValue = board.getCurrentPlayer().getAlliance().isWhite() ?
-                        min(moveTransition.getToBoard(), this.searchDepth - 1, highestSeenValue, Integer.MAX_VALUE) :
-                        max(moveTransition.getToBoard(), this.searchDepth - 1, Integer.MIN_VALUE, lowestSeenValue);
-                if (board.getCurrentPlayer().getAlliance().isWhite() && currentValue >= highestSeenValue) {
-                    highestSeenValue = currentValue;
-                    bestMove = move;
-                } else if (board.getCurrentPlayer().getAlliance().isBlack() && currentValue <= lowestSeenValue) {
-                    lowestSeenValue = currentValue;
-                    bestMove = move;
+        final MutableBoard searchBoard = this.backend.create(board);
+        prepareSearch(NO_DEADLINE);
+        this.timeBudget = this.searchLimits.calculateTimeBudget(searchBoard.getSideToMove());
+        synchronized (this) {
+            // a ponder hit arriving before the search started makes it a normal search right away
+            this.pondering = ponder && !this.ponderHitReceived;
+            if (!this.pondering) {
+                startClock(startTime);
+            }
+        }
+        final int[] legalMoves = searchBoard.generateLegalMoves();
+        final int lines = Math.max(1, Math.min(lineCount, legalMoves.length));
+        this.lineScores = new int[lines];
+        this.excludedRootMoves = new int[lines];
+
+        System.out.println(board.getCurrentPlayer() + (this.pondering ? "Pondering" : "Thinking") +
+                " with depth = " + this.maxDepth +
+                (this.timeBudget == SearchLimits.NO_TIME_LIMIT ? "" : ", time = " + this.timeBudget + " ms") +
+                (this.searchOptions.getThreadCount() > 1 ? ", threads = " + this.searchOptions.getThreadCount() : "") +
+                (lines > 1 ? ", lines = " + lines : ""));
+        final boolean rootSplit = this.searchOptions.getThreadCount() > 1 &&
+                this.searchOptions.getParallelMode() == SearchOptions.ParallelMode.ROOT_SPLIT;
+        final Thread[] helperThreads = rootSplit ? new Thread[0] : startHelpers(board);
+        if (rootSplit) {
+            startRootWorkers(board);
+        }
+
+        List<SearchResult> results = new ArrayList<>();
+        for (int depth = 1; depth <= this.maxDepth; depth++) {
+            final List<SearchResult> iteration = searchLines(board, searchBoard, depth, lines, startTime);
+            if (this.aborted) {
+                // an unfinished iteration is only used if not even the first one finished
+                if (results.isEmpty()) {
+                    results = iteration.isEmpty() && legalMoves.length > 0 ?
+                            List.of(createFallbackResult(board, legalMoves[0], startTime)) : iteration;
                 }
+                break;
+            }
+            results = iteration;
+            this.completedDepth = depth;
+            for (int line = 0; line < results.size(); line++) {
+                final SearchResult result = results.get(line);
+                System.out.println("Depth " + depth + (lines > 1 ? ", line " + (line + 1) : "") +
+                        ": score: " + result.getScore() +
+                        ", positions evaluated: " + this.positionsEvaluated +
+                        ", quiescence nodes: " + this.quiescenceNodes +
+                        ", time: " + result.getTime() + " ms, pv: " +
+                        principalVariationToString(result.getPrincipalVariation()));
+            }
+            if (results.isEmpty() || System.currentTimeMillis() >= this.iterationDeadline) {
+                break;
             }
         }
+        awaitPonderEnd();
+
+        final long helperPositions = stopHelpers(helperThreads) + stopRootWorkers();
+        this.principalVariation = results.isEmpty() ? new int[0] : results.get(0).getPrincipalVariation();
+        this.ponderMove = findPonderMove(searchBoard, this.principalVariation);
+        // a stop or a ponder hit is kept until here, so that one arriving before the search started is not lost
+        synchronized (this) {
+            this.stopRequested = false;
+            this.pondering = false;
+            this.ponderHitReceived = false;
+        }
 
         final long executionTime = System.currentTimeMillis() - startTime;
         final double seconds = executionTime / 1000.0;
-        final double rate = (seconds > 0) ? (numLegalMoves / seconds) : 0;
+        final double rate = (seconds > 0) ? (legalMoves.length / seconds) : 0;
 
-        System.out.println("Execution time: " + String.format("%.2f", seconds) + " s, legal moves: " + numLegalMoves +
+        System.out.println("Execution time: " + String.format("%.2f", seconds) + " s, legal moves: " + legalMoves.length +
                 ", rate: " + String.format("%.2f", rate) + " moves/s");
-        System.out.println("Positions evaluated: " + positionsEvaluated);
+        System.out.println("Positions evaluated: " + positionsEvaluated + ", quiescence nodes: " + quiescenceNodes);
+        System.out.println("Aspiration windows failed low: " + aspirationFailLows + ", high: " + aspirationFailHighs);
+        System.out.println("Moves extended: " + extensions);
+        if (this.searchOptions.getThreadCount() > 1) {
+            System.out.println("Positions searched by the other threads: " + helperPositions);
+        }
 
+        return results;
+    }
 
-        return bestMove;
+    /**
+     * Searches the best root moves to the given depth, one line after the other. Every line excludes the root moves
+     * of the lines before it, so the n-th search finds the n-th best move with its score and principal variation.
+     * The later lines are cheap, since the first one has filled the transposition table, the killer moves and
+     * the history. Each line starts with an aspiration window around its score of the previous iteration.
+     *
+     * @return The lines found, best first. An aborted line is left out.
+     */
+    private List<SearchResult> searchLines(final Board board, final MutableBoard searchBoard, final int depth,
+                                           final int lineCount, final long startTime) {
+        final List<SearchResult> lines = new ArrayList<>(lineCount);
+        this.excludedCount = 0;
+        for (int line = 0; line < lineCount; line++) {
+            this.rootScore = this.lineScores[line];
+            final int move = searchRoot(searchBoard, depth);
+            if (this.aborted || move == MoveUtils.NULL_ENCODED_MOVE) {
+                break;
+            }
+            this.lineScores[line] = this.rootScore;
+            lines.add(new SearchResult(MoveUtils.toMove(board, move), this.rootScore, depth,
+                    Arrays.copyOf(this.pvTable[0], this.pvLength[0]), countPositions(),
+                    System.currentTimeMillis() - startTime));
+            this.excludedRootMoves[this.excludedCount++] = move;
+        }
+        this.excludedCount = 0;
+        // a later line can score higher than an earlier one if the search is unstable
+        lines.sort(Comparator.comparingInt(SearchResult::getScore).reversed());
+        return lines;
     }
 
-    public int min(final Board board, final int depth, final int alpha, int beta) {
-        positionsEvaluated++;
-        if (depth == 0 || isEndgameScenario(board)) {
-            return this.boardEvaluator.evaluate(board, depth);
-        }
-        int lowestSeenValue = Integer.MAX_VALUE;
-        // rate every possible move for the current player
-        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().makeMove(move);
-            if (moveTransition.getMoveStatus().isDone()) {
-                // execute move and check the next depth level
-                final int currentValue = max(moveTransition.getToBoard(), depth - 1, alpha, beta);
-                if (currentValue <= lowestSeenValue) {
-                    lowestSeenValue = currentValue;
-                }
-                if (lowestSeenValue <= alpha) {
-                    return lowestSeenValue;
+    /**
+     * Creates the result of a search stopped before its first iteration finished: the best move of the unfinished
+     * iteration if it has one, and the given legal move otherwise.
+     */
+    private SearchResult createFallbackResult(final Board board, final int legalMove, final long startTime) {
+        final int move = this.pvLength[0] > 0 ? this.pvTable[0][0] : legalMove;
+        return new SearchResult(MoveUtils.toMove(board, move), 0, 0, new int[]{move}, countPositions(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Counts the positions searched so far, including those of the root-split workers, which are idle between
+     * the root moves, but not those of the Lazy SMP helpers, which are still searching.
+     */
+    private long countPositions() {
+        long positions = (long) this.positionsEvaluated + this.quiescenceNodes;
+        if (this.rootPool != null) {
+            for (final MiniMax worker : this.rootWorkers) {
+                positions += worker.positionsEvaluated + worker.quiescenceNodes;
+            }
+        }
+        return positions;
+    }
+
+    private boolean isExcludedRootMove(final int move) {
+        for (int i = 0; i < this.excludedCount; i++) {
+            if (this.excludedRootMoves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String principalVariationToString(final int[] line) {
+        final StringBuilder builder = new StringBuilder();
+        for (final int move : line) {
+            builder.append(MoveUtils.toAlgebraic(move)).append(' ');
+        }
+        return builder.toString().trim();
+    }
+
+    /**
+     * Starts the time budget of the search at the given time: the search is cut off once the budget is spent,
+     * and a new iteration is only started while less than half of it is spent, since it would hardly ever finish
+     * otherwise.
+     */
+    private void startClock(final long startTime) {
+        if (this.timeBudget == SearchLimits.NO_TIME_LIMIT) {
+            this.deadline = NO_DEADLINE;
+            this.iterationDeadline = NO_DEADLINE;
+        } else {
+            this.deadline = startTime + this.timeBudget;
+            this.iterationDeadline = startTime + this.timeBudget / 2;
+        }
+    }
+
+    /**
+     * Keeps a ponder search that is done before the opponent moved waiting for the ponder hit or the stop.
+     */
+    private synchronized void awaitPonderEnd() {
+        while (this.pondering && !this.stopRequested) {
+            try {
+                wait();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the reply the opponent is expected to play to the best move: the second move of the principal variation,
+     * or the best move stored for the position after the best move if the line ends there, as after a table cutoff.
+     *
+     * @return The encoded reply, or {@link MoveUtils#NULL_ENCODED_MOVE} if none is known.
+     */
+    private int findPonderMove(final MutableBoard board, final int[] line) {
+        if (line.length > 1) {
+            return line[1];
+        }
+        if (line.length == 0) {
+            return MoveUtils.NULL_ENCODED_MOVE;
+        }
+        board.makeMove(line[0]);
+        final int move = TranspositionTable.getMove(this.transpositionTable.probe(board.getZobristKey()));
+        final int reply = board.isLegalMove(move) ? move : MoveUtils.NULL_ENCODED_MOVE;
+        board.unmakeMove();
+        return reply;
+    }
+
+    /**
+     * Resets the state of the previous search.
+     */
+    private void prepareSearch(final long deadline) {
+        this.deadline = deadline;
+        this.iterationDeadline = deadline;
+        this.aborted = false;
+        this.positionsEvaluated = 0;
+        this.quiescenceNodes = 0;
+        this.aspirationFailLows = 0;
+        this.aspirationFailHighs = 0;
+        this.extensions = 0;
+        this.completedDepth = 0;
+        this.principalVariation = new int[0];
+        for (final int[] killers : this.killerMoves) {
+            Arrays.fill(killers, MoveUtils.NULL_ENCODED_MOVE);
+        }
+        this.moveHistory.age();
+    }
+
+    /**
+     * Starts the helper threads of a parallel search. Every helper deepens iteratively on a board of its own,
+     * without a time limit, until it is stopped. Every other helper starts one iteration deeper, so that the threads
+     * spread over neighbouring depths instead of all searching the same tree in the same order.
+     *
+     * @return The started threads.
+     */
+    private Thread[] startHelpers(final Board board) {
+        final int helperCount = this.searchOptions.getThreadCount() - 1;
+        if (this.helpers.length != helperCount) {
+            this.helpers = new MiniMax[helperCount];
+            for (int i = 0; i < helperCount; i++) {
+                this.helpers[i] = new MiniMax(this.searchLimits, this.searchOptions, this.backend, this.transpositionTable);
+            }
+        }
+        final Thread[] threads = new Thread[helperCount];
+        for (int i = 0; i < helperCount; i++) {
+            final MiniMax helper = this.helpers[i];
+            final int firstDepth = 1 + (i + 1) % 2;
+            // reset before starting, so that a stop arriving before the thread runs is not lost
+            helper.prepareSearch(NO_DEADLINE);
+            helper.stopRequested = false;
+            threads[i] = new Thread(() -> helper.searchAsHelper(board, firstDepth), "Search helper " + (i + 1));
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        return threads;
+    }
+
+    private void searchAsHelper(final Board board, final int firstDepth) {
+        final MutableBoard searchBoard = this.backend.create(board);
+        for (int depth = firstDepth; depth <= this.maxDepth && !this.aborted; depth++) {
+            searchRoot(searchBoard, depth);
+        }
+    }
+
+    /**
+     * Stops the helper threads and waits for them to finish.
+     *
+     * @return The number of positions the helpers searched.
+     */
+    private long stopHelpers(final Thread[] threads) {
+        for (int i = 0; i < threads.length; i++) {
+            this.helpers[i].stop();
+        }
+        long positions = 0;
+        for (int i = 0; i < threads.length; i++) {
+            try {
+                threads[i].join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            positions += this.helpers[i].positionsEvaluated + this.helpers[i].quiescenceNodes;
+        }
+        return positions;
+    }
+
+    /**
+     * Starts the threads of a root-split search, one per thread of the {@link SearchOptions}. Each of them gets
+     * a strategy of its own, with its own board, move buffers and counters, so the only state the threads share
+     * is the transposition table and the best root move.
+     */
+    private void startRootWorkers(final Board board) {
+        final int threadCount = this.searchOptions.getThreadCount();
+        if (this.rootWorkers.length != threadCount) {
+            this.rootWorkers = new MiniMax[threadCount];
+            for (int i = 0; i < threadCount; i++) {
+                this.rootWorkers[i] = new MiniMax(this.searchLimits, this.searchOptions, this.backend, this.transpositionTable);
+            }
+        }
+        this.idleRootWorkers.clear();
+        for (final MiniMax worker : this.rootWorkers) {
+            worker.prepareSearch(this.deadline);
+            worker.stopRequested = false;
+            worker.workerBoard = this.backend.create(board);
+            this.idleRootWorkers.add(worker);
+        }
+        this.rootPool = new ForkJoinPool(threadCount);
+    }
+
+    /**
+     * Shuts the pool of a root-split search down.
+     *
+     * @return The number of positions the root workers searched.
+     */
+    private long stopRootWorkers() {
+        if (this.rootPool == null) {
+            return 0;
+        }
+        this.rootPool.shutdown();
+        this.rootPool = null;
+        long positions = 0;
+        for (final MiniMax worker : this.rootWorkers) {
+            positions += worker.positionsEvaluated + worker.quiescenceNodes;
+            worker.workerBoard = null;
+        }
+        return positions;
+    }
+
+    /**
+     * Stops a running search from another thread, within {@link #POLL_MASK} + 1 positions. The search returns
+     * the best move of its last completed iteration, so this is also the way to make the engine move now.
+     * A caller that only wants to cancel the search ignores the returned move. A stop arriving before the search
+     * starts makes it return right away. A ponder search returns as well.
+     */
+    @Override
+    public void stop() {
+        synchronized (this) {
+            this.stopRequested = true;
+            notifyAll();
+        }
+        for (final MiniMax helper : this.helpers) {
+            helper.stop();
+        }
+        for (final MiniMax worker : this.rootWorkers) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * Searches the root position to the given depth, starting with the best move of the previous iteration,
+     * which the transposition table hands out as hash move.
+     * <p>
+     * With aspiration windows, see {@link SearchOptions}, the search expects the score to stay close to the one
+     * of the previous iteration and only searches a narrow window around it, which cuts off far more often than
+     * the full window. If the score falls outside the window, the failed bound is moved beyond the returned score
+     * by a distance that grows with every failure, and the root is searched again.
+     *
+     * @return The best move found, or {@link MoveUtils#NULL_ENCODED_MOVE} if there is no legal move.
+     */
+    private int searchRoot(final MutableBoard searchBoard, final int depth) {
+        this.iterationDepth = depth;
+        if (!this.searchOptions.isAspirationWindows() || depth < ASPIRATION_MIN_DEPTH) {
+            this.rootScore = searchRootNode(searchBoard, depth, -INFINITY, INFINITY);
+            return this.pvLength[0] > 0 ? this.pvTable[0][0] : MoveUtils.NULL_ENCODED_MOVE;
+        }
+        double delta = this.searchOptions.getAspirationDelta();
+        int alpha = clampScore((long) this.rootScore - (long) delta);
+        int beta = clampScore((long) this.rootScore + (long) delta);
+        while (true) {
+            final int score = searchRootNode(searchBoard, depth, alpha, beta);
+            if (this.aborted) {
+                break;
+            }
+            delta *= this.searchOptions.getAspirationGrowth();
+            if (score <= alpha) {
+                this.aspirationFailLows++;
+                alpha = clampScore((long) score - (long) delta);
+            } else if (score >= beta) {
+                this.aspirationFailHighs++;
+                beta = clampScore((long) score + (long) delta);
+            } else {
+                this.rootScore = score;
+                break;
+            }
+        }
+        return this.pvLength[0] > 0 ? this.pvTable[0][0] : MoveUtils.NULL_ENCODED_MOVE;
+    }
+
+    private int searchRootNode(final MutableBoard board, final int depth, final int alpha, final int beta) {
+        return this.rootPool != null && depth >= ROOT_SPLIT_MIN_DEPTH ?
+                searchRootInParallel(board, depth, alpha, beta) : search(board, depth, alpha, beta);
+    }
+
+    /**
+     * Searches the root with its moves split among the threads of the root pool. The first move, usually the best
+     * move of the previous iteration, is searched alone to give the others a bound. The other moves are then searched
+     * in parallel, each one with a null window around the best score found so far, which the threads share through
+     * an atomic alpha, and again with the full window if it beats that score.
+     *
+     * @return The score of the root for the side to move.
+     */
+    private int searchRootInParallel(final MutableBoard board, final int depth, int alpha, final int beta) {
+        this.positionsEvaluated++;
+        this.pvLength[0] = 0;
+        final int originalAlpha = alpha;
+        final long key = board.getZobristKey();
+        final MovePicker movePicker = initMovePicker(board, TranspositionTable.getMove(this.transpositionTable.probe(key)));
+        int firstMove = movePicker.nextMove();
+        while (isExcludedRootMove(firstMove)) {
+            firstMove = movePicker.nextMove();
+        }
+        if (firstMove == MoveUtils.NULL_ENCODED_MOVE) {
+            return scoreNoMoves(board, depth);
+        }
+        board.makeMove(firstMove);
+        final int firstExtension = calculateExtension(board, firstMove, 0, false, MoveUtils.NULL_ENCODED_MOVE);
+        final int firstScore = -search(board, depth - 1 + firstExtension, -beta, -alpha);
+        board.unmakeMove();
+        if (this.aborted) {
+            return 0;
+        }
+        this.splitBestScore = firstScore;
+        this.splitBestMove = firstMove;
+        if (firstScore > alpha) {
+            alpha = firstScore;
+            updatePrincipalVariation(0, firstMove);
+        }
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int move = movePicker.nextMove(); move != MoveUtils.NULL_ENCODED_MOVE; move = movePicker.nextMove()) {
+            if (isExcludedRootMove(move)) {
+                continue;
+            }
+            final int rootMove = move;
+            tasks.add(ForkJoinTask.adapt(() -> searchRootMove(rootMove, depth, beta)));
+        }
+        if (alpha < beta && !tasks.isEmpty()) {
+            this.sharedAlpha.set(alpha);
+            this.rootPool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+            for (final MiniMax worker : this.rootWorkers) {
+                if (worker.aborted) {
+                    this.aborted = true;
+                    return 0;
                 }
-                beta = Math.min(beta, lowestSeenValue);
             }
         }
-        return lowestSeenValue;
+        if (this.excludedCount == 0) {
+            final int bound = this.splitBestScore >= beta ? TranspositionTable.LOWER_BOUND :
+                    this.splitBestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+            this.transpositionTable.store(key, this.splitBestMove, toTableScore(this.splitBestScore, board.getPly()), depth, bound);
+        }
+        return this.splitBestScore;
+    }
+
+    /**
+     * Searches one root move on the board of an idle root worker, called by the threads of the root pool.
+     * The shared alpha is read once a worker is taken, since waiting for it may have raised the alpha.
+     */
+    private void searchRootMove(final int move, final int depth, final int beta) {
+        final MiniMax worker;
+        try {
+            worker = this.idleRootWorkers.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a root worker!", e);
+        }
+        try {
+            final int alpha = this.sharedAlpha.get();
+            if (alpha >= beta) {
+                // another root move already failed high
+                return;
+            }
+            final MutableBoard board = worker.workerBoard;
+            board.makeMove(move);
+            worker.iterationDepth = depth;
+            final int childDepth = depth - 1 + worker.calculateExtension(board, move, 0, false, MoveUtils.NULL_ENCODED_MOVE);
+            int score = -worker.search(board, childDepth, -alpha - 1, -alpha);
+            if (score > alpha && score < beta && !worker.aborted) {
+                score = -worker.search(board, childDepth, -beta, -alpha);
+            }
+            board.unmakeMove();
+            if (!worker.aborted) {
+                recordRootMove(worker, move, score);
+            }
+        } finally {
+            this.idleRootWorkers.add(worker);
+        }
+    }
+
+    /**
+     * Records the score of a root move searched by a worker, raising the shared alpha if the move is the best so far.
+     * The principal variation of the worker starts at ply 1, right below the root move.
+     */
+    private synchronized void recordRootMove(final MiniMax worker, final int move, final int score) {
+        if (score > this.splitBestScore) {
+            this.splitBestScore = score;
+            this.splitBestMove = move;
+        }
+        if (score > this.sharedAlpha.get()) {
+            this.sharedAlpha.set(score);
+            this.pvTable[0][0] = move;
+            System.arraycopy(worker.pvTable[1], 1, this.pvTable[0], 1, worker.pvLength[1] - 1);
+            this.pvLength[0] = Math.max(worker.pvLength[1], 1);
+        }
     }
 
-    public int max(final Board board, final int depth, int alpha, final int beta) {
+    private static int clampScore(final long score) {
+        return (int) Math.max(-INFINITY, Math.min(INFINITY, score));
+    }
+
+    /**
+     * Searches a position with principal variation search, a negamax alpha-beta search that scores every node
+     * from the point of view of its side to move. Only the first move is searched with the full window.
+     * The other moves are searched with a null window around alpha, which just proves them worse than the first
+     * one, and are searched again with the full window if that fails. With good move ordering, the re-searches
+     * are rare and the null windows cut off much earlier.
+     * <p>
+     * The best line found is written to the triangular PV table: row {@code ply} holds the line from the node
+     * at that ply, built from its best move followed by the row of the child.
+     * <p>
+     * Two selective techniques, see {@link SearchOptions}, spend less effort on moves unlikely to matter. Null-move
+     * pruning lets the opponent move twice in a null window node: if a reduced search still fails high, the position is
+     * so good that a real move will fail high as well. It is skipped in check, right after another null move and
+     * without pieces, where passing could be the best move. Late move reductions search the quiet moves that come
+     * late in the ordering with less depth, and search them again with the full depth only if they beat alpha.
+     * <p>
+     * A position drawn by repetition or by the fifty-move rule, see {@link MutableBoard#isDrawByRule()}, is scored
+     * as a draw without being searched, which also cuts the subtrees of moves that only shuffle pieces back and forth.
+     * <p>
+     * Forcing moves are searched deeper than the nominal depth, see {@link #calculateExtension}. A move is singular
+     * when the transposition table scores it well and a reduced search of the node without it, with a null window
+     * a margin below that score, fails low: no other move comes close, so the line hinges on that move alone.
+     *
+     * @param board The board positioned at the node.
+     * @param depth The remaining depth.
+     * @param alpha The score the side to move is already sure of.
+     * @param beta  The score the opponent is already sure of, from the point of view of the side to move.
+     * @return The score of the position for the side to move.
+     */
+    private int search(final MutableBoard board, final int depth, int alpha, final int beta) {
+        final int ply = board.getPly();
+        // the extensions can take a line past the plies of the buffers, where it ends in the quiescence search
+        if (depth == 0 || ply == MoveBuffer.MAX_PLY - 1) {
+            return quiescence(board, alpha, beta, 0);
+        }
         positionsEvaluated++;
-        if (depth == 0 || isEndgameScenario(board)) {
-            return this.boardEvaluator.evaluate(board, depth);
-        }
-        int highestSeenValue = Integer.MIN_VALUE;
-        // rate every possible move for the current player
-        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().makeMove(move);
-            if (moveTransition.getMoveStatus().isDone()) {
-                // execute move and check the next depth level
-                final int currentValue = min(moveTransition.getToBoard(), depth - 1, alpha, beta);
-                if (currentValue >= highestSeenValue) {
-                    highestSeenValue = currentValue;
+        this.pvLength[ply] = ply;
+        if (isAborted()) {
+            return 0;
+        }
+        // checked before the table, whose scores do not know the path that led to the position
+        if (ply > 0 && board.isDrawByRule()) {
+            return DRAW_SCORE;
+        }
+        final long key = board.getZobristKey();
+        final long entry = this.transpositionTable.probe(key);
+        // a singular extension test searches the same position without the move of the entry
+        final int excludedMove = this.singularExcludedMoves[ply];
+        if (ply > 0 && excludedMove == MoveUtils.NULL_ENCODED_MOVE && entry != TranspositionTable.NO_ENTRY &&
+                TranspositionTable.getDepth(entry) >= depth) {
+            final int score = fromTableScore(TranspositionTable.getScore(entry), ply);
+            final int bound = TranspositionTable.getBound(entry);
+            if (bound == TranspositionTable.EXACT ||
+                    (bound == TranspositionTable.LOWER_BOUND && score >= beta) ||
+                    (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                return score;
+            }
+        }
+        final boolean inCheck = board.isInCheck();
+        if (this.searchOptions.isNullMovePruning() && ply > 0 && beta - alpha == 1 && depth >= NULL_MOVE_MIN_DEPTH &&
+                !inCheck && excludedMove == MoveUtils.NULL_ENCODED_MOVE &&
+                board.getLastMove() != MoveUtils.NULL_ENCODED_MOVE && board.hasNonPawnMaterial(board.getSideToMove())) {
+            final int reduction = depth >= NULL_MOVE_DEEP_DEPTH ? 3 : 2;
+            this.extensionsOnPath[ply + 1] = this.extensionsOnPath[ply];
+            board.makeNullMove();
+            final int score = -search(board, Math.max(0, depth - 1 - reduction), -beta, -beta + 1);
+            board.unmakeMove();
+            if (this.aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+        }
+        // both tests run before the move picker of the ply is set up, since they use the buffers of the ply themselves
+        final boolean singleReply = inCheck && this.searchOptions.isOneReplyExtension() &&
+                board.generateLegalMoves(this.moveBuffer.getMoves(ply)) == 1;
+        final int singularMove = excludedMove == MoveUtils.NULL_ENCODED_MOVE ?
+                findSingularMove(board, depth, entry) : MoveUtils.NULL_ENCODED_MOVE;
+        if (this.aborted) {
+            return 0;
+        }
+        final int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = MoveUtils.NULL_ENCODED_MOVE;
+        // rate every legal move for the current player
+        final MovePicker movePicker = initMovePicker(board, TranspositionTable.getMove(entry));
+        int moveCount = 0;
+        int quietCount = 0;
+        for (int move = movePicker.nextMove(); move != MoveUtils.NULL_ENCODED_MOVE; move = movePicker.nextMove()) {
+            if (move == excludedMove || (ply == 0 && isExcludedRootMove(move))) {
+                continue;
+            }
+            moveCount++;
+            board.makeMove(move);
+            // check the next depth level, then take the move back
+            final int extension = calculateExtension(board, move, ply, singleReply, singularMove);
+            final int childDepth = depth - 1 + extension;
+            int score;
+            if (moveCount == 1) {
+                score = -search(board, childDepth, -beta, -alpha);
+            } else {
+                final int reduction = extension > 0 ? 0 : calculateReduction(board, depth, move, moveCount, inCheck);
+                score = -search(board, childDepth - reduction, -alpha - 1, -alpha);
+                if (score > alpha && reduction > 0) {
+                    score = -search(board, childDepth, -alpha - 1, -alpha);
+                }
+                if (score > alpha && score < beta) {
+                    score = -search(board, childDepth, -beta, -alpha);
+                }
+            }
+            board.unmakeMove();
+            if (this.aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
                 }
-                if (highestSeenValue >= beta) {
-                    return highestSeenValue;
+            }
+            if (alpha >= beta) {
+                if (!MoveUtils.isTactical(move)) {
+                    storeQuietCutoff(board, depth, move, quietCount);
                 }
-                alpha = Math.max(alpha, highestSeenValue);
+                break;
             }
+            if (!MoveUtils.isTactical(move)) {
+                this.triedQuietMoves[ply][quietCount++] = move;
+            }
+        }
+        // checkmate or stalemate, unless the only move was left out by a singular extension test, which then fails low
+        if (moveCount == 0) {
+            bestScore = excludedMove == MoveUtils.NULL_ENCODED_MOVE ? scoreNoMoves(board, depth) : alpha;
+        }
+        // a node searched without some of its moves has no score of its own to store
+        if (excludedMove == MoveUtils.NULL_ENCODED_MOVE && (ply > 0 || this.excludedCount == 0)) {
+            final int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND :
+                    bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+            this.transpositionTable.store(key, bestMove, toTableScore(bestScore, ply), depth, bound);
         }
-        return highestSeenValue;
+        return bestScore;
     }
 
-    public Collection<Move> sortLegalMoves(Collection<Move> legalMoves) {
-        return legalMoves.stream()
-                .sorted(Comparator.comparingInt(this::calculateMoveValue).reversed())
-                .collect(Collectors.toList());
+    /**
+     * Tests whether the move of the transposition table is singular, see {@link #search}. The test needs an entry
+     * of nearly the full depth whose score is not an upper bound, so that the move is known to be good.
+     *
+     * @return The singular move, or {@link MoveUtils#NULL_ENCODED_MOVE} if there is none or the test is off.
+     */
+    private int findSingularMove(final MutableBoard board, final int depth, final long entry) {
+        final int ply = board.getPly();
+        final int tableMove = TranspositionTable.getMove(entry);
+        if (!this.searchOptions.isSingularExtension() || ply == 0 || depth < SINGULAR_MIN_DEPTH ||
+                tableMove == MoveUtils.NULL_ENCODED_MOVE ||
+                TranspositionTable.getBound(entry) == TranspositionTable.UPPER_BOUND ||
+                TranspositionTable.getDepth(entry) < depth - SINGULAR_TABLE_DEPTH_MARGIN ||
+                !hasExtensionBudget(ply)) {
+            return MoveUtils.NULL_ENCODED_MOVE;
+        }
+        final int singularBeta = fromTableScore(TranspositionTable.getScore(entry), ply) - SINGULAR_MARGIN * depth;
+        this.singularExcludedMoves[ply] = tableMove;
+        final int score = search(board, depth / 2, singularBeta - 1, singularBeta);
+        this.singularExcludedMoves[ply] = MoveUtils.NULL_ENCODED_MOVE;
+        this.pvLength[ply] = ply;
+        return score < singularBeta ? tableMove : MoveUtils.NULL_ENCODED_MOVE;
+    }
+
+    /**
+     * Calculates by how many plies a move is searched deeper, with the move already made on the board, and records
+     * it for the line below the move. Moves that give check, the only move out of a check, a singular move
+     * and pawn moves to the seventh rank are extended by one ply, as far as {@link SearchOptions} enables them.
+     * The plies the extensions add along a line are limited by the budget of the options and by the depth
+     * of the iteration, so that a line of forcing moves cannot grow the tree without bound.
+     *
+     * @param ply          The ply of the node the move was made from.
+     * @param singleReply  Whether the move is the only move out of a check.
+     * @param singularMove The singular move of the node, or {@link MoveUtils#NULL_ENCODED_MOVE} if there is none.
+     * @return The number of plies the move is extended by.
+     */
+    private int calculateExtension(final MutableBoard board, final int move, final int ply, final boolean singleReply,
+                                   final int singularMove) {
+        int extension = 0;
+        if (hasExtensionBudget(ply) &&
+                ((this.searchOptions.isCheckExtension() && board.isInCheck()) || singleReply || move == singularMove ||
+                        (this.searchOptions.isPawnPushExtension() && isPawnPushToSeventhRank(move)))) {
+            extension = 1;
+            this.extensions++;
+        }
+        this.extensionsOnPath[ply + 1] = this.extensionsOnPath[ply] + extension;
+        return extension;
     }
 
-    // TODO - more work here
-    private int calculateMoveValue(Move move) {
-        int moveValue = 0;
-        Piece movedPiece = move.getMovedPiece();
-        Piece attackedPiece = move.getAttackedPiece();
+    private boolean hasExtensionBudget(final int ply) {
+        return this.extensionsOnPath[ply] < Math.min(this.searchOptions.getMaxExtensions(), this.iterationDepth);
+    }
 
-        if (attackedPiece != null) {
-            moveValue = 10 * attackedPiece.getPieceValue() - movedPiece.getPieceValue();
+    private static boolean isPawnPushToSeventhRank(final int move) {
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int destination = MoveUtils.getDestinationCoordinate(move);
+        // the rows of the board utilities are counted from the eighth rank down
+        return PieceUtils.typeOf(movedPiece) == PieceUtils.PAWN && (PieceUtils.isWhite(movedPiece) ?
+                BoardUtils.SECOND_ROW[destination] : BoardUtils.SEVENTH_ROW[destination]);
+    }
+
+    /**
+     * Calculates by how many plies a move is searched less deep, with the move already made on the board.
+     * Only quiet moves that come late in the ordering are reduced, and not when they give or evade check.
+     */
+    private int calculateReduction(final MutableBoard board, final int depth, final int move, final int moveCount,
+                                   final boolean inCheck) {
+        if (!this.searchOptions.isLateMoveReductions() || depth < LATE_MOVE_MIN_DEPTH ||
+                moveCount <= LATE_MOVE_MIN_COUNT || inCheck || MoveUtils.isTactical(move) || board.isInCheck()) {
+            return 0;
+        }
+        return depth >= 2 * LATE_MOVE_MIN_DEPTH && moveCount > 2 * LATE_MOVE_MIN_COUNT ? 2 : 1;
+    }
+
+    /**
+     * Searches the captures and promotions of a position at the horizon until it is quiet, so that no position
+     * is evaluated in the middle of an exchange. The side to move does not have to capture, so its static evaluation
+     * is a lower bound of its score: it stands pat, and cuts off right away if the evaluation already reaches beta.
+     * A capture that could not lift the evaluation to alpha even if it won its victim for free is skipped
+     * (delta pruning), and so is a capture that loses material by static exchange evaluation. A side in check
+     * has to answer it, so it searches all of its evasions instead of standing pat, which finds the mates
+     * at the horizon. At the first quiescence ply, quiet moves giving check are searched as well.
+     *
+     * @param board         The board positioned at the node.
+     * @param alpha         The score the side to move is already sure of.
+     * @param beta          The score the opponent is already sure of, from the point of view of the side to move.
+     * @param quiescencePly The number of quiescence plies above the node.
+     * @return The score of the position for the side to move.
+     */
+    private int quiescence(final MutableBoard board, int alpha, final int beta, final int quiescencePly) {
+        this.quiescenceNodes++;
+        final int ply = board.getPly();
+        this.pvLength[ply] = ply;
+        if (isAborted()) {
+            return 0;
+        }
+        if (ply == MoveBuffer.MAX_PLY - 1) {
+            return evaluate(board, 0);
+        }
+        final boolean inCheck = board.isInCheck();
+        final MovePicker movePicker = this.movePickers[ply];
+        final int[] moves = this.moveBuffer.getMoves(ply);
+        int standPat = -INFINITY;
+        if (inCheck) {
+            movePicker.init(board, moves, MoveUtils.NULL_ENCODED_MOVE,
+                    MoveUtils.NULL_ENCODED_MOVE, MoveUtils.NULL_ENCODED_MOVE);
+        } else {
+            standPat = evaluate(board, 0);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+            movePicker.initCaptures(board, moves);
+        }
+        int bestScore = standPat;
+        int moveCount = 0;
+        for (int move = movePicker.nextMove(); move != MoveUtils.NULL_ENCODED_MOVE; move = movePicker.nextMove()) {
+            moveCount++;
+            if (!inCheck && standPat + calculateMaterialGain(move) + DELTA_MARGIN <= alpha) {
+                continue;
+            }
+            board.makeMove(move);
+            final int score = -quiescence(board, -beta, -alpha, quiescencePly + 1);
+            board.unmakeMove();
+            if (this.aborted) {
+                return 0;
+            }
+            bestScore = Math.max(bestScore, score);
+            alpha = Math.max(alpha, score);
+            if (alpha >= beta) {
+                return bestScore;
+            }
         }
+        // checkmate, a stalemate is not looked for since only the captures are generated
+        if (inCheck && moveCount == 0) {
+            return -MATE_SCORE + ply;
+        }
+        if (!inCheck && quiescencePly == 0) {
+            // the captures are used up, so the quiet checks can take over the array
+            final int checkCount = board.generateLegalQuietChecks(moves);
+            for (int i = 0; i < checkCount; i++) {
+                board.makeMove(moves[i]);
+                final int score = -quiescence(board, -beta, -alpha, quiescencePly + 1);
+                board.unmakeMove();
+                if (this.aborted) {
+                    return 0;
+                }
+                bestScore = Math.max(bestScore, score);
+                alpha = Math.max(alpha, score);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return bestScore;
+    }
 
-        if (move.isPromotingMove()) {
-            moveValue += Piece.PieceType.QUEEN.getPieceValue();
+    /**
+     * Calculates the material a capture or promotion wins, not counting what the opponent may take back.
+     */
+    private static int calculateMaterialGain(final int move) {
+        int gain = PieceUtils.getPieceValue(MoveUtils.getCapturedPiece(move));
+        if (MoveUtils.isPromotion(move)) {
+            gain += PieceUtils.getPieceValue(MoveUtils.getPromotionType(move)) - PieceUtils.getPieceValue(PieceUtils.PAWN);
         }
+        return gain;
+    }
 
-        if (move.isCastlingMove()) {
-            moveValue += 300;
+    /**
+     * Checks if the search has to stop. The stop flag and the clock are only read every {@link #POLL_MASK} + 1
+     * positions of the main and the quiescence search together.
+     */
+    private boolean isAborted() {
+        if (!this.aborted && ((this.positionsEvaluated + this.quiescenceNodes) & POLL_MASK) == 0 &&
+                (this.stopRequested ||
+                        (this.deadline != NO_DEADLINE && System.currentTimeMillis() >= this.deadline))) {
+            this.aborted = true;
         }
+        return this.aborted;
+    }
+
+    /**
+     * Scores a position without legal moves: a checkmate by its distance from the root, a stalemate by the evaluator.
+     */
+    private int scoreNoMoves(final MutableBoard board, final int depth) {
+        return board.isInCheck() ? -MATE_SCORE + board.getPly() : evaluate(board, depth);
+    }
+
+    /**
+     * Converts a checkmate score relative to the root into one relative to the given node, for the transposition table.
+     * The same position can be reached at a different ply, in a later iteration or in the search of a later move,
+     * and the distance to the mate from the position itself is what stays the same.
+     */
+    private static int toTableScore(final int score, final int ply) {
+        return score >= MATE_THRESHOLD ? score + ply : score <= -MATE_THRESHOLD ? score - ply : score;
+    }
 
-        return moveValue;
+    /**
+     * Converts a checkmate score from the transposition table back into one relative to the root, see {@link #toTableScore}.
+     */
+    private static int fromTableScore(final int score, final int ply) {
+        return score >= MATE_THRESHOLD ? score - ply : score <= -MATE_THRESHOLD ? score + ply : score;
+    }
+
+    /**
+     * Evaluates a position from the point of view of its side to move, as negamax requires.
+     * The {@link BoardEvaluator} scores positions from the point of view of white.
+     */
+    private int evaluate(final MutableBoard board, final int depth) {
+        final int score = this.boardEvaluator.evaluate(board, depth);
+        return board.getSideToMove().isWhite() ? score : -score;
+    }
+
+    /**
+     * Makes the given move followed by the line of its child the principal variation of a ply.
+     */
+    private void updatePrincipalVariation(final int ply, final int move) {
+        final int[] line = this.pvTable[ply];
+        line[ply] = move;
+        final int childLength = this.pvLength[ply + 1];
+        System.arraycopy(this.pvTable[ply + 1], ply + 1, line, ply + 1, childLength - ply - 1);
+        this.pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    /**
+     * Retrieves the principal variation of the last completed iteration: the best move followed by the best
+     * replies of both sides, as far as the search followed them.
+     *
+     * @return The encoded moves of the line, starting with the best move.
+     */
+    public int[] getPrincipalVariation() {
+        return this.principalVariation.clone();
+    }
+
+    private MovePicker initMovePicker(final MutableBoard board, final int hashMove) {
+        final int ply = board.getPly();
+        final MovePicker movePicker = this.movePickers[ply];
+        movePicker.init(board, this.moveBuffer.getMoves(ply), hashMove, this.killerMoves[ply][0],
+                this.killerMoves[ply][1], this.moveHistory.getCounterMove(board.getLastMove()));
+        return movePicker;
+    }
+
+    /**
+     * Remembers a quiet move that caused a cutoff: as killer move, so that sibling nodes at the same ply try it early,
+     * as countermove of the previous move, and in the history, which also punishes the quiet moves tried before it.
+     * Captures are not stored, since they are already searched before the quiet moves.
+     */
+    private void storeQuietCutoff(final MutableBoard board, final int depth, final int move, final int quietCount) {
+        final int ply = board.getPly();
+        final int[] killers = this.killerMoves[ply];
+        if (killers[0] != move) {
+            killers[1] = killers[0];
+            killers[0] = move;
+        }
+        this.moveHistory.storeCounterMove(board.getLastMove(), move);
+        this.moveHistory.update(move, this.triedQuietMoves[ply], quietCount, depth);
     }
 }
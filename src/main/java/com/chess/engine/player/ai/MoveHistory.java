@@ -0,0 +1,116 @@
+/**
+ * The {@code MoveHistory} class collects the statistics that order the quiet moves of a search, since quiet moves
+ * cannot be ranked by the material they win. The butterfly history scores every move by side, origin and destination:
+ * a quiet move causing a cutoff gains a bonus growing with the remaining depth, and the quiet moves searched before it
+ * at the same node lose the same amount. The countermove table remembers, for the piece and destination of
+ * the previous move, the quiet move that refuted it.
+ * <p>
+ * Scores are kept within {@link #MAX_HISTORY}: every update is scaled down as a score approaches the limit,
+ * so moves that were good long ago do not hide the ones that are good now. {@link #age()} halves every score
+ * between two searches, keeping what was learned without letting it outweigh the new search.
+ */
+
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.piece.PieceUtils;
+
+import java.util.Arrays;
+
+public class MoveHistory {
+    public static final int MAX_HISTORY = 16384;
+
+    /**
+     * The history scores, indexed by alliance ordinal, origin and destination.
+     */
+    private final int[][][] butterflyHistory = new int[2][BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+    /**
+     * The refutations, indexed by the piece code and destination of the move they answer.
+     */
+    private final int[][] counterMoves = new int[PieceUtils.BLACK_FLAG + PieceUtils.KING + 1][BoardUtils.NUM_TILES];
+
+    /**
+     * Retrieves the history score of a quiet move.
+     *
+     * @param move The encoded move.
+     * @return The score, higher scores are searched first.
+     */
+    public int getScore(final int move) {
+        return this.butterflyHistory[allianceIndex(move)][MoveUtils.getCurrentCoordinate(move)]
+                [MoveUtils.getDestinationCoordinate(move)];
+    }
+
+    /**
+     * Rewards a quiet move that caused a cutoff and punishes the quiet moves searched before it at the same node.
+     *
+     * @param bestMove   The move that caused the cutoff.
+     * @param triedMoves The quiet moves searched before it.
+     * @param triedCount The number of tried moves.
+     * @param depth      The remaining depth of the node.
+     */
+    public void update(final int bestMove, final int[] triedMoves, final int triedCount, final int depth) {
+        final int bonus = Math.min(depth * depth, MAX_HISTORY / 8);
+        addBonus(bestMove, bonus);
+        for (int i = 0; i < triedCount; i++) {
+            addBonus(triedMoves[i], -bonus);
+        }
+    }
+
+    private void addBonus(final int move, final int bonus) {
+        final int[] scores = this.butterflyHistory[allianceIndex(move)][MoveUtils.getCurrentCoordinate(move)];
+        final int to = MoveUtils.getDestinationCoordinate(move);
+        // the closer a score is to the limit, the less it moves further towards it
+        scores[to] += bonus - scores[to] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    /**
+     * Retrieves the quiet move that last refuted the given move.
+     *
+     * @param previousMove The move of the opponent, or {@link MoveUtils#NULL_ENCODED_MOVE}.
+     * @return The encoded countermove, or {@link MoveUtils#NULL_ENCODED_MOVE} if there is none.
+     */
+    public int getCounterMove(final int previousMove) {
+        if (previousMove == MoveUtils.NULL_ENCODED_MOVE) {
+            return MoveUtils.NULL_ENCODED_MOVE;
+        }
+        return this.counterMoves[MoveUtils.getMovedPiece(previousMove)][MoveUtils.getDestinationCoordinate(previousMove)];
+    }
+
+    public void storeCounterMove(final int previousMove, final int move) {
+        if (previousMove != MoveUtils.NULL_ENCODED_MOVE) {
+            this.counterMoves[MoveUtils.getMovedPiece(previousMove)][MoveUtils.getDestinationCoordinate(previousMove)] = move;
+        }
+    }
+
+    /**
+     * Halves every history score, so a new search still profits from the previous one but learns quickly.
+     */
+    public void age() {
+        for (final int[][] alliance : this.butterflyHistory) {
+            for (final int[] scores : alliance) {
+                for (int to = 0; to < scores.length; to++) {
+                    scores[to] /= 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets everything, for example when a new game starts.
+     */
+    public void clear() {
+        for (final int[][] alliance : this.butterflyHistory) {
+            for (final int[] scores : alliance) {
+                Arrays.fill(scores, 0);
+            }
+        }
+        for (final int[] moves : this.counterMoves) {
+            Arrays.fill(moves, MoveUtils.NULL_ENCODED_MOVE);
+        }
+    }
+
+    private static int allianceIndex(final int move) {
+        return PieceUtils.isWhite(MoveUtils.getMovedPiece(move)) ? 0 : 1;
+    }
+}
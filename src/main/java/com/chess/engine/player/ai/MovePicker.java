@@ -0,0 +1,265 @@
+/**
+ * The {@code MovePicker} class hands out the legal moves of a search node one at a time, in stages:
+ * the hash move, the winning and equal captures by MVV-LVA (most valuable victim, least valuable attacker),
+ * the killer moves, the countermove, the quiet moves by their {@link MoveHistory} score and finally the losing
+ * captures and under-promotions. A capture is losing if
+ * its static exchange evaluation (see {@link MutableBoard#staticExchangeEvaluation(int)}) is negative.
+ * <p>
+ * A stage is only generated once the previous one is used up, so a node that fails high on the hash move or
+ * a capture never generates its quiet moves. Moves handed out by an earlier stage are skipped by the later ones.
+ * One picker is meant to be reused for every node of a ply, see {@link #init(MutableBoard, int[], int, int, int)}.
+ * Quiescence nodes only use the winning captures, see {@link #initCaptures(MutableBoard, int[])}.
+ */
+
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.piece.PieceUtils;
+
+public class MovePicker {
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int COUNTER_MOVE = 5;
+    private static final int GENERATE_QUIETS = 6;
+    private static final int QUIETS = 7;
+    private static final int BAD_CAPTURES = 8;
+    private static final int DONE = 9;
+
+    private final int[] moveValues = new int[MutableBoard.MAX_MOVES];
+    private final int[] badCaptures = new int[MutableBoard.MAX_MOVES];
+    private final MoveHistory moveHistory;
+    private MutableBoard board;
+    private int[] moves;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int counterMove;
+    private int stage;
+    private boolean capturesOnly;
+    private int index;
+    private int moveCount;
+    private int badCaptureCount;
+
+    /**
+     * Constructs a {@code MovePicker} without history, which hands out the quiet moves in generation order.
+     */
+    public MovePicker() {
+        this(new MoveHistory());
+    }
+
+    /**
+     * Constructs a {@code MovePicker} ordering the quiet moves by the given history.
+     *
+     * @param moveHistory The history scores of the search, shared by the pickers of every ply.
+     */
+    public MovePicker(final MoveHistory moveHistory) {
+        this.moveHistory = moveHistory;
+    }
+
+    /**
+     * Prepares the picker for a new node without a countermove.
+     *
+     * @see #init(MutableBoard, int[], int, int, int, int)
+     */
+    public void init(final MutableBoard board, final int[] moves, final int hashMove,
+                     final int firstKiller, final int secondKiller) {
+        init(board, moves, hashMove, firstKiller, secondKiller, MoveUtils.NULL_ENCODED_MOVE);
+    }
+
+    /**
+     * Prepares the picker for a new node.
+     *
+     * @param board        The board positioned at the node.
+     * @param moves        The array the moves of the node are generated into, usually the {@link com.chess.engine.board.MoveBuffer}
+     *                     array of its ply.
+     * @param hashMove     The best move stored for the position, or {@link MoveUtils#NULL_ENCODED_MOVE}.
+     * @param firstKiller  The most recent quiet move that caused a cutoff at this ply, or {@link MoveUtils#NULL_ENCODED_MOVE}.
+     * @param secondKiller The killer move before it, or {@link MoveUtils#NULL_ENCODED_MOVE}.
+     * @param counterMove  The quiet move that last refuted the previous move, or {@link MoveUtils#NULL_ENCODED_MOVE}.
+     */
+    public void init(final MutableBoard board, final int[] moves, final int hashMove,
+                     final int firstKiller, final int secondKiller, final int counterMove) {
+        this.board = board;
+        this.moves = moves;
+        this.hashMove = hashMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+        this.counterMove = counterMove;
+        this.stage = HASH_MOVE;
+        this.capturesOnly = false;
+        this.index = 0;
+        this.moveCount = 0;
+        this.badCaptureCount = 0;
+    }
+
+    /**
+     * Prepares the picker for a quiescence node, which only searches the winning and equal captures and the queen
+     * promotions, by MVV-LVA. Losing captures and under-promotions are pruned.
+     *
+     * @param board The board positioned at the node.
+     * @param moves The array the moves of the node are generated into.
+     */
+    public void initCaptures(final MutableBoard board, final int[] moves) {
+        init(board, moves, MoveUtils.NULL_ENCODED_MOVE, MoveUtils.NULL_ENCODED_MOVE, MoveUtils.NULL_ENCODED_MOVE);
+        this.capturesOnly = true;
+        this.stage = GENERATE_CAPTURES;
+    }
+
+    /**
+     * Retrieves the next move to search.
+     *
+     * @return The next legal move, or {@link MoveUtils#NULL_ENCODED_MOVE} once every move has been handed out.
+     */
+    public int nextMove() {
+        while (true) {
+            switch (this.stage) {
+                case HASH_MOVE -> {
+                    this.stage = GENERATE_CAPTURES;
+                    if (this.board.isLegalMove(this.hashMove)) {
+                        return this.hashMove;
+                    }
+                    this.hashMove = MoveUtils.NULL_ENCODED_MOVE;
+                }
+                case GENERATE_CAPTURES -> {
+                    this.moveCount = this.board.generateLegalCaptures(this.moves);
+                    for (int i = 0; i < this.moveCount; i++) {
+                        this.moveValues[i] = calculateCaptureValue(this.moves[i]);
+                    }
+                    this.index = 0;
+                    this.stage = GOOD_CAPTURES;
+                }
+                case GOOD_CAPTURES -> {
+                    if (this.index == this.moveCount) {
+                        this.index = 0;
+                        this.stage = this.capturesOnly ? DONE : FIRST_KILLER;
+                        continue;
+                    }
+                    final int move = pickBestMove();
+                    if (move == this.hashMove) {
+                        continue;
+                    }
+                    if (isLosing(move)) {
+                        this.badCaptures[this.badCaptureCount++] = move;
+                        continue;
+                    }
+                    return move;
+                }
+                case FIRST_KILLER -> {
+                    this.stage = SECOND_KILLER;
+                    if (isPlayableKiller(this.firstKiller)) {
+                        return this.firstKiller;
+                    }
+                    this.firstKiller = MoveUtils.NULL_ENCODED_MOVE;
+                }
+                case SECOND_KILLER -> {
+                    this.stage = COUNTER_MOVE;
+                    if (this.secondKiller != this.firstKiller && isPlayableKiller(this.secondKiller)) {
+                        return this.secondKiller;
+                    }
+                    this.secondKiller = MoveUtils.NULL_ENCODED_MOVE;
+                }
+                case COUNTER_MOVE -> {
+                    this.stage = GENERATE_QUIETS;
+                    if (this.counterMove != this.firstKiller && this.counterMove != this.secondKiller &&
+                            isPlayableKiller(this.counterMove)) {
+                        return this.counterMove;
+                    }
+                    this.counterMove = MoveUtils.NULL_ENCODED_MOVE;
+                }
+                case GENERATE_QUIETS -> {
+                    // the captures are used up, so the quiet moves can take over the array
+                    this.moveCount = this.board.generateLegalQuietMoves(this.moves);
+                    for (int i = 0; i < this.moveCount; i++) {
+                        this.moveValues[i] = this.moveHistory.getScore(this.moves[i]);
+                    }
+                    this.index = 0;
+                    this.stage = QUIETS;
+                }
+                case QUIETS -> {
+                    if (this.index == this.moveCount) {
+                        this.index = 0;
+                        this.stage = BAD_CAPTURES;
+                        continue;
+                    }
+                    final int move = pickBestMove();
+                    if (move != this.hashMove && move != this.firstKiller && move != this.secondKiller &&
+                            move != this.counterMove) {
+                        return move;
+                    }
+                }
+                case BAD_CAPTURES -> {
+                    if (this.index == this.badCaptureCount) {
+                        this.stage = DONE;
+                        continue;
+                    }
+                    return this.badCaptures[this.index++];
+                }
+                default -> {
+                    return MoveUtils.NULL_ENCODED_MOVE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Swaps the highest valued of the remaining moves to the current index and hands it out. A full sort is avoided
+     * since most nodes only search the first few moves of a stage.
+     */
+    private int pickBestMove() {
+        int bestIndex = this.index;
+        for (int i = this.index + 1; i < this.moveCount; i++) {
+            if (this.moveValues[i] > this.moveValues[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+        final int move = this.moves[bestIndex];
+        final int moveValue = this.moveValues[bestIndex];
+        this.moves[bestIndex] = this.moves[this.index];
+        this.moveValues[bestIndex] = this.moveValues[this.index];
+        this.moves[this.index] = move;
+        this.moveValues[this.index] = moveValue;
+        this.index++;
+        return move;
+    }
+
+    /**
+     * Calculates the MVV-LVA value of a capture or promotion: the value of the captured piece dominates,
+     * the value of the capturing piece breaks ties, and a promotion adds the value of the new piece.
+     *
+     * @param move The encoded capture or promotion.
+     * @return The value of the move, higher values are searched first.
+     */
+    public static int calculateCaptureValue(final int move) {
+        int moveValue = 10 * PieceUtils.getPieceValue(MoveUtils.getCapturedPiece(move)) -
+                PieceUtils.getPieceValue(MoveUtils.getMovedPiece(move));
+        if (MoveUtils.isPromotion(move)) {
+            moveValue += PieceUtils.getPieceValue(MoveUtils.getPromotionType(move));
+        }
+        return moveValue;
+    }
+
+    /**
+     * Checks if a capture loses material once the exchange on its destination tile is played out.
+     * Under-promotions are treated as losing as well, since they are hardly ever better than a queen.
+     */
+    private boolean isLosing(final int move) {
+        if (MoveUtils.isPromotion(move)) {
+            if (MoveUtils.getPromotionType(move) != PieceUtils.QUEEN) {
+                return true;
+            }
+        } else if (PieceUtils.getPieceValue(MoveUtils.getCapturedPiece(move)) >=
+                PieceUtils.getPieceValue(MoveUtils.getMovedPiece(move))) {
+            // taking a piece at least as valuable as the capturing one cannot lose material
+            return false;
+        }
+        return this.board.staticExchangeEvaluation(move) < 0;
+    }
+
+    private boolean isPlayableKiller(final int killer) {
+        return killer != this.hashMove && !MoveUtils.isTactical(killer) && this.board.isLegalMove(killer);
+    }
+}
@@ -3,6 +3,27 @@ package com.chess.engine.player.ai;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 
+import java.util.List;
+
 public interface MoveStrategy {
     Move execute(Board board);
+
+    /**
+     * Searches the best moves for the current player of the board, each with the score and the line that back it.
+     * The lines come from a single search, under the same limits as {@link #execute(Board)}.
+     *
+     * @param board     The board to analyze.
+     * @param lineCount The number of best moves wanted.
+     * @return The results ranked best first, fewer than requested if the player has fewer legal moves,
+     * and none if the player has no legal move.
+     * @throws IllegalArgumentException If the number of lines is not positive.
+     */
+    List<SearchResult> analyze(Board board, int lineCount);
+
+    /**
+     * Asks a running {@link #execute(Board)} from another thread to return as soon as possible,
+     * with the best move it found so far. Strategies that cannot be interrupted ignore it.
+     */
+    default void stop() {
+    }
 }
@@ -0,0 +1,156 @@
+/**
+ * The {@code SearchLimits} class tells a search when to stop: after a maximum depth, after a fixed time per move,
+ * or after a share of the remaining clock time of the side to move. Limits are combined, the search stops at
+ * whichever is reached first. Instances are immutable and created with the {@link Builder}.
+ */
+
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.MoveBuffer;
+import lombok.Getter;
+
+@Getter
+public class SearchLimits {
+    /**
+     * The deepest iteration a search can run, bounded by the plies of its {@link MoveBuffer}.
+     */
+    public static final int MAX_DEPTH = MoveBuffer.MAX_PLY - 1;
+    public static final long NO_TIME_LIMIT = -1;
+
+    /**
+     * The share of the remaining clock time spent on one move, when the number of moves to go is unknown.
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    /**
+     * The time kept back on the clock to absorb the overhead of returning the move.
+     */
+    private static final long MOVE_OVERHEAD_MILLIS = 50;
+
+    private final int depth;
+    private final long moveTime;
+    private final long whiteTime;
+    private final long blackTime;
+    private final long whiteIncrement;
+    private final long blackIncrement;
+    private final int movesToGo;
+
+    private SearchLimits(final Builder builder) {
+        this.depth = builder.depth;
+        this.moveTime = builder.moveTime;
+        this.whiteTime = builder.whiteTime;
+        this.blackTime = builder.blackTime;
+        this.whiteIncrement = builder.whiteIncrement;
+        this.blackIncrement = builder.blackIncrement;
+        this.movesToGo = builder.movesToGo;
+    }
+
+    /**
+     * Creates limits that only bound the depth of the search.
+     *
+     * @param depth The maximum depth.
+     * @return The new limits.
+     */
+    public static SearchLimits ofDepth(final int depth) {
+        return new Builder().setDepth(depth).build();
+    }
+
+    /**
+     * Creates limits that give the search a fixed time per move.
+     *
+     * @param moveTime The time per move in milliseconds.
+     * @return The new limits.
+     */
+    public static SearchLimits ofMoveTime(final long moveTime) {
+        return new Builder().setMoveTime(moveTime).build();
+    }
+
+    /**
+     * Calculates the time the given side may spend on its move. A fixed move time is used as is. Otherwise,
+     * the remaining clock time is spread over the moves to go and most of the increment is added,
+     * never spending more than the clock holds.
+     *
+     * @param alliance The side to move.
+     * @return The time budget in milliseconds, or {@link #NO_TIME_LIMIT} if the search is not timed.
+     */
+    public long calculateTimeBudget(final Alliance alliance) {
+        long budget = NO_TIME_LIMIT;
+        if (this.moveTime != NO_TIME_LIMIT) {
+            budget = this.moveTime;
+        }
+        final long clockTime = alliance.isWhite() ? this.whiteTime : this.blackTime;
+        if (clockTime != NO_TIME_LIMIT) {
+            final long increment = alliance.isWhite() ? this.whiteIncrement : this.blackIncrement;
+            final int moves = this.movesToGo > 0 ? this.movesToGo : DEFAULT_MOVES_TO_GO;
+            final long available = Math.max(1, clockTime - MOVE_OVERHEAD_MILLIS);
+            final long clockBudget = Math.min(available, clockTime / moves + increment * 3 / 4);
+            budget = budget == NO_TIME_LIMIT ? clockBudget : Math.min(budget, clockBudget);
+        }
+        return budget;
+    }
+
+    /**
+     * The {@code Builder} class creates {@link SearchLimits}. Limits that are not set do not restrict the search,
+     * but at least a depth or a time should be given.
+     */
+    public static class Builder {
+        private int depth = MAX_DEPTH;
+        private long moveTime = NO_TIME_LIMIT;
+        private long whiteTime = NO_TIME_LIMIT;
+        private long blackTime = NO_TIME_LIMIT;
+        private long whiteIncrement;
+        private long blackIncrement;
+        private int movesToGo;
+
+        /**
+         * Sets the maximum depth, capped at {@link #MAX_DEPTH}.
+         *
+         * @param depth The maximum depth in plies.
+         * @return The current builder instance for method chaining.
+         */
+        public Builder setDepth(final int depth) {
+            this.depth = Math.max(1, Math.min(depth, MAX_DEPTH));
+            return this;
+        }
+
+        public Builder setMoveTime(final long moveTime) {
+            this.moveTime = moveTime;
+            return this;
+        }
+
+        /**
+         * Sets the remaining clock times of both sides.
+         *
+         * @param whiteTime The remaining time of white in milliseconds.
+         * @param blackTime The remaining time of black in milliseconds.
+         * @return The current builder instance for method chaining.
+         */
+        public Builder setClockTimes(final long whiteTime, final long blackTime) {
+            this.whiteTime = whiteTime;
+            this.blackTime = blackTime;
+            return this;
+        }
+
+        /**
+         * Sets the time added to the clocks of both sides after each of their moves.
+         *
+         * @param whiteIncrement The increment of white in milliseconds.
+         * @param blackIncrement The increment of black in milliseconds.
+         * @return The current builder instance for method chaining.
+         */
+        public Builder setIncrements(final long whiteIncrement, final long blackIncrement) {
+            this.whiteIncrement = whiteIncrement;
+            this.blackIncrement = blackIncrement;
+            return this;
+        }
+
+        public Builder setMovesToGo(final int movesToGo) {
+            this.movesToGo = movesToGo;
+            return this;
+        }
+
+        public SearchLimits build() {
+            return new SearchLimits(this);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * The {@code SearchOptions} class switches the selective techniques of a search on and off, so that their effect
+ * can be compared by playing strategies with different options against each other. Unlike the {@link SearchLimits},
+ * the options do not tell the search when to stop but how to spend its time. Instances are immutable and created
+ * with the {@link Builder}; every technique is enabled by default, and the search runs on a single thread.
+ */
+
+package com.chess.engine.player.ai;
+
+import lombok.Getter;
+
+@Getter
+public class SearchOptions {
+    public static final SearchOptions DEFAULT = new Builder().build();
+
+    /**
+     * The ways a search uses more than one thread.
+     */
+    public enum ParallelMode {
+        /**
+         * Every thread searches the whole tree, the threads only share the transposition table.
+         */
+        LAZY_SMP,
+        /**
+         * The first move of the root is searched alone, then the other root moves are split among the threads,
+         * which share the best score found so far.
+         */
+        ROOT_SPLIT
+    }
+
+    /**
+     * Whether a node may give the opponent a free move and cut off if the reduced search of that still fails high.
+     */
+    private final boolean nullMovePruning;
+    /**
+     * Whether quiet moves searched late at a node are searched with less depth first.
+     */
+    private final boolean lateMoveReductions;
+    /**
+     * Whether the iterations after the first few search a narrow window around the score of the previous one.
+     */
+    private final boolean aspirationWindows;
+    /**
+     * The distance of the first aspiration window bounds from the previous score.
+     */
+    private final int aspirationDelta;
+    /**
+     * The factor the distance grows by every time the score falls outside the window.
+     */
+    private final double aspirationGrowth;
+    /**
+     * The number of threads searching the same root, sharing the transposition table.
+     */
+    private final int threadCount;
+    private final ParallelMode parallelMode;
+    /**
+     * Whether a move that gives check is searched one ply deeper.
+     */
+    private final boolean checkExtension;
+    /**
+     * Whether the only legal move out of a check is searched one ply deeper.
+     */
+    private final boolean oneReplyExtension;
+    /**
+     * Whether the move of the transposition table is searched one ply deeper when every other move falls clearly
+     * below its stored score.
+     */
+    private final boolean singularExtension;
+    /**
+     * Whether a pawn move to the seventh rank is searched one ply deeper.
+     */
+    private final boolean pawnPushExtension;
+    /**
+     * The most plies the extensions may add along a single line, which never exceeds the depth of the iteration.
+     */
+    private final int maxExtensions;
+
+    private SearchOptions(final Builder builder) {
+        this.nullMovePruning = builder.nullMovePruning;
+        this.lateMoveReductions = builder.lateMoveReductions;
+        this.aspirationWindows = builder.aspirationWindows;
+        this.aspirationDelta = builder.aspirationDelta;
+        this.aspirationGrowth = builder.aspirationGrowth;
+        this.threadCount = builder.threadCount;
+        this.parallelMode = builder.parallelMode;
+        this.checkExtension = builder.checkExtension;
+        this.oneReplyExtension = builder.oneReplyExtension;
+        this.singularExtension = builder.singularExtension;
+        this.pawnPushExtension = builder.pawnPushExtension;
+        this.maxExtensions = builder.maxExtensions;
+    }
+
+    /**
+     * The {@code Builder} class creates {@link SearchOptions}.
+     */
+    public static class Builder {
+        private boolean nullMovePruning = true;
+        private boolean lateMoveReductions = true;
+        private boolean aspirationWindows = true;
+        private int aspirationDelta = 50;
+        private double aspirationGrowth = 2.0;
+        private int threadCount = 1;
+        private ParallelMode parallelMode = ParallelMode.LAZY_SMP;
+        private boolean checkExtension = true;
+        private boolean oneReplyExtension = true;
+        private boolean singularExtension = true;
+        private boolean pawnPushExtension = true;
+        private int maxExtensions = 16;
+
+        public Builder setNullMovePruning(final boolean nullMovePruning) {
+            this.nullMovePruning = nullMovePruning;
+            return this;
+        }
+
+        public Builder setLateMoveReductions(final boolean lateMoveReductions) {
+            this.lateMoveReductions = lateMoveReductions;
+            return this;
+        }
+
+        public Builder setAspirationWindows(final boolean aspirationWindows) {
+            this.aspirationWindows = aspirationWindows;
+            return this;
+        }
+
+        /**
+         * Sets the size of the aspiration windows.
+         *
+         * @param aspirationDelta  The distance of the first window bounds from the previous score, in centipawns.
+         * @param aspirationGrowth The factor the distance grows by after every failed window.
+         * @return The current builder instance for method chaining.
+         * @throws IllegalArgumentException If the delta is not positive or the window would not grow.
+         */
+        public Builder setAspirationWindow(final int aspirationDelta, final double aspirationGrowth) {
+            if (aspirationDelta <= 0 || aspirationGrowth <= 1.0) {
+                throw new IllegalArgumentException("The aspiration window has to be positive and growing!");
+            }
+            this.aspirationDelta = aspirationDelta;
+            this.aspirationGrowth = aspirationGrowth;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads of the search, which are used as the {@link ParallelMode} tells.
+         *
+         * @param threadCount The number of threads.
+         * @return The current builder instance for method chaining.
+         * @throws IllegalArgumentException If the thread count is not positive.
+         */
+        public Builder setThreadCount(final int threadCount) {
+            if (threadCount <= 0) {
+                throw new IllegalArgumentException("The thread count has to be positive!");
+            }
+            this.threadCount = threadCount;
+            return this;
+        }
+
+        public Builder setParallelMode(final ParallelMode parallelMode) {
+            this.parallelMode = parallelMode;
+            return this;
+        }
+
+        public Builder setCheckExtension(final boolean checkExtension) {
+            this.checkExtension = checkExtension;
+            return this;
+        }
+
+        public Builder setOneReplyExtension(final boolean oneReplyExtension) {
+            this.oneReplyExtension = oneReplyExtension;
+            return this;
+        }
+
+        public Builder setSingularExtension(final boolean singularExtension) {
+            this.singularExtension = singularExtension;
+            return this;
+        }
+
+        public Builder setPawnPushExtension(final boolean pawnPushExtension) {
+            this.pawnPushExtension = pawnPushExtension;
+            return this;
+        }
+
+        /**
+         * Sets the extension budget of a line, shared by all the enabled extensions.
+         *
+         * @param maxExtensions The most plies the extensions may add along a single line, 0 to extend nothing.
+         * @return The current builder instance for method chaining.
+         * @throws IllegalArgumentException If the budget is negative.
+         */
+        public Builder setMaxExtensions(final int maxExtensions) {
+            if (maxExtensions < 0) {
+                throw new IllegalArgumentException("The extension budget cannot be negative!");
+            }
+            this.maxExtensions = maxExtensions;
+            return this;
+        }
+
+        public SearchOptions build() {
+            return new SearchOptions(this);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * The {@code SearchResult} class holds one line found by a search: a root move with the score the search gave it,
+ * the depth of the iteration that found it and the principal variation starting with it, along with the positions
+ * searched and the time spent until then. A search for several lines returns its results best first,
+ * see {@link MoveStrategy#analyze(Board, int)}.
+ */
+
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveUtils;
+import lombok.Getter;
+
+public class SearchResult {
+    @Getter
+    private final Move move;
+    /**
+     * The score of the line in centipawns, from the point of view of the side to move at the root.
+     */
+    @Getter
+    private final int score;
+    /**
+     * The depth of the iteration the line was found in, or 0 if the search was stopped before any iteration finished.
+     */
+    @Getter
+    private final int depth;
+    private final int[] principalVariation;
+    /**
+     * The number of positions searched since the search started, including the quiescence nodes.
+     */
+    @Getter
+    private final long nodes;
+    /**
+     * The time spent since the search started, in milliseconds.
+     */
+    @Getter
+    private final long time;
+
+    /**
+     * Constructs a {@code SearchResult}.
+     *
+     * @param move               The root move of the line.
+     * @param score              The score of the line.
+     * @param depth              The depth of the iteration that found the line.
+     * @param principalVariation The encoded moves of the line, starting with the root move.
+     * @param nodes              The number of positions searched.
+     * @param time               The time spent in milliseconds.
+     */
+    public SearchResult(final Move move, final int score, final int depth, final int[] principalVariation,
+                        final long nodes, final long time) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = principalVariation.clone();
+        this.nodes = nodes;
+        this.time = time;
+    }
+
+    /**
+     * Retrieves the principal variation of the line: the root move followed by the best replies of both sides,
+     * as far as the search followed them.
+     *
+     * @return The encoded moves of the line, see {@link MoveUtils}.
+     */
+    public int[] getPrincipalVariation() {
+        return this.principalVariation.clone();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("depth ").append(this.depth).append(" score ").append(this.score)
+                .append(" nodes ").append(this.nodes).append(" time ").append(this.time).append(" pv");
+        for (final int move : this.principalVariation) {
+            builder.append(' ').append(MoveUtils.toAlgebraic(move));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * The {@code TranspositionTable} class remembers the results of searched positions, keyed by their Zobrist key,
+ * so that a position reached again through another move order, or in a later search, is not searched twice.
+ * <p>
+ * The table has a fixed size given in megabytes. Entries are grouped into buckets of two: the first slot keeps
+ * the deepest result seen for its index, while the second slot always takes the newest one. Deep results survive
+ * the many shallow ones, and recent shallow results are still found. A table is meant to be kept for a whole game,
+ * so the search of a move starts with the results of the previous one.
+ * <p>
+ * An entry is packed into a {@code long}: bits 0-25 hold the best move (see {@link MoveUtils}), bits 26-27
+ * the bound, bits 28-33 the depth and bits 34-63 the score. A probe returns the packed entry, which is read
+ * with the static getters of this class, so probing allocates nothing.
+ * <p>
+ * The table is shared by the threads of a parallel search without any locking. A slot keeps the key XOR-ed with
+ * its entry instead of the key itself, so a slot whose key and entry were written by two different threads at once
+ * no longer matches its key and is ignored, rather than handing out the entry of another position.
+ */
+
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.MoveUtils;
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+    public static final int DEFAULT_SIZE_MB = 32;
+
+    /**
+     * The bound types of a stored score, which is seen from the side to move. The score of an exact entry is
+     * the true value of the position, a lower bound comes from a beta cutoff and an upper bound from a node
+     * where no move reached alpha.
+     */
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    /**
+     * The value of {@link #probe(long)} if the position is not stored. No stored entry is 0, since its bound is not.
+     */
+    public static final long NO_ENTRY = 0L;
+
+    private static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+    private static final int MAX_DEPTH = 63;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int bucketMask;
+
+    /**
+     * Constructs a {@code TranspositionTable} using at most the given amount of memory.
+     * The number of buckets is rounded down to a power of two.
+     *
+     * @param sizeInMb The memory budget in megabytes.
+     * @throws IllegalArgumentException If the size is not positive.
+     */
+    public TranspositionTable(final int sizeInMb) {
+        if (sizeInMb <= 0) {
+            throw new IllegalArgumentException("The transposition table size has to be positive!");
+        }
+        final long buckets = Long.highestOneBit(sizeInMb * 1024L * 1024L / (2 * BYTES_PER_ENTRY));
+        this.keys = new long[(int) (2 * buckets)];
+        this.entries = new long[(int) (2 * buckets)];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key The Zobrist key of the position.
+     * @return The packed entry, or {@link #NO_ENTRY} if the position is not stored.
+     */
+    public long probe(final long key) {
+        final int index = bucketIndex(key);
+        for (int slot = index; slot <= index + 1; slot++) {
+            // the entry is read once, so it cannot change between the validation and the return
+            final long entry = this.entries[slot];
+            if (entry != NO_ENTRY && (this.keys[slot] ^ entry) == key) {
+                return entry;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores the result of a search. The result goes to the depth-preferred slot of its bucket if it is at least
+     * as deep as the result held there or belongs to the same position, and to the always-replace slot otherwise.
+     * Without a best move, the move already stored for the position is kept.
+     *
+     * @param key   The Zobrist key of the position.
+     * @param move  The best move found, or {@link MoveUtils#NULL_ENCODED_MOVE}.
+     * @param score The score of the position.
+     * @param depth The remaining depth the position was searched to.
+     * @param bound The bound type of the score.
+     */
+    public void store(final long key, int move, final int score, final int depth, final int bound) {
+        final int bucket = bucketIndex(key);
+        final long deepEntry = this.entries[bucket];
+        final boolean samePosition = (this.keys[bucket] ^ deepEntry) == key;
+        final int index = samePosition || depth >= getDepth(deepEntry) ? bucket : bucket + 1;
+        final long oldEntry = index == bucket ? deepEntry : this.entries[index];
+        if (move == MoveUtils.NULL_ENCODED_MOVE && oldEntry != NO_ENTRY && (this.keys[index] ^ oldEntry) == key) {
+            move = getMove(oldEntry);
+        }
+        final long entry = pack(move, score, Math.min(depth, MAX_DEPTH), bound);
+        this.keys[index] = key ^ entry;
+        this.entries[index] = entry;
+    }
+
+    /**
+     * Removes every stored entry, for example when a new game starts.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, 0L);
+        Arrays.fill(this.entries, NO_ENTRY);
+    }
+
+    /**
+     * Retrieves the number of entries the table can hold.
+     *
+     * @return The capacity of the table.
+     */
+    public int getCapacity() {
+        return this.entries.length;
+    }
+
+    private int bucketIndex(final long key) {
+        return ((int) key & this.bucketMask) << 1;
+    }
+
+    private static long pack(final int move, final int score, final int depth, final int bound) {
+        return move | ((long) bound << 26) | ((long) depth << 28) | ((long) score << 34);
+    }
+
+    public static int getMove(final long entry) {
+        return (int) (entry & 0x3FFFFFF);
+    }
+
+    public static int getBound(final long entry) {
+        return (int) (entry >>> 26) & 0x3;
+    }
+
+    public static int getDepth(final long entry) {
+        return (int) (entry >>> 28) & MAX_DEPTH;
+    }
+
+    public static int getScore(final long entry) {
+        return (int) (entry >> 34);
+    }
+}
@@ -2,6 +2,8 @@ package com.chess.gui;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.player.Player;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchOptions;
 import com.chess.gui.Table.PlayerType;
 
 import javax.swing.*;
@@ -13,6 +15,9 @@ class GameSetup extends JDialog {
     private PlayerType whitePlayerType;
     private PlayerType blackPlayerType;
     private final JSpinner searchDepthSpinner;
+    private final JSpinner moveTimeSpinner;
+    private final JSpinner threadCountSpinner;
+    private final JCheckBox ponderCheckBox;
 
     GameSetup(final JFrame frame, final boolean modal) {
         super(frame, modal);
@@ -41,7 +46,16 @@ class GameSetup extends JDialog {
         myPanel.add(blackComputerButton);
 
         myPanel.add(new JLabel("Search"));
-        this.searchDepthSpinner = addLabeledSpinner(myPanel, new SpinnerNumberModel(3, 0, Integer.MAX_VALUE, 1));
+        this.searchDepthSpinner = addLabeledSpinner(myPanel, "Max Search Depth",
+                new SpinnerNumberModel(SearchLimits.MAX_DEPTH, 1, SearchLimits.MAX_DEPTH, 1));
+        // a move time of 0 leaves the search bounded by depth only
+        this.moveTimeSpinner = addLabeledSpinner(myPanel, "Move Time (ms)",
+                new SpinnerNumberModel(3000, 0, 600000, 500));
+        this.threadCountSpinner = addLabeledSpinner(myPanel, "Search Threads",
+                new SpinnerNumberModel(1, 1, Runtime.getRuntime().availableProcessors(), 1));
+        // the computer keeps searching the expected reply while the human player thinks
+        this.ponderCheckBox = new JCheckBox("Ponder", false);
+        myPanel.add(this.ponderCheckBox);
 
         final JButton cancelButton = new JButton("Cancel");
         final JButton okButton = new JButton("OK");
@@ -66,8 +80,9 @@ class GameSetup extends JDialog {
     }
 
     private static JSpinner addLabeledSpinner(final Container c,
+                                              final String label,
                                               final SpinnerModel model) {
-        final JLabel l = new JLabel("Search Depth");
+        final JLabel l = new JLabel(label);
         c.add(l);
         final JSpinner spinner = new JSpinner(model);
         l.setLabelFor(spinner);
@@ -98,4 +113,39 @@ class GameSetup extends JDialog {
     int getSearchDepth() {
         return (Integer) this.searchDepthSpinner.getValue();
     }
+
+    int getMoveTime() {
+        return (Integer) this.moveTimeSpinner.getValue();
+    }
+
+    int getThreadCount() {
+        return (Integer) this.threadCountSpinner.getValue();
+    }
+
+    boolean isPondering() {
+        return this.ponderCheckBox.isSelected();
+    }
+
+    /**
+     * Creates the limits of a computer move from the search depth and move time settings.
+     *
+     * @return The search limits.
+     */
+    SearchLimits getSearchLimits() {
+        return new SearchLimits.Builder()
+                .setDepth(getSearchDepth())
+                .setMoveTime(getMoveTime() > 0 ? getMoveTime() : SearchLimits.NO_TIME_LIMIT)
+                .build();
+    }
+
+    /**
+     * Creates the options of a computer move from the thread count setting.
+     *
+     * @return The search options.
+     */
+    SearchOptions getSearchOptions() {
+        return new SearchOptions.Builder()
+                .setThreadCount(getThreadCount())
+                .build();
+    }
 }
\ No newline at end of file
@@ -3,15 +3,17 @@ package com.chess.gui;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.board.MutableBoard;
 import com.chess.engine.board.Tile;
 import com.chess.engine.piece.Piece;
 import com.chess.engine.player.MoveTransition;
 import com.chess.engine.player.ai.MiniMax;
-import com.chess.engine.player.ai.MoveStrategy;
+import com.chess.engine.player.ai.MoveHistory;
+import com.chess.engine.player.ai.TranspositionTable;
 import com.chess.pgn.FenUtilities;
 import com.google.common.collect.Lists;
 import lombok.Getter;
-import lombok.Setter;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -43,9 +45,17 @@ public class Table extends Observable {
     private final BoardPanel boardPanel;
     private final MoveLog moveLog;
     private final GameSetup gameSetup;
+    /**
+     * The transposition table shared by the searches of all computer moves, so that every search starts
+     * with the results of the previous ones.
+     */
+    private final TranspositionTable transpositionTable;
+    /**
+     * The move ordering statistics shared by the searches of all computer moves, aged by every search.
+     */
+    private final MoveHistory moveHistory;
     private final Color lightTileColor = new Color(238, 238, 210);
     private final Color darkTileColor = new Color(118, 150, 86);
-    @Setter
     private Board chessBoard;
     private Tile sourceTile;
     private Tile destinationTile;
@@ -53,6 +63,16 @@ public class Table extends Observable {
     private BoardDirection boardDirection;
     private boolean highlightLegalMoves;
     private Move computerMove;
+    /**
+     * The search of the computer move currently running, or {@code null} if the computer is not thinking.
+     */
+    private AIThinkTank thinkTank;
+    /**
+     * The search running on the time of the human player, on the board after the reply the computer expects,
+     * and that reply. The search is {@code null} if the computer is not pondering.
+     */
+    private AIThinkTank ponderTank;
+    private int ponderMove;
 
     private Table() {
         this.gameFrame = new JFrame("JChess");
@@ -72,6 +92,8 @@ public class Table extends Observable {
         this.moveLog = new MoveLog();
         this.addObserver(new TableGameAIWatcher());
         this.gameSetup = new GameSetup(this.gameFrame, true);
+        this.transpositionTable = new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB);
+        this.moveHistory = new MoveHistory();
         this.boardDirection = BoardDirection.NORMAL;
         this.highlightLegalMoves = true;
 
@@ -101,6 +123,98 @@ public class Table extends Observable {
         return this.chessBoard;
     }
 
+    /**
+     * Replaces the board of the game. A computer search still running on the previous board is cancelled,
+     * since its move would not fit the new one, and the transposition table and the move history are cleared,
+     * since their entries come from another game.
+     *
+     * @param chessBoard The new board.
+     */
+    public void setChessBoard(final Board chessBoard) {
+        cancelSearch();
+        this.transpositionTable.clear();
+        this.moveHistory.clear();
+        this.chessBoard = chessBoard;
+    }
+
+    /**
+     * Stops the running computer search and the ponder search, and throws their results away.
+     */
+    private void cancelSearch() {
+        cancelThinking();
+        cancel(this.ponderTank);
+        this.ponderTank = null;
+    }
+
+    /**
+     * Cancels the computer search of the current move, when the human player moved on the board instead.
+     * A ponder search is left running, since it is on the board after the move of the human player.
+     */
+    private void cancelThinking() {
+        cancel(this.thinkTank);
+        this.thinkTank = null;
+    }
+
+    private static void cancel(final AIThinkTank tank) {
+        if (tank != null) {
+            tank.cancel(false);
+            tank.strategy.stop();
+        }
+    }
+
+    /**
+     * Starts searching on the time of the human player, on the board after the reply the computer expects to its move.
+     * Nothing is started if pondering is switched off, the computer is to move again or the reply is not known.
+     *
+     * @param expectedReply The encoded reply, or {@link MoveUtils#NULL_ENCODED_MOVE}.
+     */
+    private void startPondering(final int expectedReply) {
+        final Board board = getGameBoard();
+        if (!this.gameSetup.isPondering() || this.gameSetup.isAIPlayer(board.getCurrentPlayer()) ||
+                expectedReply == MoveUtils.NULL_ENCODED_MOVE) {
+            return;
+        }
+        final MoveTransition transition = board.getCurrentPlayer().makeMove(MoveUtils.toMove(board, expectedReply));
+        if (!transition.getMoveStatus().isDone()) {
+            return;
+        }
+        this.ponderMove = expectedReply;
+        this.ponderTank = new AIThinkTank(transition.getToBoard(), true);
+        this.ponderTank.execute();
+    }
+
+    /**
+     * Hands the ponder search over as the search of the computer move if the human player made the expected move,
+     * and cancels it otherwise.
+     *
+     * @return Whether the ponder search goes on as the search of the computer move.
+     */
+    private boolean continuePondering() {
+        final AIThinkTank tank = this.ponderTank;
+        this.ponderTank = null;
+        if (tank == null) {
+            return false;
+        }
+        final List<Move> moves = this.moveLog.getMoves();
+        if (moves.isEmpty() || MoveUtils.encodeMove(moves.get(moves.size() - 1)) != this.ponderMove) {
+            cancel(tank);
+            return false;
+        }
+        tank.gameBoard = getGameBoard();
+        tank.strategy.ponderHit();
+        this.thinkTank = tank;
+        return true;
+    }
+
+    /**
+     * Makes the running computer search return the best move it found so far, which is then played as usual.
+     */
+    private void moveNow() {
+        if (this.thinkTank != null) {
+            this.thinkTank.strategy.stop();
+        }
+    }
+
     private JMenuBar createTableMenuBar() {
         final JMenuBar tableMenuBar = new JMenuBar();
         tableMenuBar.add(createFileMenu());
@@ -115,7 +229,7 @@ public class Table extends Observable {
         openPGN.addActionListener(e -> {
             String userInput = JOptionPane.showInputDialog(gameFrame, "Enter PGN File Path:");
             if (userInput != null) {
-                this.chessBoard = FenUtilities.createGameFromFEN(userInput);
+                setChessBoard(FenUtilities.createGameFromFEN(userInput));
                 this.moveLog.clear();
                 this.gameHistoryPanel.redo(chessBoard, moveLog);
                 this.takenPiecesPanel.redo(moveLog);
@@ -152,10 +266,16 @@ public class Table extends Observable {
             Table.get().setupUpdate(Table.get().getGameSetup());
         });
         optionsMenu.add(setupGameMenuItem);
+
+        final JMenuItem moveNowMenuItem = new JMenuItem("Move Now");
+        moveNowMenuItem.addActionListener(e -> Table.get().moveNow());
+        optionsMenu.add(moveNowMenuItem);
         return optionsMenu;
     }
 
     private void setupUpdate(final GameSetup gameSetup) {
+        // the search was started with the old setup, the observers start a new one if the computer is to move
+        cancelSearch();
         setChanged();
         notifyObservers(gameSetup);
     }
@@ -229,8 +349,13 @@ public class Table extends Observable {
             if (Table.get().getGameSetup().isAIPlayer(Table.get().getGameBoard().getCurrentPlayer()) &&
                     !Table.get().getGameBoard().getCurrentPlayer().isInCheckMate() &&
                     !Table.get().getGameBoard().getCurrentPlayer().isInStalemate()) {
-                final AIThinkTank thinkTank = new AIThinkTank();
-                thinkTank.execute();
+                // a search already running for this move is not started twice
+                if (Table.get().thinkTank == null && !Table.get().continuePondering()) {
+                    Table.get().thinkTank = new AIThinkTank(Table.get().getGameBoard(), false);
+                    Table.get().thinkTank.execute();
+                }
+            } else {
+                Table.get().cancelSearch();
             }
 
             // TODO - popup window
@@ -245,17 +370,46 @@ public class Table extends Observable {
     }
 
     private static class AIThinkTank extends SwingWorker<Move, String> {
-        private AIThinkTank() {
+        private final Board searchBoard;
+        private final boolean pondering;
+        private final MiniMax strategy;
+        /**
+         * The board the found move is played on: the searched board, or for a ponder search the board of the game
+         * once the expected move was played. Only used on the event dispatch thread.
+         */
+        private Board gameBoard;
+
+        /**
+         * Prepares the search of a computer move. The strategy is created right away, so that it can be stopped
+         * even before the search starts.
+         *
+         * @param board     The board to search the move for.
+         * @param pondering Whether the board is the one expected after the next move of the human player.
+         */
+        private AIThinkTank(final Board board, final boolean pondering) {
+            this.searchBoard = board;
+            this.pondering = pondering;
+            this.gameBoard = pondering ? null : board;
+            this.strategy = new MiniMax(Table.get().gameSetup.getSearchLimits(),
+                    Table.get().gameSetup.getSearchOptions(), MutableBoard.Backend.BITBOARD,
+                    Table.get().transpositionTable, Table.get().moveHistory);
         }
 
         @Override
         protected Move doInBackground() throws Exception {
-            final MoveStrategy miniMax = new MiniMax(Table.get().gameSetup.getSearchDepth());
-            return miniMax.execute(Table.get().getGameBoard());
+            return this.pondering ? this.strategy.ponder(this.searchBoard) : this.strategy.execute(this.searchBoard);
         }
 
         @Override
         protected void done() {
+            // cleared first, so that a search with nothing to play does not keep the next one from starting
+            if (Table.get().thinkTank == this) {
+                Table.get().thinkTank = null;
+            }
+            // a cancelled search, or one whose board was replaced meanwhile, has nothing to play
+            if (isCancelled() || Table.get().getGameBoard() != this.gameBoard) {
+                return;
+            }
             try {
                 final Move bestMove = get();
                 Table.get().updateComputerMove(bestMove);
@@ -265,6 +419,7 @@ public class Table extends Observable {
                 Table.get().getTakenPiecesPanel().redo(Table.get().moveLog);
                 Table.get().getBoardPanel().drawBoard(Table.get().getGameBoard());
                 Table.get().moveMadeUpdate(PlayerType.COMPUTER);
+                Table.get().startPondering(this.strategy.getPonderMove());
             } catch (InterruptedException | ExecutionException e) {
                 throw new RuntimeException(e);
             }
@@ -361,6 +516,7 @@ public class Table extends Observable {
                             final Move move = Move.MoveFactory.createMove(chessBoard, sourceTile.getTileCoordinate(), destinationTile.getTileCoordinate());
                             final MoveTransition transition = chessBoard.getCurrentPlayer().makeMove(move);
                             if (transition.getMoveStatus().isDone()) {
+                                Table.get().cancelThinking();
                                 chessBoard = transition.getToBoard();
                                 moveLog.addMove(move);
                             }
@@ -435,8 +591,7 @@ public class Table extends Observable {
             if (humanMovedPiece != null && humanMovedPiece.getPieceAlliance() == board.getCurrentPlayer().getAlliance()) {
                 Collection<Move> legalMoves = new ArrayList<>(humanMovedPiece.calculateLegalMoves(board));
                 if (humanMovedPiece.getPieceType() == Piece.PieceType.KING) {
-                    legalMoves.addAll(new ArrayList<>(board.getCurrentPlayer().calculateKingCastles(
-                            board.getCurrentPlayer().getLegalMoves(), board.getCurrentPlayer().getOpponent().getLegalMoves())));
+                    legalMoves.addAll(new ArrayList<>(board.getCurrentPlayer().calculateKingCastles()));
                 }
                 return legalMoves;
             }
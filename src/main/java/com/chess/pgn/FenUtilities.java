@@ -98,6 +98,9 @@ public class FenUtilities {
             }
         }
         builder.setMoveMaker(moveMaker(fenPartitions[1]));
+        // the clocks are optional, as in the FEN strings of many test suites
+        builder.setMoveClocks(fenPartitions.length > 4 ? Integer.parseInt(fenPartitions[4]) : 0,
+                fenPartitions.length > 5 ? Integer.parseInt(fenPartitions[5]) : 1);
         return builder.build();
     }
 
@@ -131,14 +134,14 @@ public class FenUtilities {
                 calculateCurrentPlayerText(board) + " " +
                 calculateCastleText(board) + " " +
                 calculateEnPassantText(board) + " " +
-                "0 1"; //TODO - clock, move number
+                board.getHalfmoveClock() + " " +
+                board.getFullmoveNumber();
     }
 
     private static String calculateBoardText(final Board board) {
         final StringBuilder builder = new StringBuilder();
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            final String tileText = board.getTileAtCoordinate(i).toString();
-            builder.append(tileText);
+            builder.append(PieceUtils.toString(board.getPieceCode(i)));
         }
         builder.insert(8, "/");
         builder.insert(17, "/");
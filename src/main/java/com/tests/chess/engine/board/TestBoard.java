@@ -9,9 +9,12 @@ import com.chess.engine.board.Move.MoveFactory;
 import com.chess.engine.board.MoveUtils;
 import com.chess.engine.piece.*;
 import com.chess.engine.player.MoveTransition;
+import com.chess.pgn.FenUtilities;
 import com.google.common.collect.Iterables;
 import org.junit.Test;
 
+import java.util.Collection;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TestBoard {
@@ -214,6 +217,27 @@ public class TestBoard {
         builder.build();
     }
 
+    @Test
+    public void testSquareAttacked() {
+        final Board board = Board.createStandardBoard();
+        final int e3 = BoardUtils.getCoordinateAtPosition("e3");
+        final int e4 = BoardUtils.getCoordinateAtPosition("e4");
+        assertTrue(board.isSquareAttacked(e3, Alliance.WHITE));
+        assertFalse(board.isSquareAttacked(e3, Alliance.BLACK));
+        assertFalse(board.isSquareAttacked(e4, Alliance.WHITE));
+        assertNotEquals(0, board.getAttackMap(Alliance.WHITE) & (1L << e3));
+        assertEquals(0, board.getAttackMap(Alliance.WHITE) & (1L << e4));
+    }
+
+    @Test
+    public void testCastlingThroughAttackedTiles() {
+        // a pawn attacks f1 without having a move there, the tile next to the a1 rook may be attacked
+        final Board board = FenUtilities.createGameFromFEN("r3k2r/8/8/8/8/8/p5p1/R3K2R w KQkq - 0 1");
+        final Collection<Move> castles = board.getCurrentPlayer().calculateKingCastles();
+        assertEquals(1, castles.size());
+        assertEquals("O-O-O", castles.iterator().next().toString());
+    }
+
     @Test
     public void testAlgebraicNotation() {
         assertEquals(BoardUtils.getPositionAtCoordinate(0), "a8");
@@ -1,81 +1,280 @@
 package com.tests.chess.engine.board;
 
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.gui.Table;
+import com.chess.engine.board.MoveBuffer;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.player.ai.MovePicker;
 import com.chess.pgn.FenUtilities;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestMoveGeneration {
-    public int generateMovesTest(int depth) {
+    private final MoveBuffer moveBuffer = new MoveBuffer();
+    private final int[][] killerMoves = new int[MoveBuffer.MAX_PLY][2];
+
+    public long generateMovesTest(final MutableBoard board, final int depth) {
         if (depth == 0) {
             return 1;
         }
 
-        Iterable<Move> legalMoves = Table.get().getGameBoard().getCurrentPlayer().getLegalMoves();
-        int numMoves = 0;
+        long numMoves = 0;
 
-        for (Move move : legalMoves) {
-            Table.get().getGameBoard().getCurrentPlayer().makeMove(move);
-            numMoves += generateMovesTest(depth - 1);
-            Table.get().getGameBoard().getCurrentPlayer().undoMove(move);
+        final int[] moves = this.moveBuffer.getMoves(board.getPly());
+        final int moveCount = board.generatePseudoLegalMoves(moves);
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            if (!board.leftKingInCheck()) {
+                numMoves += generateMovesTest(board, depth - 1);
+            }
+            board.unmakeMove();
         }
 
         return numMoves;
     }
 
-    @Test
-    public void testMoveGenerationStandardBoard() {
-        Table.get().setChessBoard(FenUtilities.createGameFromFEN("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+    public long generateLegalMovesTest(final MutableBoard board, final int depth) {
+        final int[] moves = this.moveBuffer.getMoves(board.getPly());
+        final int moveCount = board.generateLegalMoves(moves);
+        if (depth == 1) {
+            return moveCount;
+        }
 
-        int numMoves = generateMovesTest(1);
-        assertEquals(20, numMoves);
+        long numMoves = 0;
 
-        numMoves = generateMovesTest(2);
-        assertEquals(400, numMoves);
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            numMoves += generateLegalMovesTest(board, depth - 1);
+            board.unmakeMove();
+        }
 
-//        numMoves = generateMovesTest(3);
-//        assertEquals(8902, numMoves);
+        return numMoves;
+    }
 
-//        numMoves = generateMovesTest(4);
-//        assertEquals(197281, numMoves);
+    /**
+     * Counts the leaf nodes using a {@link MovePicker} at every node, with the moves played at the same ply
+     * elsewhere in the tree as killer moves and the first move of the parent as hash move.
+     * Those moves are often illegal in the node, so the picker has to reject them and must not hand out a move twice.
+     */
+    public long generatePickedMovesTest(final MutableBoard board, final int depth, final int hashMove) {
+        if (depth == 0) {
+            return 1;
+        }
+        final int ply = board.getPly();
+        final int[] legalMoves = board.generateLegalMoves();
+        final MovePicker movePicker = new MovePicker();
+        movePicker.init(board, this.moveBuffer.getMoves(ply), hashMove, this.killerMoves[ply][0], this.killerMoves[ply][1]);
 
-//        numMoves = generateMovesTest(5);
-//        assertEquals(4865609, numMoves);
+        final int[] pickedMoves = new int[MutableBoard.MAX_MOVES];
+        int moveCount = 0;
+        long numMoves = 0;
+        int firstMove = MoveUtils.NULL_ENCODED_MOVE;
+        for (int move = movePicker.nextMove(); move != MoveUtils.NULL_ENCODED_MOVE; move = movePicker.nextMove()) {
+            pickedMoves[moveCount++] = move;
+            if (firstMove == MoveUtils.NULL_ENCODED_MOVE) {
+                firstMove = move;
+            }
+            board.makeMove(move);
+            numMoves += generatePickedMovesTest(board, depth - 1, firstMove);
+            board.unmakeMove();
+            this.killerMoves[ply][1] = this.killerMoves[ply][0];
+            this.killerMoves[ply][0] = move;
+        }
+        final int[] sortedMoves = Arrays.copyOf(pickedMoves, moveCount);
+        Arrays.sort(sortedMoves);
+        Arrays.sort(legalMoves);
+        assertArrayEquals(legalMoves, sortedMoves);
+        return numMoves;
+    }
+
+    @Test
+    public void testMoveGenerationStandardBoard() {
+        for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+            final MutableBoard board = backend.create(FenUtilities.createGameFromFEN("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+
+            assertEquals(20, generateMovesTest(board, 1));
+            assertEquals(400, generateMovesTest(board, 2));
+            assertEquals(8902, generateMovesTest(board, 3));
+            assertEquals(197281, generateMovesTest(board, 4));
+
+//            assertEquals(4865609, generateMovesTest(board, 5));
+        }
     }
 
     @Test // https://www.chessprogramming.org/Perft_Results
     public void testMoveGenerationPosition2() {
-        Table.get().setChessBoard(FenUtilities.createGameFromFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - "));
+        for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+            final MutableBoard board = backend.create(FenUtilities.createGameFromFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - "));
+
+            assertEquals(48, generateMovesTest(board, 1));
+            assertEquals(2039, generateMovesTest(board, 2));
+            assertEquals(97862, generateMovesTest(board, 3));
+
+//            assertEquals(4085603, generateMovesTest(board, 4));
+        }
+    }
+
+    @Test
+    public void testMoveGenerationPosition3() {
+        for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+            final MutableBoard board = backend.create(FenUtilities.createGameFromFEN("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - "));
+
+            assertEquals(14, generateMovesTest(board, 1));
+            assertEquals(191, generateMovesTest(board, 2));
+            assertEquals(2812, generateMovesTest(board, 3));
+            assertEquals(43238, generateMovesTest(board, 4));
+        }
+    }
 
-        int numMoves = generateMovesTest(1);
-        assertEquals(48, numMoves);
+    @Test // pins, checks and en passant captures along the king's rank
+    public void testLegalMoveGeneration() {
+        for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+            final MutableBoard board = backend.create(FenUtilities.createGameFromFEN("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - "));
+            assertEquals(43238, generateLegalMovesTest(board, 4));
 
-//        numMoves = generateMovesTest(2);
-//        assertEquals(2039	, numMoves);
+            final MutableBoard position4 = backend.create(FenUtilities.createGameFromFEN("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"));
+            assertEquals(6, generateLegalMovesTest(position4, 1));
+            assertEquals(264, generateLegalMovesTest(position4, 2));
+            assertEquals(9467, generateLegalMovesTest(position4, 3));
+            assertEquals(422333, generateLegalMovesTest(position4, 4));
+        }
+    }
 
-//        numMoves = generateMovesTest(3);
-//        assertEquals(97862, numMoves);
+    @Test
+    public void testMovePicker() {
+        for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+            final MutableBoard board = backend.create(FenUtilities.createGameFromFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - "));
+            assertEquals(97862, generatePickedMovesTest(board, 3, MoveUtils.NULL_ENCODED_MOVE));
 
-//        numMoves = generateMovesTest(4);
-//        assertEquals(4085603, numMoves);
+            final MutableBoard position4 = backend.create(FenUtilities.createGameFromFEN("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"));
+            assertEquals(9467, generatePickedMovesTest(position4, 3, MoveUtils.NULL_ENCODED_MOVE));
+        }
     }
 
     @Test
-    public void testMoveGenerationPosition3() {
-        Table.get().setChessBoard(FenUtilities.createGameFromFEN("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - "));
+    public void testMoveEncoding() {
+        // castling and en passant, then promotions by pushes and captures to every piece
+        for (final String fen : new String[]{"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - ",
+                "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N w - - 0 1"}) {
+            final Board board = FenUtilities.createGameFromFEN(fen);
+            for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+                final int[] legalMoves = backend.create(board).generateLegalMoves();
+                assertEquals(board.getCurrentPlayer().getLegalMoves().size(), legalMoves.length);
+                for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+                    final int encodedMove = MoveUtils.encodeMove(move);
+                    assertTrue(Arrays.stream(legalMoves).anyMatch(legalMove -> legalMove == encodedMove));
+                    assertEquals(move, MoveUtils.toMove(board, encodedMove));
+                }
+            }
+        }
+    }
 
-        int numMoves = generateMovesTest(1);
-        assertEquals(14, numMoves);
+    @Test
+    public void testQuietChecks() {
+        // direct and discovered checks, and a check by castling
+        for (final String fen : new String[]{"4k3/8/8/8/4N3/8/8/4R1K1 w - - 0 1", "5k2/8/8/8/8/8/8/4K2R w K - 0 1"}) {
+            for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+                final MutableBoard board = backend.create(FenUtilities.createGameFromFEN(fen));
+                final int[] expectedChecks = Arrays.stream(board.generateLegalMoves())
+                        .filter(move -> !MoveUtils.isTactical(move) && givesCheck(board, move)).sorted().toArray();
+                final int[] checks = new int[MutableBoard.MAX_MOVES];
+                final int[] sortedChecks = Arrays.copyOf(checks, board.generateLegalQuietChecks(checks));
+                Arrays.sort(sortedChecks);
+                assertTrue(expectedChecks.length > 0);
+                assertArrayEquals(expectedChecks, sortedChecks);
+            }
+        }
+    }
 
-        numMoves = generateMovesTest(2);
-        assertEquals(191	, numMoves);
+    private static boolean givesCheck(final MutableBoard board, final int move) {
+        board.makeMove(move);
+        final boolean check = board.isInCheck();
+        board.unmakeMove();
+        return check;
+    }
 
-        numMoves = generateMovesTest(3);
-        assertEquals(2812, numMoves);
+    private static int findMove(final MutableBoard board, final String from, final String to) {
+        for (final int move : board.generateLegalMoves()) {
+            if (MoveUtils.getCurrentCoordinate(move) == BoardUtils.getCoordinateAtPosition(from) &&
+                    MoveUtils.getDestinationCoordinate(move) == BoardUtils.getCoordinateAtPosition(to)) {
+                return move;
+            }
+        }
+        throw new IllegalArgumentException("No legal move from " + from + " to " + to);
+    }
 
-        numMoves = generateMovesTest(4);
-        assertEquals(43238, numMoves);
+    @Test
+    public void testStaticExchangeEvaluation() {
+        for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+            // an undefended pawn
+            final MutableBoard board = backend.create(FenUtilities.createGameFromFEN("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1"));
+            assertEquals(100, board.staticExchangeEvaluation(findMove(board, "e1", "e5")));
+
+            // the queens join the exchange through the rook and the bishop standing in front of them
+            final MutableBoard xRayBoard = backend.create(FenUtilities.createGameFromFEN("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1"));
+            assertEquals(-200, xRayBoard.staticExchangeEvaluation(findMove(xRayBoard, "d3", "e5")));
+            assertEquals(-400, xRayBoard.staticExchangeEvaluation(findMove(xRayBoard, "e2", "e5")));
+        }
+    }
+
+    private static final String[] KNIGHT_SHUFFLE = {"g1", "f3", "g8", "f6", "f3", "g1", "f6", "g8"};
+
+    private static void playKnightShuffle(final MutableBoard board) {
+        for (int i = 0; i < KNIGHT_SHUFFLE.length; i += 2) {
+            board.makeMove(findMove(board, KNIGHT_SHUFFLE[i], KNIGHT_SHUFFLE[i + 1]));
+        }
+    }
+
+    @Test
+    public void testDrawByRule() {
+        // the knights of both sides go out and back, the game positions before the board count for the threefold
+        Board gameBoard = Board.createStandardBoard();
+        for (int i = 0; i < KNIGHT_SHUFFLE.length; i += 2) {
+            final Move move = Move.MoveFactory.createMove(gameBoard, BoardUtils.getCoordinateAtPosition(KNIGHT_SHUFFLE[i]),
+                    BoardUtils.getCoordinateAtPosition(KNIGHT_SHUFFLE[i + 1]));
+            gameBoard = gameBoard.getCurrentPlayer().makeMove(move).getToBoard();
+        }
+        assertEquals(4, gameBoard.getHalfmoveClock());
+        assertEquals(3, gameBoard.getFullmoveNumber());
+        assertEquals(Board.createStandardBoard().getZobristKey(), gameBoard.getZobristKey());
+
+        for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+            // within the moves made on the board, one repetition is enough
+            final MutableBoard board = backend.create(Board.createStandardBoard());
+            board.makeMove(findMove(board, "g1", "f3"));
+            board.makeMove(findMove(board, "g8", "f6"));
+            assertFalse(board.isDrawByRule());
+            board.makeMove(findMove(board, "f3", "g1"));
+            board.makeMove(findMove(board, "f6", "g8"));
+            assertFalse(board.isRepetition());
+            board.makeMove(findMove(board, "g1", "f3"));
+            assertTrue(board.isRepetition());
+            board.unmakeMove();
+
+            // a position of the game before the board has to occur twice
+            final MutableBoard gameContinuation = backend.create(gameBoard);
+            assertFalse(gameContinuation.isDrawByRule());
+            playKnightShuffle(gameContinuation);
+            assertTrue(gameContinuation.isDrawByRule());
+
+            // the fifty-move rule
+            final MutableBoard endgame = backend.create(FenUtilities.createGameFromFEN("8/8/8/4k3/8/8/8/R3K3 w - - 99 80"));
+            assertEquals(99, endgame.getHalfmoveClock());
+            assertFalse(endgame.isDrawByRule());
+            endgame.makeMove(findMove(endgame, "a1", "a2"));
+            assertTrue(endgame.isDrawByRule());
+            endgame.unmakeMove();
+            assertEquals(99, endgame.getHalfmoveClock());
+        }
+        assertEquals("8/8/8/4k3/8/8/8/R3K3 w - - 99 80",
+                FenUtilities.createFENFromGame(FenUtilities.createGameFromFEN("8/8/8/4k3/8/8/8/R3K3 w - - 99 80")));
     }
 }
@@ -0,0 +1,89 @@
+package com.tests.chess.engine.board;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveBuffer;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.board.Zobrist;
+import com.chess.engine.player.MoveTransition;
+import com.chess.pgn.FenUtilities;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class TestZobrist {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - ";
+    private static final String PROMOTIONS = "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1";
+
+    private final MoveBuffer moveBuffer = new MoveBuffer();
+
+    private void walkBoard(final Board board, final int depth) {
+        if (depth == 0) {
+            return;
+        }
+        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                walkBoard(transition.getToBoard(), depth - 1);
+            }
+        }
+    }
+
+    private void walkBoard(final MutableBoard board, final int depth) {
+        if (depth == 0) {
+            return;
+        }
+        final int[] moves = this.moveBuffer.getMoves(board.getPly());
+        final int moveCount = board.generatePseudoLegalMoves(moves);
+        for (int i = 0; i < moveCount; i++) {
+            final long key = board.getZobristKey();
+            board.makeMove(moves[i]);
+            walkBoard(board, depth - 1);
+            board.unmakeMove();
+            assertEquals(key, board.getZobristKey());
+        }
+    }
+
+    @Test
+    public void testIncrementalKeys() {
+        // in debug mode, every incrementally updated key is checked against a key calculated from scratch
+        Zobrist.setDebug(true);
+        try {
+            for (final String fen : new String[]{KIWIPETE, PROMOTIONS}) {
+                final Board board = FenUtilities.createGameFromFEN(fen);
+                walkBoard(board, 2);
+                for (final MutableBoard.Backend backend : MutableBoard.Backend.values()) {
+                    walkBoard(backend.create(board), 3);
+                }
+            }
+        } finally {
+            Zobrist.setDebug(false);
+        }
+    }
+
+    private static Board play(final Board board, final String from, final String to) {
+        final Move move = Move.MoveFactory.createMove(board,
+                BoardUtils.getCoordinateAtPosition(from), BoardUtils.getCoordinateAtPosition(to));
+        return board.getCurrentPlayer().makeMove(move).getToBoard();
+    }
+
+    @Test
+    public void testTransposition() {
+        final Board board = Board.createStandardBoard();
+        Board transposedBoard = play(board, "g1", "f3");
+        assertNotEquals(board.getZobristKey(), transposedBoard.getZobristKey());
+        transposedBoard = play(transposedBoard, "g8", "f6");
+        transposedBoard = play(transposedBoard, "f3", "g1");
+        transposedBoard = play(transposedBoard, "f6", "g8");
+        assertEquals(board.getZobristKey(), transposedBoard.getZobristKey());
+
+        // the same pieces with the en passant square or the other side to move are different positions
+        final Board jumpBoard = play(board, "e2", "e4");
+        assertNotEquals(jumpBoard.getZobristKey(), FenUtilities.createGameFromFEN(
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1").getZobristKey());
+        assertNotEquals(jumpBoard.getZobristKey(), FenUtilities.createGameFromFEN(
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 1").getZobristKey());
+    }
+}
@@ -0,0 +1,66 @@
+package com.tests.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.player.ai.MiniMax;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchOptions;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.TranspositionTable;
+import com.chess.pgn.FenUtilities;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestMiniMax {
+    private static final SearchOptions ROOT_SPLIT = new SearchOptions.Builder().setThreadCount(2)
+            .setParallelMode(SearchOptions.ParallelMode.ROOT_SPLIT).build();
+
+    private static MiniMax createRootSplitStrategy(final int depth) {
+        return new MiniMax(SearchLimits.ofDepth(depth), ROOT_SPLIT, MutableBoard.Backend.BITBOARD, new TranspositionTable(16));
+    }
+
+    @Test // far more root moves than threads, so most root moves wait for a worker to become idle
+    public void testRootSplit() {
+        final Board board = FenUtilities.createGameFromFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - ");
+        final MiniMax strategy = createRootSplitStrategy(5);
+        final Move move = strategy.execute(board);
+        assertEquals(5, strategy.getCompletedDepth());
+        assertTrue(board.getCurrentPlayer().getLegalMoves().contains(move));
+
+        final List<SearchResult> results = createRootSplitStrategy(4).analyze(board, 3);
+        assertEquals(3, results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).getScore() >= results.get(i).getScore());
+        }
+    }
+
+    @Test
+    public void testRootSplitFindsMate() {
+        final Board board = FenUtilities.createGameFromFEN("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+        final Move mate = Move.MoveFactory.createMove(board, BoardUtils.getCoordinateAtPosition("d1"),
+                BoardUtils.getCoordinateAtPosition("d8"));
+        assertEquals(mate, createRootSplitStrategy(4).execute(board));
+    }
+
+    @Test // a mate keeps its score whatever the depth, so the slower mates cannot outscore it through the shared table
+    public void testMateScore() {
+        final Board board = FenUtilities.createGameFromFEN("7k/8/6K1/8/8/8/8/1Q6 w - - 0 1");
+        final TranspositionTable transpositionTable = new TranspositionTable(16);
+        int mateScore = 0;
+        for (int depth = 3; depth <= 6; depth++) {
+            final SearchResult result = new MiniMax(SearchLimits.ofDepth(depth), new SearchOptions.Builder().build(),
+                    MutableBoard.Backend.BITBOARD, transpositionTable).analyze(board, 1).get(0);
+            assertTrue(board.getCurrentPlayer().makeMove(result.getMove()).getToBoard().getCurrentPlayer().isInCheckMate());
+            if (depth > 3) {
+                assertEquals(mateScore, result.getScore());
+            }
+            mateScore = result.getScore();
+        }
+    }
+}